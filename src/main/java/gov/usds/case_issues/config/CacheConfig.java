@@ -0,0 +1,16 @@
+package gov.usds.case_issues.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Turns on Spring caching and scheduled tasks. The caches themselves (and their size and expiry settings)
+ * are configured under <code>spring.cache</code> in the application properties.
+ */
+@Configuration
+@EnableCaching
+@EnableScheduling
+public class CacheConfig {
+
+}
@@ -11,11 +11,13 @@ public class DataFormatSpec {
 
 	public static final String DEFAULT_CREATION_DATE_KEY = "creationDate";
 	public static final String DEFAULT_RECEIPT_NUMBER_KEY = "receiptNumber";
+	public static final String DEFAULT_ISSUE_ACTION_KEY = "issueAction";
 	public static final DateTimeFormatter DEFAULT_DATETIME_FORMAT = DateTimeFormatter.ISO_DATE_TIME;
 
 	private String creationDateFormat;
 	private String receiptNumberKey = DEFAULT_RECEIPT_NUMBER_KEY;
 	private String creationDateKey = DEFAULT_CREATION_DATE_KEY;
+	private String issueActionKey = DEFAULT_ISSUE_ACTION_KEY;
 
 	private DateTimeFormatter creationDateParser = null;
 
@@ -44,6 +46,11 @@ public class DataFormatSpec {
 		return receiptNumberKey;
 	}
 
+	/** The key giving the action ("open" or "close") for each record of a delta upload. */
+	public String getIssueActionKey() {
+		return issueActionKey;
+	}
+
 	// dumb setters
 	public void setCreationDateKey(String caseCreationDateKey) {
 		this.creationDateKey = caseCreationDateKey;
@@ -57,4 +64,8 @@ public class DataFormatSpec {
 		this.receiptNumberKey = receiptNumberKey;
 	}
 
+	public void setIssueActionKey(String issueActionKey) {
+		this.issueActionKey = issueActionKey;
+	}
+
 }
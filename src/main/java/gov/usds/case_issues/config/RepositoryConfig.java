@@ -0,0 +1,20 @@
+package gov.usds.case_issues.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import gov.usds.case_issues.db.repositories.NaturalIdLookupRepository;
+import gov.usds.case_issues.db.repositories.TaggedEntityRepository;
+
+/**
+ * Spring Data repository configuration: the same as the Spring Boot default, except for the repository base class,
+ * which lets tag lookups use the second-level cache.
+ */
+@Configuration
+@EnableJpaRepositories(
+	basePackageClasses=TaggedEntityRepository.class,
+	repositoryBaseClass=NaturalIdLookupRepository.class
+)
+public class RepositoryConfig {
+
+}
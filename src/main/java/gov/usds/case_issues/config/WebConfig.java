@@ -10,6 +10,7 @@ import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.boot.web.servlet.filter.OrderedFilter;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpInputMessage;
 import org.springframework.http.HttpOutputMessage;
 import org.springframework.http.HttpStatus;
@@ -19,10 +20,13 @@ import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.http.converter.HttpMessageNotWritableException;
 import org.springframework.web.filter.ForwardedHeaderFilter;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.ViewControllerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import gov.usds.case_issues.controllers.HitlistApiController;
+
 /**
  * Configuration that customizes Spring MVC for our specific needs.
  */
@@ -44,7 +48,8 @@ public class WebConfig implements WebMvcConfigurer {
 			registry.addMapping("/api/**")
 					.allowCredentials(true)
 					.allowedMethods("*")
-					.allowedOrigins(origins);
+					.allowedOrigins(origins)
+					.exposedHeaders(HitlistApiController.NEXT_PAGE_CURSOR_HEADER, HttpHeaders.ETAG, HttpHeaders.LOCATION);
 			registry.addMapping("/csrf")
 					.allowCredentials(true)
 					.allowedMethods("GET")
@@ -80,6 +85,17 @@ public class WebConfig implements WebMvcConfigurer {
 		return registration;
 	}
 
+	/**
+	 * The navigation information is small and cheap to fetch, so rather than tracking a version for it we let
+	 * {@link ShallowEtagHeaderFilter} hash the response, which still saves sending it again on every refresh.
+	 */
+	@Bean
+	public FilterRegistrationBean<ShallowEtagHeaderFilter> getNavigationEtagFilter() {
+		FilterRegistrationBean<ShallowEtagHeaderFilter> registration = new FilterRegistrationBean<>(new ShallowEtagHeaderFilter());
+		registration.addUrlPatterns("/api/navigation");
+		return registration;
+	}
+
 	/**
 	 * Trivial {@link HttpMessageConverter} implementation to allow handler methods to accept
 	 * "text/csv" input as a raw input stream.
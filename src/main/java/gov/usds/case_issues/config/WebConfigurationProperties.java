@@ -17,9 +17,23 @@ import gov.usds.case_issues.authorization.CaseIssuePermission;
 @ConfigurationProperties(prefix="web-customization", ignoreUnknownFields=false)
 public class WebConfigurationProperties {
 
+	public static final int DEFAULT_SEARCH_RESULT_LIMIT = 5;
+	public static final int DEFAULT_SEARCH_RESULT_MAX_LIMIT = 25;
+	public static final int DEFAULT_SEARCH_CONTAINS_MIN_LENGTH = 3;
+	public static final int DEFAULT_UPLOAD_WORKERS = 2;
+	public static final int DEFAULT_UPLOAD_QUEUE_CAPACITY = 10;
+	public static final int DEFAULT_UPLOAD_TIMEOUT_MINUTES = 240;
+
 	private String[] _corsOrigins;
 	private List<UserDefinition> _users;
 	private Map<String, DataFormatSpec> _dataFormats = new HashMap<>();
+	private String _cursorSigningKey;
+	private int _searchResultLimit = DEFAULT_SEARCH_RESULT_LIMIT;
+	private int _searchResultMaxLimit = DEFAULT_SEARCH_RESULT_MAX_LIMIT;
+	private int _searchContainsMinLength = DEFAULT_SEARCH_CONTAINS_MIN_LENGTH;
+	private int _uploadWorkers = DEFAULT_UPLOAD_WORKERS;
+	private int _uploadQueueCapacity = DEFAULT_UPLOAD_QUEUE_CAPACITY;
+	private int _uploadTimeoutMinutes = DEFAULT_UPLOAD_TIMEOUT_MINUTES;
 
 	public void setCorsOrigins(String[] origins) {
 		_corsOrigins = origins;
@@ -45,6 +59,81 @@ public class WebConfigurationProperties {
 		this._dataFormats = dataFormats;
 	}
 
+	/**
+	 * The secret used to sign hit-list paging cursors. If this is not set a random key is generated at
+	 * startup, which is fine for a single instance but means cursors are not shared across instances or restarts.
+	 */
+	public String getCursorSigningKey() {
+		return _cursorSigningKey;
+	}
+
+	public void setCursorSigningKey(String cursorSigningKey) {
+		this._cursorSigningKey = cursorSigningKey;
+	}
+
+	/** The number of receipt-number search results returned when the caller does not ask for a number. */
+	public int getSearchResultLimit() {
+		return _searchResultLimit;
+	}
+
+	public void setSearchResultLimit(int searchResultLimit) {
+		this._searchResultLimit = searchResultLimit;
+	}
+
+	/** The largest number of receipt-number search results a caller may ask for. */
+	public int getSearchResultMaxLimit() {
+		return _searchResultMaxLimit;
+	}
+
+	public void setSearchResultMaxLimit(int searchResultMaxLimit) {
+		this._searchResultMaxLimit = searchResultMaxLimit;
+	}
+
+	/**
+	 * The shortest receipt-number search that also matches in the middle of receipt numbers: shorter searches
+	 * only match the start. This should not be less than 3, since the trigram index cannot help below that.
+	 */
+	public int getSearchContainsMinLength() {
+		return _searchContainsMinLength;
+	}
+
+	public void setSearchContainsMinLength(int searchContainsMinLength) {
+		this._searchContainsMinLength = searchContainsMinLength;
+	}
+
+	/** The number of issue uploads that are applied to the database at the same time. */
+	public int getUploadWorkers() {
+		return _uploadWorkers;
+	}
+
+	public void setUploadWorkers(int uploadWorkers) {
+		this._uploadWorkers = uploadWorkers;
+	}
+
+	/**
+	 * The number of issue uploads that can wait for a worker: further uploads are turned away until one of them
+	 * has started.
+	 */
+	public int getUploadQueueCapacity() {
+		return _uploadQueueCapacity;
+	}
+
+	public void setUploadQueueCapacity(int uploadQueueCapacity) {
+		this._uploadQueueCapacity = uploadQueueCapacity;
+	}
+
+	/**
+	 * How long an issue upload can go without finishing before it is taken to have been cut off (by the instance
+	 * running it stopping) and is marked as failed. This must be longer than the largest upload takes to apply.
+	 */
+	public int getUploadTimeoutMinutes() {
+		return _uploadTimeoutMinutes;
+	}
+
+	public void setUploadTimeoutMinutes(int uploadTimeoutMinutes) {
+		this._uploadTimeoutMinutes = uploadTimeoutMinutes;
+	}
+
 	public static class UserDefinition {
 		private String _name;
 		private List<CaseIssuePermission> _grants = new ArrayList<>();
@@ -1,5 +1,6 @@
 package gov.usds.case_issues.controllers;
 
+import java.util.List;
 import java.util.Optional;
 
 import javax.validation.Valid;
@@ -25,19 +26,30 @@ import gov.usds.case_issues.model.SnoozeRequest;
 import gov.usds.case_issues.services.CaseDetailsService;
 
 @RestController
-@RequestMapping("/api/caseDetails/{caseManagementSystemTag}/{receiptNumber}")
+@RequestMapping("/api/caseDetails/{caseManagementSystemTag}")
 @PreAuthorize("hasAuthority(T(gov.usds.case_issues.authorization.CaseIssuePermission).READ_CASES.name())")
 public class CaseDetailsApiController {
 
 	@Autowired
 	private CaseDetailsService _caseDetailsService;
 
-	@GetMapping
+	/**
+	 * Fetch the details of many cases at once, for clients that would otherwise call {@link #getCaseDetails}
+	 * in a loop. This is a POST only so that the list of receipt numbers can be as long as needed: it does not
+	 * change anything.
+	 */
+	@PostMapping
+	public List<CaseDetails> getBulkCaseDetails(@PathVariable String caseManagementSystemTag,
+			@RequestBody List<String> receiptNumbers) {
+		return _caseDetailsService.findCaseDetails(caseManagementSystemTag, receiptNumbers);
+	}
+
+	@GetMapping("{receiptNumber}")
 	public CaseDetails getCaseDetails(@PathVariable String caseManagementSystemTag, @PathVariable String receiptNumber) {
 		return _caseDetailsService.findCaseDetails(caseManagementSystemTag, receiptNumber);
 	}
 
-	@GetMapping("activeSnooze")
+	@GetMapping("{receiptNumber}/activeSnooze")
 	public ResponseEntity<CaseSnoozeSummary> getActiveSnooze(@PathVariable String caseManagementSystemTag, @PathVariable String receiptNumber) {
 		Optional<CaseSnoozeSummary> snooze = _caseDetailsService.findActiveSnooze(caseManagementSystemTag, receiptNumber);
 		if (snooze.isPresent()) {
@@ -47,7 +59,7 @@ public class CaseDetailsApiController {
 		}
 	}
 
-	@DeleteMapping("activeSnooze")
+	@DeleteMapping("{receiptNumber}/activeSnooze")
 	@PreAuthorize("hasAuthority(T(gov.usds.case_issues.authorization.CaseIssuePermission).UPDATE_CASES.name())")
 	public ResponseEntity<Void> endActiveSnooze(@PathVariable String caseManagementSystemTag, @PathVariable String receiptNumber) {
 		// e-tag could be added here with the end-time of the snooze
@@ -58,7 +70,7 @@ public class CaseDetailsApiController {
 		}
 	}
 
-	@PutMapping("activeSnooze")
+	@PutMapping("{receiptNumber}/activeSnooze")
 	@PreAuthorize("hasAuthority(T(gov.usds.case_issues.authorization.CaseIssuePermission).UPDATE_CASES.name())")
 	public ResponseEntity<CaseSnoozeSummaryFacade> changeActiveSnooze(
 			@PathVariable String caseManagementSystemTag,
@@ -68,7 +80,7 @@ public class CaseDetailsApiController {
 		return ResponseEntity.ok(replacement);
 	}
 
-	@PostMapping("activeSnooze/notes")
+	@PostMapping("{receiptNumber}/activeSnooze/notes")
 	public ResponseEntity<?> addNote(@PathVariable String caseManagementSystemTag,
 			@PathVariable String receiptNumber, @RequestBody AttachmentRequest newNote) {
 		_caseDetailsService.annotateActiveSnooze(caseManagementSystemTag, receiptNumber, newNote);
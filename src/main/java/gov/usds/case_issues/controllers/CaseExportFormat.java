@@ -0,0 +1,123 @@
+package gov.usds.case_issues.controllers;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+
+import org.springframework.http.MediaType;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+
+import gov.usds.case_issues.db.model.projections.CaseSnoozeSummary;
+import gov.usds.case_issues.model.CaseSummary;
+import gov.usds.case_issues.services.CaseListService.CaseSummarySink;
+
+/**
+ * The formats in which a full hit list can be exported.
+ */
+public enum CaseExportFormat {
+	/** One JSON object per line, each identical to an entry in the paged API. */
+	NDJSON("application/x-ndjson", "ndjson") {
+		@Override
+		public CaseSummarySink openSink(OutputStream out, ObjectMapper mapper) {
+			ObjectWriter writer = mapper.writer();
+			return new CaseSummarySink() {
+				@Override
+				public void accept(CaseSummary summary) throws IOException {
+					out.write(writer.writeValueAsBytes(summary));
+					out.write('\n');
+				}
+
+				@Override
+				public void flush() throws IOException {
+					out.flush();
+				}
+			};
+		}
+	},
+	/** Comma-separated values, with the snooze flattened into columns and the extra data as a JSON string. */
+	CSV("text/csv", "csv") {
+		@Override
+		public CaseSummarySink openSink(OutputStream out, ObjectMapper mapper) throws IOException {
+			CsvSchema schema = CsvSchema.builder()
+				.addColumn("receiptNumber")
+				.addColumn("caseCreation")
+				.addColumn("previouslySnoozed")
+				.addColumn("snoozeReason")
+				.addColumn("snoozeStart")
+				.addColumn("snoozeEnd")
+				.addColumn("noteCount")
+				.addColumn("extraData")
+				.build()
+				.withHeader();
+			SequenceWriter rows = new CsvMapper()
+				.writer(schema)
+				.without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+				.writeValues(out);
+			return new CaseSummarySink() {
+				@Override
+				public void accept(CaseSummary summary) throws IOException {
+					CaseSnoozeSummary snooze = summary.getSnoozeInformation();
+					rows.write(new Object[] {
+						summary.getReceiptNumber(),
+						formatDate(summary.getCaseCreation()),
+						summary.isPreviouslySnoozed(),
+						snooze == null ? null : snooze.getSnoozeReason(),
+						snooze == null ? null : formatDate(snooze.getSnoozeStart()),
+						snooze == null ? null : formatDate(snooze.getSnoozeEnd()),
+						summary.getNotes().size(),
+						mapper.writeValueAsString(summary.getExtraData()),
+					});
+				}
+
+				@Override
+				public void flush() throws IOException {
+					rows.flush();
+				}
+			};
+		}
+	},
+	;
+
+	private final MediaType mediaType;
+	private final String fileExtension;
+
+	private CaseExportFormat(String mediaType, String fileExtension) {
+		this.mediaType = MediaType.parseMediaType(mediaType);
+		this.fileExtension = fileExtension;
+	}
+
+	public MediaType getMediaType() {
+		return mediaType;
+	}
+
+	public String getFileExtension() {
+		return fileExtension;
+	}
+
+	/** Create a sink that writes cases to the given stream (which it will not close). */
+	public abstract CaseSummarySink openSink(OutputStream out, ObjectMapper mapper) throws IOException;
+
+	/**
+	 * Look up a format by name, ignoring case.
+	 * @throws IllegalArgumentException if there is no such format.
+	 */
+	public static CaseExportFormat forName(String name) {
+		for (CaseExportFormat format : values()) {
+			if (format.name().equalsIgnoreCase(name)) {
+				return format;
+			}
+		}
+		throw new IllegalArgumentException("Not a recognized export format");
+	}
+
+	private static String formatDate(ZonedDateTime date) {
+		return date == null ? null : DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(date);
+	}
+}
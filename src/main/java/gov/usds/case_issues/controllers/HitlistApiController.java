@@ -2,119 +2,362 @@ package gov.usds.case_issues.controllers;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URI;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeParseException;
-import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.ResponseEntity.BodyBuilder;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.dataformat.csv.CsvMapper;
 import com.fasterxml.jackson.dataformat.csv.CsvSchema;
 
 import gov.usds.case_issues.config.DataFormatSpec;
+import gov.usds.case_issues.db.model.CaseIssueUpload;
 import gov.usds.case_issues.db.model.TroubleCase;
+import gov.usds.case_issues.db.model.UploadMode;
+import gov.usds.case_issues.model.CasePage;
 import gov.usds.case_issues.model.CaseRequest;
 import gov.usds.case_issues.model.CaseSummary;
+import gov.usds.case_issues.model.InvalidUploadException;
+import gov.usds.case_issues.model.UploadProgress;
 import gov.usds.case_issues.services.CaseListService;
 import gov.usds.case_issues.services.CaseListService.CaseGroupInfo;
+import gov.usds.case_issues.services.HitlistCursorService.ListType;
 import gov.usds.case_issues.services.IssueUploadService;
+import gov.usds.case_issues.services.UploadStatusService;
 import gov.usds.case_issues.validators.TagFragment;
 
 @RestController
 @PreAuthorize("hasAuthority(T(gov.usds.case_issues.authorization.CaseIssuePermission).READ_CASES.name())")
-@RequestMapping("/api/cases/{caseManagementSystemTag}/{caseTypeTag}")
+@RequestMapping(HitlistApiController.BASE_PATH)
 @Validated
 public class HitlistApiController {
 
+	static final String BASE_PATH = "/api/cases/{caseManagementSystemTag}/{caseTypeTag}";
+	private static final String UPLOAD_STATUS_PATH = "uploads/{uploadId}";
+	private static final String UPLOAD_CHUNK_PATH = UPLOAD_STATUS_PATH + "/chunks/{chunkNumber}";
+	private static final String ISSUE_ACTION_OPEN = "open";
+	private static final String ISSUE_ACTION_CLOSE = "close";
+
+	/** The response header containing the cursor for the next page of a hit list. */
+	public static final String NEXT_PAGE_CURSOR_HEADER = "X-Next-Page-Cursor";
+
 	@Autowired
 	private CaseListService _listService;
 	@Autowired
 	private IssueUploadService _uploadService;
+	@Autowired
+	private UploadStatusService _uploadStatusService;
+	@Autowired
+	private ObjectMapper _objectMapper;
 
 	@GetMapping("search")
 	public List<TroubleCase> getCases(
 		@PathVariable String caseManagementSystemTag,
 		@PathVariable String caseTypeTag,
-		@RequestParam("query") @TagFragment String query) {
-		return _listService.getCases(caseManagementSystemTag, caseTypeTag, query);
+		@RequestParam("query") @TagFragment String query,
+		@RequestParam(name = "size", required = false) Integer size) {
+		return _listService.getCases(caseManagementSystemTag, caseTypeTag, query, size);
 	}
 
 	@GetMapping("snoozed")
-	public List<CaseSummary> getSnoozedCases(
+	public ResponseEntity<List<CaseSummary>> getSnoozedCases(
 		@PathVariable String caseManagementSystemTag,
 		@PathVariable String caseTypeTag,
 		@RequestParam(name = "receiptNumber", defaultValue = "") @TagFragment String receiptNumber,
-		@RequestParam(name = "size", defaultValue = "20") Integer size
+		@RequestParam(name = "cursor", required = false) String cursor,
+		@RequestParam(name = "filter", required = false) List<String> filters,
+		@RequestParam(name = "sort", required = false) String sort,
+		@RequestParam(name = "size", defaultValue = "20") Integer size,
+		WebRequest request
 	) {
-		return _listService.getSnoozedCases(caseManagementSystemTag, caseTypeTag, receiptNumber, size);
+		if (request.checkNotModified(_listService.getListEntityTag(caseManagementSystemTag, caseTypeTag))) {
+			return null;
+		}
+		return pageResponse(_listService.getSnoozedCasePage(caseManagementSystemTag, caseTypeTag, receiptNumber, cursor, filters, sort, size));
 	}
 
 	@GetMapping("active")
-	public List<CaseSummary> getActiveCases(
+	public ResponseEntity<List<CaseSummary>> getActiveCases(
 		@PathVariable String caseManagementSystemTag,
 		@PathVariable String caseTypeTag,
 		@RequestParam(name = "receiptNumber", defaultValue = "") @TagFragment String receiptNumber,
-		@RequestParam(name = "size", defaultValue = "20") Integer size
+		@RequestParam(name = "cursor", required = false) String cursor,
+		@RequestParam(name = "filter", required = false) List<String> filters,
+		@RequestParam(name = "sort", required = false) String sort,
+		@RequestParam(name = "size", defaultValue = "20") Integer size,
+		WebRequest request
 	) {
-		return _listService.getActiveCases(caseManagementSystemTag, caseTypeTag, receiptNumber, size);
+		if (request.checkNotModified(_listService.getListEntityTag(caseManagementSystemTag, caseTypeTag))) {
+			return null;
+		}
+		return pageResponse(_listService.getActiveCasePage(caseManagementSystemTag, caseTypeTag, receiptNumber, cursor, filters, sort, size));
+	}
+
+	@GetMapping("snoozed/export")
+	public ResponseEntity<StreamingResponseBody> exportSnoozedCases(
+		@PathVariable String caseManagementSystemTag,
+		@PathVariable String caseTypeTag,
+		@RequestParam(name = "format", defaultValue = "ndjson") String format
+	) {
+		return exportResponse(caseManagementSystemTag, caseTypeTag, ListType.SNOOZED, CaseExportFormat.forName(format));
+	}
+
+	@GetMapping("active/export")
+	public ResponseEntity<StreamingResponseBody> exportActiveCases(
+		@PathVariable String caseManagementSystemTag,
+		@PathVariable String caseTypeTag,
+		@RequestParam(name = "format", defaultValue = "ndjson") String format
+	) {
+		return exportResponse(caseManagementSystemTag, caseTypeTag, ListType.ACTIVE, CaseExportFormat.forName(format));
 	}
 
 	@RequestMapping(value="summary", method=RequestMethod.GET)
-	public Map<String, Object> getSummary(@PathVariable String caseManagementSystemTag, @PathVariable String caseTypeTag) {
+	public Map<String, Object> getSummary(@PathVariable String caseManagementSystemTag, @PathVariable String caseTypeTag,
+			WebRequest request) {
+		if (request.checkNotModified(_listService.getListEntityTag(caseManagementSystemTag, caseTypeTag))) {
+			return null;
+		}
 		return _listService.getSummaryInfo(caseManagementSystemTag, caseTypeTag);
 	}
 
+	@RequestMapping(value="summary/issue-types", method=RequestMethod.GET)
+	public Map<String, Map<String, Object>> getIssueTypeSummary(@PathVariable String caseManagementSystemTag,
+			@PathVariable String caseTypeTag, WebRequest request) {
+		if (request.checkNotModified(_listService.getListEntityTag(caseManagementSystemTag, caseTypeTag))) {
+			return null;
+		}
+		return _listService.getIssueTypeSummaryInfo(caseManagementSystemTag, caseTypeTag);
+	}
+
 	@PutMapping(value="/{issueTag}",consumes= {"text/csv"})
 	@PreAuthorize("hasAuthority(T(gov.usds.case_issues.authorization.CaseIssuePermission).UPDATE_ISSUES.name())")
-	public ResponseEntity<?> updateIssueListCsv(@PathVariable String caseManagementSystemTag, @PathVariable String caseTypeTag, @PathVariable String issueTag,
+	public ResponseEntity<UploadProgress> updateIssueListCsv(@PathVariable String caseManagementSystemTag, @PathVariable String caseTypeTag, @PathVariable String issueTag,
+			@RequestBody InputStream csvStream, @RequestParam(required=false) String uploadSchema,
+			@RequestParam(name="mode", defaultValue="snapshot") String mode) throws IOException {
+		CaseGroupInfo translated = _listService.translatePath(caseManagementSystemTag, caseTypeTag);
+		UploadMode uploadMode = UploadMode.forName(mode);
+		CaseIssueUpload upload = _uploadService.submitIssueList(
+			translated, issueTag, uploadMode, readCsvRecords(csvStream, uploadSchema, uploadMode), ZonedDateTime.now());
+		return uploadAccepted(caseManagementSystemTag, caseTypeTag, translated, upload);
+	}
+
+	/**
+	 * Accept an issue upload as a JSON array of objects. The array is read one element at a time as the upload
+	 * is checked and handed off, rather than being bound to a list up front (which is why the request body is taken as the raw
+	 * servlet input stream: a <code>@RequestBody</code> would be handed to Jackson to bind).
+	 * <p>
+	 * With <code>mode=delta</code>, the upload lists only the issues to open or close (each record giving its
+	 * action under the format's issue action key), rather than every case that should have an open issue.
+	 */
+	@PreAuthorize("hasAuthority(T(gov.usds.case_issues.authorization.CaseIssuePermission).UPDATE_ISSUES.name())")
+	@PutMapping(value="/{issueTag}",consumes= {MediaType.APPLICATION_JSON_VALUE})
+	public ResponseEntity<UploadProgress> updateIssueListJson(@PathVariable String caseManagementSystemTag, @PathVariable String caseTypeTag, @PathVariable String issueTag,
+			InputStream jsonStream, @RequestParam(required=false) String uploadSchema,
+			@RequestParam(name="mode", defaultValue="snapshot") String mode) throws IOException {
+		CaseGroupInfo translated = _listService.translatePath(caseManagementSystemTag, caseTypeTag);
+		UploadMode uploadMode = UploadMode.forName(mode);
+		CaseIssueUpload upload = withJsonRecords(jsonStream, uploadSchema, uploadMode,
+			records -> _uploadService.submitIssueList(translated, issueTag, uploadMode, records, ZonedDateTime.now()));
+		return uploadAccepted(caseManagementSystemTag, caseTypeTag, translated, upload);
+	}
+
+	/**
+	 * Open an issue upload to be sent in chunks, for uploads too large to send reliably in one request. The
+	 * response links (in its Location header) to the upload's status; the chunks are then sent to
+	 * {@link #putUploadChunkCsv} or {@link #putUploadChunkJson}, and the upload is applied when it is committed with
+	 * {@link #commitUpload}.
+	 */
+	@PreAuthorize("hasAuthority(T(gov.usds.case_issues.authorization.CaseIssuePermission).UPDATE_ISSUES.name())")
+	@PostMapping("/{issueTag}/uploads")
+	public ResponseEntity<UploadProgress> openUpload(@PathVariable String caseManagementSystemTag, @PathVariable String caseTypeTag,
+			@PathVariable String issueTag, @RequestParam(name="mode", defaultValue="snapshot") String mode) {
+		CaseGroupInfo translated = _listService.translatePath(caseManagementSystemTag, caseTypeTag);
+		CaseIssueUpload upload = _uploadService.openUploadSession(translated, issueTag, UploadMode.forName(mode), ZonedDateTime.now());
+		return ResponseEntity.created(uploadStatusLocation(caseManagementSystemTag, caseTypeTag, upload))
+			.body(_uploadStatusService.getUploadProgress(translated, upload.getInternalId()));
+	}
+
+	@PreAuthorize("hasAuthority(T(gov.usds.case_issues.authorization.CaseIssuePermission).UPDATE_ISSUES.name())")
+	@PutMapping(value=UPLOAD_CHUNK_PATH, consumes= {"text/csv"})
+	public UploadProgress putUploadChunkCsv(@PathVariable String caseManagementSystemTag, @PathVariable String caseTypeTag,
+			@PathVariable Long uploadId, @PathVariable long chunkNumber,
 			@RequestBody InputStream csvStream, @RequestParam(required=false) String uploadSchema) throws IOException {
 		CaseGroupInfo translated = _listService.translatePath(caseManagementSystemTag, caseTypeTag);
+		UploadMode uploadMode = _uploadStatusService.getUpload(translated, uploadId).getUploadMode();
+		_uploadService.putUploadChunk(translated, uploadId, chunkNumber, readCsvRecords(csvStream, uploadSchema, uploadMode));
+		return _uploadStatusService.getUploadProgress(translated, uploadId);
+	}
+
+	/**
+	 * Stage one chunk of an open upload, as a JSON array of objects (see {@link #updateIssueListJson}). A chunk
+	 * may be sent again, replacing whatever was sent under the same number before.
+	 */
+	@PreAuthorize("hasAuthority(T(gov.usds.case_issues.authorization.CaseIssuePermission).UPDATE_ISSUES.name())")
+	@PutMapping(value=UPLOAD_CHUNK_PATH, consumes= {MediaType.APPLICATION_JSON_VALUE})
+	public UploadProgress putUploadChunkJson(@PathVariable String caseManagementSystemTag, @PathVariable String caseTypeTag,
+			@PathVariable Long uploadId, @PathVariable long chunkNumber,
+			InputStream jsonStream, @RequestParam(required=false) String uploadSchema) throws IOException {
+		CaseGroupInfo translated = _listService.translatePath(caseManagementSystemTag, caseTypeTag);
+		UploadMode uploadMode = _uploadStatusService.getUpload(translated, uploadId).getUploadMode();
+		withJsonRecords(jsonStream, uploadSchema, uploadMode,
+			records -> _uploadService.putUploadChunk(translated, uploadId, chunkNumber, records));
+		return _uploadStatusService.getUploadProgress(translated, uploadId);
+	}
+
+	/** Close an open upload to further chunks, and apply it in the background (as for a single-request upload). */
+	@PreAuthorize("hasAuthority(T(gov.usds.case_issues.authorization.CaseIssuePermission).UPDATE_ISSUES.name())")
+	@PostMapping(UPLOAD_STATUS_PATH + "/commit")
+	public ResponseEntity<UploadProgress> commitUpload(@PathVariable String caseManagementSystemTag, @PathVariable String caseTypeTag,
+			@PathVariable Long uploadId) {
+		CaseGroupInfo translated = _listService.translatePath(caseManagementSystemTag, caseTypeTag);
+		CaseIssueUpload upload = _uploadService.commitUploadSession(translated, uploadId);
+		return uploadAccepted(caseManagementSystemTag, caseTypeTag, translated, upload);
+	}
+
+	/** Cancel an open upload, discarding whatever chunks have been sent for it. */
+	@PreAuthorize("hasAuthority(T(gov.usds.case_issues.authorization.CaseIssuePermission).UPDATE_ISSUES.name())")
+	@DeleteMapping(UPLOAD_STATUS_PATH)
+	public UploadProgress cancelUpload(@PathVariable String caseManagementSystemTag, @PathVariable String caseTypeTag,
+			@PathVariable Long uploadId) {
+		CaseGroupInfo translated = _listService.translatePath(caseManagementSystemTag, caseTypeTag);
+		CaseIssueUpload upload = _uploadService.cancelUploadSession(translated, uploadId);
+		return _uploadStatusService.getUploadProgress(translated, upload.getInternalId());
+	}
+
+	/**
+	 * Report on an issue upload: uploads are applied in the background, so the response to the upload request
+	 * links here (in its Location header) for the client to follow until the upload is no longer STARTED.
+	 */
+	@PreAuthorize("hasAuthority(T(gov.usds.case_issues.authorization.CaseIssuePermission).UPDATE_ISSUES.name())")
+	@GetMapping(UPLOAD_STATUS_PATH)
+	public UploadProgress getUploadStatus(@PathVariable String caseManagementSystemTag, @PathVariable String caseTypeTag,
+			@PathVariable Long uploadId) {
+		return _uploadStatusService.getUploadProgress(_listService.translatePath(caseManagementSystemTag, caseTypeTag), uploadId);
+	}
+
+	private ResponseEntity<UploadProgress> uploadAccepted(String caseManagementSystemTag, String caseTypeTag,
+			CaseGroupInfo translated, CaseIssueUpload upload) {
+		return ResponseEntity.accepted()
+			.location(uploadStatusLocation(caseManagementSystemTag, caseTypeTag, upload))
+			.body(_uploadStatusService.getUploadProgress(translated, upload.getInternalId()));
+	}
+
+	private static URI uploadStatusLocation(String caseManagementSystemTag, String caseTypeTag, CaseIssueUpload upload) {
+		return ServletUriComponentsBuilder.fromCurrentContextPath()
+			.path(BASE_PATH + "/" + UPLOAD_STATUS_PATH)
+			.buildAndExpand(caseManagementSystemTag, caseTypeTag, upload.getInternalId())
+			.toUri();
+	}
+
+	private Iterator<CaseRequest> readCsvRecords(InputStream csvStream, String uploadSchema, UploadMode mode) throws IOException {
 		CsvSchema schema = CsvSchema.emptySchema().withHeader();
 		MappingIterator<Map<String, Object>> valueIterator = new CsvMapper()
 			.readerFor(Map.class)
 			.with(schema)
 			.readValues(csvStream);
-		List<CaseRequest> newIssueCases = processCaseUploads(valueIterator, uploadSchema);
-		_uploadService.putIssueList(translated, issueTag, newIssueCases, ZonedDateTime.now());
-		return ResponseEntity.accepted().build();
+		return processCaseUploads(valueIterator, uploadSchema, mode);
 	}
 
-	@PreAuthorize("hasAuthority(T(gov.usds.case_issues.authorization.CaseIssuePermission).UPDATE_ISSUES.name())")
-	@PutMapping(value="/{issueTag}",consumes= {MediaType.APPLICATION_JSON_VALUE})
-	public ResponseEntity<?> updateIssueListJson(@PathVariable String caseManagementSystemTag, @PathVariable String caseTypeTag, @PathVariable String issueTag,
-			@RequestBody List<Map<String,Object>> jsonData, @RequestParam(required=false) String uploadSchema) throws IOException {
-		CaseGroupInfo translated = _listService.translatePath(caseManagementSystemTag, caseTypeTag);
-		Iterator<Map<String,Object>> valueIterator = jsonData.listIterator();
-		List<CaseRequest> newIssueCases = processCaseUploads(valueIterator, uploadSchema);
-		_uploadService.putIssueList(translated, issueTag, newIssueCases, ZonedDateTime.now());
-		return ResponseEntity.accepted().build();
+	/** Hand the records of a JSON array to the given upload step, closing the parser once it is done with them. */
+	private <T> T withJsonRecords(InputStream jsonStream, String uploadSchema, UploadMode mode,
+			Function<Iterator<CaseRequest>, T> uploadStep) throws IOException {
+		try (JsonParser parser = _objectMapper.getFactory().createParser(jsonStream)) {
+			if (!startsArray(parser)) {
+				throw new IllegalArgumentException("Issue upload must be a JSON array");
+			}
+			parser.clearCurrentToken(); // so that the iterator starts with the first element, and stops at the end of the array
+			MappingIterator<Map<String, Object>> valueIterator = _objectMapper.readerFor(Map.class).readValues(parser);
+			return uploadStep.apply(processCaseUploads(valueIterator, uploadSchema, mode));
+		}
 	}
 
-	private List<CaseRequest> processCaseUploads(Iterator<Map<String, Object>> valueIterator, String schemaName) {
-		List<CaseRequest> newIssueCases = new ArrayList<>();
-		DataFormatSpec spec = _listService.getUploadFormat(schemaName);
+	private static ResponseEntity<List<CaseSummary>> pageResponse(CasePage page) {
+		BodyBuilder response = ResponseEntity.ok();
+		if (page.getNextCursor() != null) {
+			response.header(NEXT_PAGE_CURSOR_HEADER, page.getNextCursor());
+		}
+		return response.body(page.getCases());
+	}
+
+	private ResponseEntity<StreamingResponseBody> exportResponse(String caseManagementSystemTag, String caseTypeTag,
+			ListType listType, CaseExportFormat format) {
+		// check the path before committing to a response, so that bad tags still get a 404
+		_listService.translatePath(caseManagementSystemTag, caseTypeTag);
+		String fileName = String.format("%s-%s-%s.%s", caseManagementSystemTag, caseTypeTag,
+				listType.name().toLowerCase(), format.getFileExtension());
+		StreamingResponseBody body = out ->
+			_listService.exportCases(caseManagementSystemTag, caseTypeTag, listType, format.openSink(out, _objectMapper));
+		return ResponseEntity.ok()
+			.contentType(format.getMediaType())
+			.header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+			.body(body);
+	}
+
+	private static boolean startsArray(JsonParser parser) throws IOException {
 		try {
-			valueIterator.forEachRemaining(m -> newIssueCases.add(new MapBasedCaseRequest(spec, m)));
-		} catch (DateTimeParseException badDate) {
-			throw new IllegalArgumentException("Incorrectly formatted case creation date in input"); // ... somewhere
+			return parser.nextToken() == JsonToken.START_ARRAY;
+		} catch (JsonParseException notJson) {
+			return false;
 		}
-		return newIssueCases;
+	}
+
+	/**
+	 * Wrap the records of an upload so that each one is turned into a {@link CaseRequest} only as it is needed,
+	 * allowing the upload to be processed without ever holding all of it in memory.
+	 */
+	private Iterator<CaseRequest> processCaseUploads(MappingIterator<Map<String, Object>> valueIterator, String schemaName,
+			UploadMode mode) {
+		DataFormatSpec spec = _listService.getUploadFormat(schemaName);
+		boolean readActions = mode == UploadMode.DELTA;
+		return new Iterator<CaseRequest>() {
+
+			@Override
+			public boolean hasNext() {
+				try {
+					return valueIterator.hasNextValue();
+				} catch (IOException badRecord) {
+					throw new InvalidUploadException("Unreadable record in input", badRecord);
+				}
+			}
+
+			@Override
+			public CaseRequest next() {
+				try {
+					return new MapBasedCaseRequest(spec, valueIterator.nextValue(), readActions);
+				} catch (IOException badRecord) {
+					throw new InvalidUploadException("Unreadable record in input", badRecord);
+				}
+			}
+		};
 	}
 
 	private static class MapBasedCaseRequest implements CaseRequest {
@@ -122,16 +365,41 @@ public class HitlistApiController {
 		private String _receipt;
 		private ZonedDateTime _caseCreation;
 		private Map<String, Object> _rest;
+		private boolean _closing;
 
-		public MapBasedCaseRequest(DataFormatSpec spec, Map<String, Object> input) {
-			_receipt = input.remove(spec.getReceiptNumberKey()).toString();
-			_caseCreation = ZonedDateTime.parse(
-				input.remove(spec.getCreationDateKey()).toString(),
-				spec.getCreationDateParser()
-			);
+		/**
+		 * @param readAction true if the record may give an issue action (in a delta upload): a record that is only
+		 *     closing an issue need not give a case creation date.
+		 */
+		public MapBasedCaseRequest(DataFormatSpec spec, Map<String, Object> input, boolean readAction) {
+			Object receipt = input.remove(spec.getReceiptNumberKey());
+			Object caseCreation = input.remove(spec.getCreationDateKey());
+			if (readAction) {
+				_closing = isCloseAction(input.remove(spec.getIssueActionKey()));
+			}
+			if (receipt == null || receipt.toString().isEmpty() || caseCreation == null && !_closing) {
+				throw new InvalidUploadException("Missing receipt number or case creation date in input");
+			}
+			_receipt = receipt.toString();
+			if (caseCreation != null && !(_closing && caseCreation.toString().isEmpty())) {
+				try {
+					_caseCreation = ZonedDateTime.parse(caseCreation.toString(), spec.getCreationDateParser());
+				} catch (DateTimeParseException badDate) {
+					throw new InvalidUploadException("Incorrectly formatted case creation date in input", badDate);
+				}
+			}
 			_rest = input;
 		}
 
+		private static boolean isCloseAction(Object action) {
+			if (action == null || action.toString().isEmpty() || ISSUE_ACTION_OPEN.equalsIgnoreCase(action.toString())) {
+				return false;
+			} else if (ISSUE_ACTION_CLOSE.equalsIgnoreCase(action.toString())) {
+				return true;
+			}
+			throw new InvalidUploadException("Unrecognized issue action in input");
+		}
+
 		@Override
 		public String getReceiptNumber() {
 			return _receipt;
@@ -146,5 +414,10 @@ public class HitlistApiController {
 		public Map<String, Object> getExtraData() {
 			return _rest;
 		}
+
+		@Override
+		public boolean isClosing() {
+			return _closing;
+		}
 	}
 }
@@ -11,6 +11,7 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
 import gov.usds.case_issues.model.ApiModelNotFoundException;
+import gov.usds.case_issues.model.UploadsBusyException;
 
 @RestControllerAdvice("gov.usds.case_issues.controllers") // maybe make this type safe?
 public class ApiControllerAdvice {
@@ -37,4 +38,11 @@ public class ApiControllerAdvice {
 		LOG.warn("Got constraint violation", e);
 		return new SpringRestError(e, HttpStatus.BAD_REQUEST, req);
 	}
+
+	@ExceptionHandler
+	@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+	public SpringRestError handleUploadsBusy(UploadsBusyException e, HttpServletRequest req) {
+		LOG.debug("Upload turned away: {}", e.getMessage());
+		return new SpringRestError(e, HttpStatus.SERVICE_UNAVAILABLE, req);
+	}
 }
@@ -0,0 +1,114 @@
+package gov.usds.case_issues.db;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map.Entry;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Java implementations of the stored functions that PostgreSQL provides natively, for use as
+ * HSQLDB routines (see the database changelog). These are much slower than the real thing, and are
+ * intended for tests and local development only.
+ */
+public class HsqlJsonFunctions {
+
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+
+	private HsqlJsonFunctions() {
+		throw new IllegalStateException("Utility class");
+	}
+
+	/**
+	 * Approximate the PostgreSQL <code>jsonb @&gt; jsonb</code> containment operator for two JSON strings.
+	 * @param extraData the JSON document being tested.
+	 * @param filter the JSON document that must be contained in it.
+	 * @return true if every key/value in the filter is found in the document (recursively).
+	 */
+	public static Boolean extraDataContains(String extraData, String filter) {
+		if (extraData == null || filter == null) {
+			return false;
+		}
+		try {
+			return contains(MAPPER.readTree(extraData), MAPPER.readTree(filter));
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Invalid JSON in containment test", e);
+		}
+	}
+
+	/**
+	 * Equivalent of the PostgreSQL <code>extra_data_number</code> function: the value stored under the given key
+	 * of a JSON object, if it is a number.
+	 * @return the number, or null if the key is missing or its value is not a number.
+	 */
+	public static Double extraDataNumber(String extraData, String key) {
+		if (extraData == null || key == null) {
+			return null;
+		}
+		try {
+			JsonNode value = MAPPER.readTree(extraData).get(key);
+			return value != null && value.isNumber() ? value.doubleValue() : null;
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Invalid JSON in extra data lookup", e);
+		}
+	}
+
+	/**
+	 * Equivalent of the PostgreSQL <code>extra_data_merge</code> function (<code>jsonb || jsonb</code> on two
+	 * JSON objects): the keys of the update replace the same keys in the original, and all other keys are kept.
+	 * @return the merged JSON object (an empty object if both arguments are null).
+	 */
+	public static String extraDataMerge(String extraData, String update) {
+		ObjectNode merged = MAPPER.createObjectNode();
+		try {
+			for (String json : new String[] {extraData, update}) {
+				JsonNode parsed = json == null ? null : MAPPER.readTree(json);
+				if (parsed != null && !parsed.isObject()) {
+					throw new IllegalArgumentException("Extra data must be a JSON object");
+				}
+				if (parsed != null) {
+					merged.setAll((ObjectNode) parsed);
+				}
+			}
+			return MAPPER.writeValueAsString(merged);
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Invalid JSON in extra data merge", e);
+		}
+	}
+
+	private static boolean contains(JsonNode data, JsonNode filter) {
+		if (filter.isObject()) {
+			if (!data.isObject()) {
+				return false;
+			}
+			Iterator<Entry<String, JsonNode>> fields = filter.fields();
+			while (fields.hasNext()) {
+				Entry<String, JsonNode> field = fields.next();
+				JsonNode value = data.get(field.getKey());
+				if (value == null || !contains(value, field.getValue())) {
+					return false;
+				}
+			}
+			return true;
+		} else if (filter.isArray()) {
+			if (!data.isArray()) {
+				return false;
+			}
+			for (JsonNode wanted : filter) {
+				boolean found = false;
+				for (JsonNode candidate : data) {
+					found = found || contains(candidate, wanted);
+				}
+				if (!found) {
+					return false;
+				}
+			}
+			return true;
+		} else if (filter.isNumber()) {
+			return data.isNumber() && data.decimalValue().compareTo(filter.decimalValue()) == 0;
+		}
+		return filter.equals(data);
+	}
+}
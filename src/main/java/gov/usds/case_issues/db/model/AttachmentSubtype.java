@@ -6,7 +6,13 @@ import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
 import javax.validation.constraints.NotNull;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalIdCache;
+
 @Entity
+@Cache(usage=CacheConcurrencyStrategy.READ_WRITE, region=TaggedEntity.CACHE_REGION)
+@NaturalIdCache(region=TaggedEntity.CACHE_REGION)
 public class AttachmentSubtype extends TaggedEntity {
 
 	@NotNull
@@ -36,6 +36,7 @@ public class CaseIssue extends UpdatableEntity implements CaseIssueSummary {
 		this.issueCase = issueCase;
 		this.issueType = issueType;
 		this.issueCreated = issueCreated;
+		issueCase.issueOpened();
 	}
 
 	public TroubleCase getIssueCase() {
@@ -55,7 +56,16 @@ public class CaseIssue extends UpdatableEntity implements CaseIssueSummary {
 		return issueClosed;
 	}
 
+	/**
+	 * Close (or, given null, re-open) this issue, keeping the open issue count on the case in step.
+	 * @param closedDate the date the issue was closed, or null if it is open.
+	 */
 	public void setIssueClosed(ZonedDateTime closedDate) {
+		if (issueClosed == null && closedDate != null) {
+			issueCase.issueClosed();
+		} else if (issueClosed != null && closedDate == null) {
+			issueCase.issueOpened();
+		}
 		this.issueClosed = closedDate;
 	}
 }
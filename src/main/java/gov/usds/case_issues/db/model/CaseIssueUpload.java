@@ -36,10 +36,17 @@ public class CaseIssueUpload extends UpdatableEntity {
 	@Enumerated(EnumType.STRING)
 	private UploadStatus uploadStatus;
 	@NotNull
+	@Column(nullable=false, updatable=false)
+	@Enumerated(EnumType.STRING)
+	private UploadMode uploadMode;
+	@NotNull
 	@Column(nullable=false)
 	private long uploadedRecordCount;
 	private Long newIssueCount;
 	private Long closedIssueCount;
+	private Long updatedCaseCount;
+	private Long unchangedCaseCount;
+	private String contentDigest;
 
 	private CaseIssueUpload() { 
 		/* for hibernate/JPA */
@@ -48,6 +55,11 @@ public class CaseIssueUpload extends UpdatableEntity {
 
 	public CaseIssueUpload(CaseManagementSystem caseManagementSystem, CaseType caseType, @NotNull String issueType,
 			ZonedDateTime effectiveDate, @NotNull long uploadedRecordCount) {
+		this(caseManagementSystem, caseType, issueType, effectiveDate, uploadedRecordCount, UploadMode.SNAPSHOT);
+	}
+
+	public CaseIssueUpload(CaseManagementSystem caseManagementSystem, CaseType caseType, @NotNull String issueType,
+			ZonedDateTime effectiveDate, @NotNull long uploadedRecordCount, @NotNull UploadMode uploadMode) {
 		this();
 		this.caseManagementSystem = caseManagementSystem;
 		this.caseType = caseType;
@@ -57,6 +69,7 @@ public class CaseIssueUpload extends UpdatableEntity {
 			effectiveDate = ZonedDateTime.now();
 		}
 		this.effectiveDate = effectiveDate;
+		this.uploadMode = uploadMode;
 		uploadStatus = UploadStatus.STARTED;
 	}
 
@@ -75,6 +88,9 @@ public class CaseIssueUpload extends UpdatableEntity {
 	public UploadStatus getUploadStatus() {
 		return uploadStatus;
 	}
+	public UploadMode getUploadMode() {
+		return uploadMode;
+	}
 	public long getUploadedRecordCount() {
 		return uploadedRecordCount;
 	}
@@ -84,6 +100,22 @@ public class CaseIssueUpload extends UpdatableEntity {
 	public Long getClosedIssueCount() {
 		return closedIssueCount;
 	}
+	/** The number of existing cases whose extra data the upload changed. */
+	public Long getUpdatedCaseCount() {
+		return updatedCaseCount;
+	}
+	/** The number of existing cases in the upload whose extra data it did not need to change. */
+	public Long getUnchangedCaseCount() {
+		return unchangedCaseCount;
+	}
+	/** A digest of the records in the upload, or null if none was taken (as for uploads sent in chunks). */
+	public String getContentDigest() {
+		return contentDigest;
+	}
+	/** Record the number of records in the upload, which for a streamed upload is only known once it has been read. */
+	public void setUploadedRecordCount(long uploadedRecordCount) {
+		this.uploadedRecordCount = uploadedRecordCount;
+	}
 	public void setUploadStatus(UploadStatus uploadStatus) {
 		this.uploadStatus = uploadStatus;
 	}
@@ -93,5 +125,14 @@ public class CaseIssueUpload extends UpdatableEntity {
 	public void setNewIssueCount(long newIssueCount) {
 		this.newIssueCount = newIssueCount;
 	}
+	public void setUpdatedCaseCount(long updatedCaseCount) {
+		this.updatedCaseCount = updatedCaseCount;
+	}
+	public void setUnchangedCaseCount(long unchangedCaseCount) {
+		this.unchangedCaseCount = unchangedCaseCount;
+	}
+	public void setContentDigest(String contentDigest) {
+		this.contentDigest = contentDigest;
+	}
 
 }
@@ -4,12 +4,18 @@ import javax.persistence.Entity;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Pattern;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalIdCache;
+
 /**
  * A case management system. In production, instances will probably correspond to live
  * case managers for different teams; this can also be used to distinguish between
  * different testing instances of a single case management system. 
  */
 @Entity
+@Cache(usage=CacheConcurrencyStrategy.READ_WRITE, region=TaggedEntity.CACHE_REGION)
+@NaturalIdCache(region=TaggedEntity.CACHE_REGION)
 public class CaseManagementSystem extends TaggedEntity {
 
 	private String applicationUrl;
@@ -39,6 +39,7 @@ public class CaseSnooze extends UpdatableEntity implements CaseSnoozeSummary {
 		snoozeReason = reason;
 		snoozeStart = ZonedDateTime.now();
 		snoozeEnd = getEndTime(snoozeStart, days);
+		snoozeCase.setLastSnoozeEnd(snoozeEnd);
 	}
 
 	public TroubleCase getSnoozeCase() {
@@ -57,8 +58,14 @@ public class CaseSnooze extends UpdatableEntity implements CaseSnoozeSummary {
 		return snoozeEnd;
 	}
 
+	/**
+	 * End this snooze immediately. This is assumed to be the most recent snooze for the case, since only the
+	 * most recent snooze can be active, so the denormalized {@link TroubleCase#getLastSnoozeEnd()} is updated
+	 * to match.
+	 */
 	public void endSnoozeNow() {
 		snoozeEnd = ZonedDateTime.now();
+		snoozeCase.setLastSnoozeEnd(snoozeEnd);
 	}
 
 	public static ZonedDateTime getEndTime(ZonedDateTime startTime, int durationDays) {
@@ -0,0 +1,130 @@
+package gov.usds.case_issues.db.model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToOne;
+import javax.validation.constraints.NotNull;
+
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.NaturalId;
+
+/**
+ * Precomputed hit-list counts (by snooze state) for one issue type within a case management system and
+ * case type, or for all issue types together (see {@link #ALL_ISSUE_TYPES}). Since a case can have open
+ * issues of several types, the all-types row is not the sum of the others.
+ */
+@Entity
+@DynamicUpdate
+public class CaseSummaryRollup extends UpdatableEntity {
+
+	/** The issue type recorded for the row that counts each case once, whatever its open issues are. */
+	public static final String ALL_ISSUE_TYPES = "*";
+
+	@NaturalId
+	@ManyToOne(optional=false)
+	@JoinColumn(nullable=false, updatable=false)
+	private CaseManagementSystem caseManagementSystem;
+	@NaturalId
+	@ManyToOne(optional=false)
+	@JoinColumn(nullable=false, updatable=false)
+	private CaseType caseType;
+	@NaturalId
+	@NotNull
+	@Column(nullable=false, updatable=false)
+	private String issueType;
+	private long neverSnoozed;
+	private long previouslySnoozed;
+	private long currentlySnoozed;
+	private long listVersion;
+
+	protected CaseSummaryRollup() {
+		/* for hibernate/JPA */
+		super();
+	}
+
+	public CaseSummaryRollup(CaseManagementSystem caseManagementSystem, CaseType caseType, String issueType) {
+		this();
+		this.caseManagementSystem = caseManagementSystem;
+		this.caseType = caseType;
+		this.issueType = issueType;
+	}
+
+	public CaseManagementSystem getCaseManagementSystem() {
+		return caseManagementSystem;
+	}
+
+	public CaseType getCaseType() {
+		return caseType;
+	}
+
+	public String getIssueType() {
+		return issueType;
+	}
+
+	/**
+	 * The counts in the same form as the results of the "summary" query on {@link TroubleCase}: keyed by
+	 * snooze state, with states that have no cases left out.
+	 */
+	public Map<String, Object> getCounts() {
+		Map<String, Object> counts = new HashMap<>();
+		putIfPositive(counts, TroubleCase.NEVER_SNOOZED, neverSnoozed);
+		putIfPositive(counts, TroubleCase.PREVIOUSLY_SNOOZED, previouslySnoozed);
+		putIfPositive(counts, TroubleCase.CURRENTLY_SNOOZED, currentlySnoozed);
+		return counts;
+	}
+
+	/** Replace all the counts with the given values (keyed as in {@link #getCounts()}). */
+	public void setCounts(Map<String, ? extends Number> counts) {
+		neverSnoozed = longValue(counts.get(TroubleCase.NEVER_SNOOZED));
+		previouslySnoozed = longValue(counts.get(TroubleCase.PREVIOUSLY_SNOOZED));
+		currentlySnoozed = longValue(counts.get(TroubleCase.CURRENTLY_SNOOZED));
+	}
+
+	/** Move a case from one snooze state count to another. */
+	public void moveCase(String fromState, String toState) {
+		adjust(fromState, -1);
+		adjust(toState, 1);
+	}
+
+	/**
+	 * A counter that goes up whenever anything on the hit lists for this case management system and case
+	 * type changes. Only maintained on the {@link #ALL_ISSUE_TYPES} row.
+	 */
+	public long getListVersion() {
+		return listVersion;
+	}
+
+	public void incrementListVersion() {
+		listVersion++;
+	}
+
+	public boolean isEmpty() {
+		return neverSnoozed == 0 && previouslySnoozed == 0 && currentlySnoozed == 0;
+	}
+
+	private void adjust(String state, long delta) {
+		if (TroubleCase.NEVER_SNOOZED.equals(state)) {
+			neverSnoozed += delta;
+		} else if (TroubleCase.PREVIOUSLY_SNOOZED.equals(state)) {
+			previouslySnoozed += delta;
+		} else if (TroubleCase.CURRENTLY_SNOOZED.equals(state)) {
+			currentlySnoozed += delta;
+		} else {
+			throw new IllegalArgumentException("Unknown snooze state " + state);
+		}
+	}
+
+	private static void putIfPositive(Map<String, Object> counts, String state, long count) {
+		if (count > 0) {
+			counts.put(state, count);
+		}
+	}
+
+	private static long longValue(Number count) {
+		return count == null ? 0 : count.longValue();
+	}
+}
@@ -2,11 +2,17 @@ package gov.usds.case_issues.db.model;
 
 import javax.persistence.Entity;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalIdCache;
+
 /**
  * A type of case adjudicated in a specific {@link CaseManagementSystem}
  * (generally speaking, a single form, but non-form-based cases may exist in the future).
  */
 @Entity
+@Cache(usage=CacheConcurrencyStrategy.READ_WRITE, region=TaggedEntity.CACHE_REGION)
+@NaturalIdCache(region=TaggedEntity.CACHE_REGION)
 public class CaseType extends TaggedEntity {
 
 	protected CaseType() { /* for hibernate/JPA */ }
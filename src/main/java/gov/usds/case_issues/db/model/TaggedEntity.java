@@ -9,9 +9,16 @@ import org.hibernate.annotations.NaturalId;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+/**
+ * Base class for the reference entities that are looked up by a URL-safe tag. These change a few times a year,
+ * so subclasses are kept in the Hibernate second-level cache (in {@link #CACHE_REGION}, by ID and by tag).
+ */
 @MappedSuperclass
 public abstract class TaggedEntity extends UpdatableEntity {
 
+	/** The second-level cache region shared by all tagged entities. */
+	public static final String CACHE_REGION = "referenceData";
+
 	@NaturalId
 	@NotNull
 	@Column(nullable=false)
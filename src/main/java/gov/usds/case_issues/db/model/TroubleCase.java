@@ -8,7 +8,6 @@ import java.util.Map;
 import javax.persistence.Column;
 import javax.persistence.ColumnResult;
 import javax.persistence.Entity;
-import javax.persistence.EntityResult;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.NamedNativeQueries;
@@ -21,6 +20,7 @@ import javax.validation.constraints.Pattern;
 
 import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 import org.hibernate.annotations.Type;
 import org.hibernate.annotations.TypeDef;
 import org.hibernate.annotations.Where;
@@ -35,37 +35,22 @@ import com.vladmihalcea.hibernate.type.json.JsonStringType;
 /* And yes, "Case" would be a simpler name, until you remember that it's a reserved word in every language ever */
 @Entity
 @DynamicUpdate
+@NaturalIdCache(region=TroubleCase.NATURAL_ID_CACHE_REGION)
 @TypeDef(name="json", typeClass=JsonStringType.class)
 @NamedNativeQueries({
 	@NamedNativeQuery(
-		name = "snoozedFirstPage",
+		name = "snoozedExport",
 		query = TroubleCase.CASE_SELECT_STEM
 				+ TroubleCase.SNOOZED_NOW_CONSTRAINT
-				+ TroubleCase.SNOOZED_NOW_POSTAMBLE,
-		resultSetMapping="snoozeCaseMapping"
+				+ TroubleCase.SNOOZED_NOW_ORDER,
+		resultSetMapping="hitlistCaseMapping"
 	),
 	@NamedNativeQuery(
-		name = "snoozedLaterPage",
-		query = TroubleCase.CASE_SELECT_STEM
-				+ TroubleCase.SNOOZED_NOW_CONSTRAINT
-				+ TroubleCase.SNOOZED_PAGE_CONSTRAINT
-				+ TroubleCase.SNOOZED_NOW_POSTAMBLE,
-		resultSetMapping="snoozeCaseMapping"
-	),
-	@NamedNativeQuery(
-		name = "notCurrentlySnoozedFirstPage",
-		query = TroubleCase.CASE_SELECT_STEM
-				+ TroubleCase.NOT_SNOOZED_NOW_CONSTRAINT
-				+ TroubleCase.NOT_SNOOZED_NOW_POSTAMBLE,
-		resultSetMapping="snoozeCaseMapping"
-	),
-	@NamedNativeQuery(
-		name = "notCurrentlySnoozedLaterPage",
+		name = "notCurrentlySnoozedExport",
 		query = TroubleCase.CASE_SELECT_STEM
 				+ TroubleCase.NOT_SNOOZED_NOW_CONSTRAINT
-				+ TroubleCase.NOT_SNOOZED_NOW_PAGE_CONSTRAINT
-				+ TroubleCase.NOT_SNOOZED_NOW_POSTAMBLE,
-		resultSetMapping="snoozeCaseMapping"
+				+ TroubleCase.NOT_SNOOZED_NOW_ORDER,
+		resultSetMapping="hitlistCaseMapping"
 	),
 	@NamedNativeQuery(
 		name = "summary",
@@ -73,48 +58,74 @@ import com.vladmihalcea.hibernate.type.json.JsonStringType;
 				+ "FROM " + TroubleCase.CASE_DTO_CTE
 				+ "GROUP BY " + TroubleCase.CASE_SNOOZE_DECODE
 	),
+	@NamedNativeQuery(
+		name = "issueTypeSummary",
+		query = "SELECT i.issue_type, " + TroubleCase.CASE_SNOOZE_DECODE + " as snooze_state, count(DISTINCT c.internal_id) "
+				+ "FROM {h-schema}trouble_case c JOIN {h-schema}case_issue i ON i.issue_case_internal_id = c.internal_id "
+				+ "WHERE c.case_management_system_internal_id = :caseManagementSystemId "
+				+ "AND c.case_type_internal_id = :caseTypeId "
+				+ "AND i.issue_closed IS NULL "
+				+ "GROUP BY i.issue_type, " + TroubleCase.CASE_SNOOZE_DECODE
+	),
 })
 @SqlResultSetMappings({
+	/* Plain columns, in the order HitlistCase.fromRow expects them, rather than a ConstructorResult:
+	 * Hibernate cannot stream constructor results, and the export queries need to be streamed. */
 	@SqlResultSetMapping(
-		name="snoozeCaseMapping",
-		entities=@EntityResult(entityClass=TroubleCase.class),
-		columns=@ColumnResult(name="last_snooze_end", type=ZonedDateTime.class)
+		name="hitlistCaseMapping",
+		columns={
+			@ColumnResult(name="internal_id", type=Long.class),
+			@ColumnResult(name="receipt_number", type=String.class),
+			@ColumnResult(name="case_creation", type=ZonedDateTime.class),
+			@ColumnResult(name="extra_data", type=String.class),
+			@ColumnResult(name="last_snooze_end", type=ZonedDateTime.class),
+		}
 	),
 })
 public class TroubleCase extends UpdatableEntity {
 
+	/**
+	 * The second-level cache region mapping (case management system, receipt number) to internal ID. Only the
+	 * natural-id resolution is cached: the cases themselves change far too often to be worth caching.
+	 */
+	public static final String NATURAL_ID_CACHE_REGION = "troubleCaseNaturalId";
+	/** The form every receipt number must take (checked in SQL-only code paths as well as by bean validation). */
+	public static final String RECEIPT_NUMBER_PATTERN = "[-\\w]+";
+	public static final String NEVER_SNOOZED = "NEVER_SNOOZED";
+	public static final String PREVIOUSLY_SNOOZED = "PREVIOUSLY_SNOOZED";
+	public static final String CURRENTLY_SNOOZED = "CURRENTLY_SNOOZED";
 	public static final String CASE_SNOOZE_DECODE =
-		"case when last_snooze_end is null then 'NEVER_SNOOZED' "
-		+ "when last_snooze_end < CURRENT_TIMESTAMP then 'PREVIOUSLY_SNOOZED' "
-		+ "else 'CURRENTLY_SNOOZED' end";
+		"case when last_snooze_end is null then '" + NEVER_SNOOZED + "' "
+		+ "when last_snooze_end < CURRENT_TIMESTAMP then '" + PREVIOUSLY_SNOOZED + "' "
+		+ "else '" + CURRENTLY_SNOOZED + "' end";
 	public static final String CASE_DTO_QUERY =
-		"SELECT c.*, "
-		+ "(SELECT MAX(snooze_end) FROM {h-schema}case_snooze s where s.snooze_case_internal_id = c.internal_id) last_snooze_end "
+		"SELECT c.* "
 		+ "FROM {h-schema}trouble_case c "
 		+ "WHERE case_management_system_internal_id = :caseManagementSystemId "
 		+ "AND case_type_internal_id = :caseTypeId "
-		+ "AND exists ("
-			+ "select openissues1_.internal_id "
-			+ "from {h-schema}case_issue openissues1_ "
-			+ "where c.internal_id=openissues1_.issue_case_internal_id "
-			+ "and ( openissues1_.issue_closed is null)"
-		+ ")";
+		+ "AND open_issue_count > 0";
 	public static final String NOT_SNOOZED_NOW_CONSTRAINT = " (last_snooze_end IS NULL OR last_snooze_end < CURRENT_TIMESTAMP) ";
 	public static final String SNOOZED_NOW_CONSTRAINT = " last_snooze_end >= CURRENT_TIMESTAMP ";
+	/**
+	 * The cases after (case_creation, internal_id) in {@link #NOT_SNOOZED_NOW_ORDER}. The leading range condition
+	 * is implied by the rest, but gives the planner an index range to start from.
+	 */
 	public static final String NOT_SNOOZED_NOW_PAGE_CONSTRAINT =
 			"  AND case_creation >= :caseCreation "
-			+ "AND internal_id != :internalId ";
+			+ "AND (case_creation > :caseCreation OR internal_id > :internalId) ";
+	/** The cases after (last_snooze_end, case_creation, internal_id) in {@link #SNOOZED_NOW_ORDER}. */
 	public static final String SNOOZED_PAGE_CONSTRAINT =
 			"  AND last_snooze_end >= :lastSnoozeEnd "
-			+ TroubleCase.NOT_SNOOZED_NOW_PAGE_CONSTRAINT;
-	public static final String NOT_SNOOZED_NOW_POSTAMBLE =
-		"  ORDER BY case_creation ASC, internal_id ASC "
-		+ "LIMIT :size";
-	public static final String SNOOZED_NOW_POSTAMBLE =
-		"  ORDER BY last_snooze_end ASC, case_creation ASC, internal_id ASC "
-		+ "LIMIT :size";
+			+ "AND (last_snooze_end > :lastSnoozeEnd "
+			+ "OR case_creation > :caseCreation "
+			+ "OR (case_creation = :caseCreation AND internal_id > :internalId)) ";
+	public static final String EXTRA_DATA_FILTER_CONSTRAINT = "  AND extra_data_contains(extra_data, :extraDataFilter) ";
+	public static final String NOT_SNOOZED_NOW_ORDER = "  ORDER BY case_creation ASC, internal_id ASC ";
+	public static final String SNOOZED_NOW_ORDER = "  ORDER BY last_snooze_end ASC, case_creation ASC, internal_id ASC ";
 	public static final String CASE_DTO_CTE = "(" + CASE_DTO_QUERY + ") as trouble_case_dto ";
-	public static final String CASE_SELECT_STEM = "SELECT * FROM" + CASE_DTO_CTE + " WHERE ";
+	/** The columns read by the "hitlistCaseMapping" result set mapping, and nothing else. */
+	public static final String CASE_SELECT_STEM =
+		"SELECT internal_id, receipt_number, case_creation, extra_data, last_snooze_end FROM" + CASE_DTO_CTE + " WHERE ";
 
 	@NaturalId
 	@ManyToOne(optional=false)
@@ -122,7 +133,7 @@ public class TroubleCase extends UpdatableEntity {
 	private CaseManagementSystem caseManagementSystem;
 	@NaturalId
 	@NotNull
-	@Pattern(regexp="[-\\w]+")
+	@Pattern(regexp=RECEIPT_NUMBER_PATTERN)
 	@Column(updatable=false)
 	private String receiptNumber;
 
@@ -140,10 +151,15 @@ public class TroubleCase extends UpdatableEntity {
 	@Column(columnDefinition = "varchar(32000)")
 	private Map<String, Object> extraData;
 
+	/** The end of the most recent {@link CaseSnooze} for this case (maintained by {@link CaseSnooze}, not directly). */
+	private ZonedDateTime lastSnoozeEnd;
+	/** The number of {@link CaseIssue}s for this case that are still open (maintained by {@link CaseIssue}, not directly). */
+	private int openIssueCount;
+
 	protected TroubleCase() {/* for hibernate/JPA */}
 
 	public TroubleCase(CaseManagementSystem caseManagementSystem,
-			@NotNull @Pattern(regexp = "[-\\w]+") String receiptNumber, CaseType caseType,
+			@NotNull @Pattern(regexp = RECEIPT_NUMBER_PATTERN) String receiptNumber, CaseType caseType,
 			@NotNull ZonedDateTime caseCreation,
 			Map<String,Object> extraData) {
 		this();
@@ -179,4 +195,26 @@ public class TroubleCase extends UpdatableEntity {
 	public Map<String, Object> getExtraData() {
 		return extraData;
 	}
+
+	@JsonIgnore
+	public ZonedDateTime getLastSnoozeEnd() {
+		return lastSnoozeEnd;
+	}
+
+	void setLastSnoozeEnd(ZonedDateTime lastSnoozeEnd) {
+		this.lastSnoozeEnd = lastSnoozeEnd;
+	}
+
+	@JsonIgnore
+	public int getOpenIssueCount() {
+		return openIssueCount;
+	}
+
+	void issueOpened() {
+		openIssueCount++;
+	}
+
+	void issueClosed() {
+		openIssueCount--;
+	}
 }
@@ -0,0 +1,26 @@
+package gov.usds.case_issues.db.model;
+
+/**
+ * How the records of an issue upload are to be read.
+ */
+public enum UploadMode {
+	/**
+	 * The upload lists every case that should have an open issue of its type: issues on cases it does not list
+	 * are closed.
+	 */
+	SNAPSHOT,
+	/**
+	 * The upload lists only the cases whose issues should be opened or closed (as well as any extra data that
+	 * should be updated): cases it does not list are left alone.
+	 */
+	DELTA;
+
+	public static UploadMode forName(String name) {
+		for (UploadMode mode : values()) {
+			if (mode.name().equalsIgnoreCase(name)) {
+				return mode;
+			}
+		}
+		throw new IllegalArgumentException("Not a recognized upload mode");
+	}
+}
@@ -4,12 +4,19 @@ package gov.usds.case_issues.db.model;
  * The state of an upload that was requested.
  */
 public enum UploadStatus {
+	/** The upload has been opened, and its records are being sent in chunks: nothing happens until it is committed. */
+	OPEN,
 	/** The upload request has been received but not completed. */
 	STARTED, 
 	/** The upload was completed without errors. */
 	SUCCESSFUL,
+	/**
+	 * The upload was identical to the last one applied for its issue type, so it was completed without changing
+	 * anything (except to make it the latest upload).
+	 */
+	UNCHANGED,
 	/** An exception occured during upload processing */
 	FAILED,
-	/** The upload was canceled (most likely because an uncaught error occurred during processing) */
+	/** The upload was canceled while it was still open, and none of its records were applied. */
 	CANCELED;
 }
@@ -25,6 +25,11 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 public abstract class WriteOnceEntity {
 
 	public static final String DEFAULT_SEQUENCE_GENERATOR = "caseIssueDefaultSequence";
+	/**
+	 * The number of IDs Hibernate takes from each value of the ID sequence: this must match the sequence's
+	 * increment in the database changelog.
+	 */
+	public static final int ID_ALLOCATION_SIZE = 50;
 
 	@Id
 	@GeneratedValue(
@@ -33,7 +38,8 @@ public abstract class WriteOnceEntity {
 	)
 	@SequenceGenerator(
 		name=DEFAULT_SEQUENCE_GENERATOR,
-		sequenceName="case_issue_entity_id_sequence"
+		sequenceName="case_issue_entity_id_sequence",
+		allocationSize=ID_ALLOCATION_SIZE
 	)
 	@JsonIgnore
 	@Column(updatable=false)
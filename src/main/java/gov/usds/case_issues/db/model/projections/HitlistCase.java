@@ -0,0 +1,82 @@
+package gov.usds.case_issues.db.model.projections;
+
+import java.io.IOException;
+import java.time.ZonedDateTime;
+import java.util.Collections;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * A case as it appears on one of the hit lists, built directly from a row of the page or export queries
+ * (see the "hitlistCaseMapping" result set mapping on {@link gov.usds.case_issues.db.model.TroubleCase}).
+ * Nothing here is managed by the persistence context, so reading a page does not hydrate, snapshot or
+ * dirty-check any entities.
+ */
+public final class HitlistCase {
+
+	private static final ObjectMapper EXTRA_DATA_MAPPER = new ObjectMapper();
+	private static final TypeReference<Map<String, Object>> EXTRA_DATA_TYPE = new TypeReference<Map<String, Object>>() {};
+
+	/* Column positions in "hitlistCaseMapping" */
+	private static final int INTERNAL_ID = 0;
+	private static final int RECEIPT_NUMBER = 1;
+	private static final int CASE_CREATION = 2;
+	private static final int EXTRA_DATA = 3;
+	private static final int LAST_SNOOZE_END = 4;
+
+	private final Long internalId;
+	private final String receiptNumber;
+	private final ZonedDateTime caseCreation;
+	private final Map<String, Object> extraData;
+	private final ZonedDateTime lastSnoozeEnd;
+
+	public HitlistCase(Long internalId, String receiptNumber, ZonedDateTime caseCreation, String extraData,
+			ZonedDateTime lastSnoozeEnd) {
+		this.internalId = internalId;
+		this.receiptNumber = receiptNumber;
+		this.caseCreation = caseCreation;
+		this.extraData = parseExtraData(receiptNumber, extraData);
+		this.lastSnoozeEnd = lastSnoozeEnd;
+	}
+
+	/** Build a case from a row read with the "hitlistCaseMapping" result set mapping. */
+	public static HitlistCase fromRow(Object[] row) {
+		return new HitlistCase((Long) row[INTERNAL_ID], (String) row[RECEIPT_NUMBER], (ZonedDateTime) row[CASE_CREATION],
+			(String) row[EXTRA_DATA], (ZonedDateTime) row[LAST_SNOOZE_END]);
+	}
+
+	public Long getInternalId() {
+		return internalId;
+	}
+
+	public String getReceiptNumber() {
+		return receiptNumber;
+	}
+
+	public ZonedDateTime getCaseCreation() {
+		return caseCreation;
+	}
+
+	/** The extra data of the case (unmodifiable, and null if the case has none). */
+	public Map<String, Object> getExtraData() {
+		return extraData;
+	}
+
+	/** The end of the last snooze of the case (null if it has never been snoozed). */
+	public ZonedDateTime getLastSnoozeEnd() {
+		return lastSnoozeEnd;
+	}
+
+	private static Map<String, Object> parseExtraData(String receiptNumber, String json) {
+		if (json == null) {
+			return null;
+		}
+		try {
+			return Collections.unmodifiableMap(EXTRA_DATA_MAPPER.readValue(json, EXTRA_DATA_TYPE));
+		} catch (IOException e) {
+			throw new IllegalStateException("Unreadable extra data for case " + receiptNumber, e);
+		}
+	}
+}
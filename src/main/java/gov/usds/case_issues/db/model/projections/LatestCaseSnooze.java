@@ -0,0 +1,42 @@
+package gov.usds.case_issues.db.model.projections;
+
+import java.time.ZonedDateTime;
+
+/**
+ * The most recent snooze of a case, read as a plain value (with the internal ID of the case it belongs to)
+ * rather than as a managed {@link gov.usds.case_issues.db.model.CaseSnooze}.
+ */
+public final class LatestCaseSnooze implements CaseSnoozeSummary {
+
+	private final Long caseInternalId;
+	private final String snoozeReason;
+	private final ZonedDateTime snoozeStart;
+	private final ZonedDateTime snoozeEnd;
+
+	public LatestCaseSnooze(Long caseInternalId, String snoozeReason, ZonedDateTime snoozeStart,
+			ZonedDateTime snoozeEnd) {
+		this.caseInternalId = caseInternalId;
+		this.snoozeReason = snoozeReason;
+		this.snoozeStart = snoozeStart;
+		this.snoozeEnd = snoozeEnd;
+	}
+
+	public Long getCaseInternalId() {
+		return caseInternalId;
+	}
+
+	@Override
+	public String getSnoozeReason() {
+		return snoozeReason;
+	}
+
+	@Override
+	public ZonedDateTime getSnoozeStart() {
+		return snoozeStart;
+	}
+
+	@Override
+	public ZonedDateTime getSnoozeEnd() {
+		return snoozeEnd;
+	}
+}
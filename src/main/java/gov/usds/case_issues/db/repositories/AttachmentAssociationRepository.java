@@ -1,8 +1,16 @@
 package gov.usds.case_issues.db.repositories;
 
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
+import java.util.Collection;
 import java.util.List;
 
+import javax.persistence.QueryHint;
+
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
 import gov.usds.case_issues.db.model.CaseAttachmentAssociation;
 import gov.usds.case_issues.db.model.TroubleCase;
@@ -10,4 +18,14 @@ import gov.usds.case_issues.db.model.TroubleCase;
 public interface AttachmentAssociationRepository extends CrudRepository<CaseAttachmentAssociation, Long> {
 
 	public List<CaseAttachmentAssociation> findAllBySnoozeSnoozeCaseOrderByUpdatedAtAsc(TroubleCase rootCase);
+
+	/**
+	 * Retrieve all notes for a batch of cases (identified by internal ID) in a single query, oldest first.
+	 * The results are loaded read-only, since they are only ever used to build API responses.
+	 */
+	@QueryHints(@QueryHint(name=HINT_READONLY, value="true"))
+	@Query("select a from #{#entityName} a join fetch a.snooze s join fetch s.snoozeCase c "
+			+ "join fetch a.attachment n left join fetch n.attachmentSubtype "
+			+ "where c.internalId in :caseIds order by a.updatedAt asc")
+	public List<CaseAttachmentAssociation> findAllForCases(@Param("caseIds") Collection<Long> caseIds);
 }
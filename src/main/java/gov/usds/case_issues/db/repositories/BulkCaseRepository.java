@@ -1,13 +1,20 @@
 package gov.usds.case_issues.db.repositories;
 
-import java.time.ZonedDateTime;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
 import java.util.List;
+import java.util.stream.Stream;
+
+import javax.persistence.QueryHint;
 
-import org.hibernate.validator.constraints.Range;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.rest.core.annotation.RestResource;
 import org.springframework.validation.annotation.Validated;
 
+import gov.usds.case_issues.db.model.projections.HitlistCase;
+
 /**
  * Repository interface for bulk operations (not independently autowired because
  * this turns out to break things horribly).
@@ -17,41 +24,42 @@ public interface BulkCaseRepository {
 
 	/** The maximum allowed page size for a paged request. */
 	public static final int MAX_PAGE_SIZE = 100;
+	/** The number of rows to fetch from the database at a time when streaming a full list. */
+	public static final String EXPORT_FETCH_SIZE = "500";
 
-	@Query(name="snoozedFirstPage")
-	@RestResource(exported=false)
-	public List<Object[]> getSnoozedCases(Long caseManagementSystemId, Long caseTypeId, @Range(max=MAX_PAGE_SIZE)  int size);
-
-	@Query(name="snoozedLaterPage")
-	@RestResource(exported=false)
-	public List<Object[]> getSnoozedCasesAfter(
-		Long caseManagementSystemId,
-		Long caseTypeId,
-		ZonedDateTime lastSnoozeEnd,
-		ZonedDateTime caseCreation,
-		Long internalId,
-		@Range(max=MAX_PAGE_SIZE) int size
-	);
-
-	@Query(name="notCurrentlySnoozedFirstPage")
+	/**
+	 * Stream all currently snoozed cases, in page order, as rows for {@link HitlistCase#fromRow(Object[])}.
+	 * Must be called inside a transaction, and the stream must be closed when done.
+	 */
+	@Query(name="snoozedExport")
+	@QueryHints({
+		@QueryHint(name=HINT_FETCH_SIZE, value=EXPORT_FETCH_SIZE),
+		@QueryHint(name=HINT_READONLY, value="true"),
+	})
 	@RestResource(exported=false)
-	public List<Object[]> getActiveCases(
-		Long caseManagementSystemId,
-		Long caseTypeId,
-		@Range(max=MAX_PAGE_SIZE) int size
-	);
+	public Stream<Object[]> streamSnoozedCases(Long caseManagementSystemId, Long caseTypeId);
 
-	@Query(name="notCurrentlySnoozedLaterPage")
+	/**
+	 * Stream all active cases that are not currently snoozed, in page order, as rows for
+	 * {@link HitlistCase#fromRow(Object[])}. Must be called inside a transaction, and the stream must be closed when done.
+	 */
+	@Query(name="notCurrentlySnoozedExport")
+	@QueryHints({
+		@QueryHint(name=HINT_FETCH_SIZE, value=EXPORT_FETCH_SIZE),
+		@QueryHint(name=HINT_READONLY, value="true"),
+	})
 	@RestResource(exported=false)
-	public List<Object[]> getActiveCasesAfter(
-		Long caseManagementSystemId,
-		Long caseTypeId,
-		ZonedDateTime caseCreation,
-		Long internalId,
-		@Range(max=MAX_PAGE_SIZE) int size
-	);
+	public Stream<Object[]> streamActiveCases(Long caseManagementSystemId, Long caseTypeId);
 
 	@Query(name="summary")
 	@RestResource(exported=false)
 	public List<Object[]> getSnoozeSummary(Long caseManagementSystemId, Long caseTypeId);
+
+	/**
+	 * Count the cases with open issues of each issue type, by snooze state.
+	 * Each result row is the issue type, the snooze state and the count.
+	 */
+	@Query(name="issueTypeSummary")
+	@RestResource(exported=false)
+	public List<Object[]> getIssueTypeSnoozeSummary(Long caseManagementSystemId, Long caseTypeId);
 }
@@ -1,10 +1,13 @@
 package gov.usds.case_issues.db.repositories;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.data.rest.core.annotation.RepositoryRestResource;
+import org.springframework.data.rest.core.annotation.RestResource;
 
 import gov.usds.case_issues.db.model.CaseIssue;
 import gov.usds.case_issues.db.model.CaseManagementSystem;
@@ -13,7 +16,7 @@ import gov.usds.case_issues.db.model.TroubleCase;
 import gov.usds.case_issues.db.model.projections.CaseIssueSummary;
 
 @RepositoryRestResource(path="issues", collectionResourceRel="issues", itemResourceRel="issue")
-public interface CaseIssueRepository extends PagingAndSortingRepository<CaseIssue, Long> {
+public interface CaseIssueRepository extends PagingAndSortingRepository<CaseIssue, Long>, UploadStagingRepository {
 
 	List<CaseIssueSummary> findAllByIssueCaseOrderByIssueCreated(TroubleCase mainCase);
 
@@ -28,4 +31,13 @@ public interface CaseIssueRepository extends PagingAndSortingRepository<CaseIssu
 	// if we wanted to, but that would only save us two queries and only if we had crossed a transaction boundary: probably
 	// not worth the trouble
 	List<CaseIssue> findActiveIssues(CaseManagementSystem caseManagementSystem, CaseType caseType, String issueType);
+
+	/** Retrieve all issues for a batch of cases (identified by internal ID) in a single query, oldest first. */
+	@Query("select i from #{#entityName} i where i.issueCase.internalId in :caseIds order by i.issueCreated")
+	@RestResource(exported=false)
+	List<CaseIssue> findAllForCases(@Param("caseIds") Collection<Long> caseIds);
+
+	@Query("select distinct i.issueType from #{#entityName} i where i.issueCase = :issueCase and i.issueClosed is null")
+	@RestResource(exported=false)
+	List<String> findOpenIssueTypes(TroubleCase issueCase);
 }
@@ -1,9 +1,16 @@
 package gov.usds.case_issues.db.repositories;
 
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 
+import javax.persistence.LockModeType;
+
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
 import gov.usds.case_issues.db.model.CaseIssueUpload;
 import gov.usds.case_issues.db.model.CaseManagementSystem;
@@ -27,4 +34,17 @@ public interface CaseIssueUploadRepository extends CrudRepository<CaseIssueUploa
 			CaseManagementSystem sys, CaseType type, String issueType, UploadStatus uploadStatus);
 	public Optional<CaseIssueUpload> findFirstByCaseManagementSystemAndCaseTypeAndUploadStatusOrderByEffectiveDateDesc(
 			CaseManagementSystem sys, CaseType type, UploadStatus uploadStatus);
+	public Optional<CaseIssueUpload> findFirstByCaseManagementSystemAndCaseTypeAndIssueTypeAndUploadStatusInOrderByEffectiveDateDesc(
+			CaseManagementSystem sys, CaseType type, String issueType, Collection<UploadStatus> uploadStatuses);
+	public Optional<CaseIssueUpload> findFirstByCaseManagementSystemAndCaseTypeAndUploadStatusInOrderByEffectiveDateDesc(
+			CaseManagementSystem sys, CaseType type, Collection<UploadStatus> uploadStatuses);
+
+	public List<CaseIssueUpload> findAllByUploadStatusAndUpdatedAtBefore(UploadStatus uploadStatus, Date updatedBefore);
+
+	/**
+	 * Fetch and lock an upload, so that an upload being sent in chunks sees its chunks and its commit one at a time.
+	 */
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("select u from #{#entityName} u where u.internalId = :id")
+	public Optional<CaseIssueUpload> findAndLock(@Param("id") Long id);
 }
@@ -1,13 +1,17 @@
 package gov.usds.case_issues.db.repositories;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
 
 import gov.usds.case_issues.db.model.CaseSnooze;
 import gov.usds.case_issues.db.model.TroubleCase;
 import gov.usds.case_issues.db.model.projections.CaseSnoozeSummary;
+import gov.usds.case_issues.db.model.projections.LatestCaseSnooze;
 
 public interface CaseSnoozeRepository extends PagingAndSortingRepository<CaseSnooze, Long> {
 
@@ -16,4 +20,19 @@ public interface CaseSnoozeRepository extends PagingAndSortingRepository<CaseSno
 
 	/** Retrieve the latest snooze, if any */
 	public Optional<CaseSnooze> findFirstBySnoozeCaseOrderBySnoozeEndDesc(TroubleCase mainCase);
+
+	/**
+	 * Retrieve the latest snooze for each of a batch of cases (identified by internal ID) in a single query,
+	 * relying on {@link TroubleCase#getLastSnoozeEnd()} to identify it. The snoozes are read as plain values,
+	 * without loading either the snoozes or the cases as entities.
+	 */
+	@Query("select new gov.usds.case_issues.db.model.projections.LatestCaseSnooze("
+			+ "c.internalId, s.snoozeReason, s.snoozeStart, s.snoozeEnd) "
+			+ "from #{#entityName} s join s.snoozeCase c "
+			+ "where c.internalId in :caseIds and s.snoozeEnd = c.lastSnoozeEnd")
+	public List<LatestCaseSnooze> findLatestSnoozesForCases(@Param("caseIds") Collection<Long> caseIds);
+
+	/** Retrieve all snoozes for a batch of cases (identified by internal ID) in a single query, oldest first. */
+	@Query("select s from #{#entityName} s where s.snoozeCase.internalId in :caseIds order by s.snoozeStart asc")
+	public List<CaseSnooze> findAllForCases(@Param("caseIds") Collection<Long> caseIds);
 }
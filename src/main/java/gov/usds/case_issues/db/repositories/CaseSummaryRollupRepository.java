@@ -0,0 +1,62 @@
+package gov.usds.case_issues.db.repositories;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import javax.persistence.LockModeType;
+
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.rest.core.annotation.RepositoryRestResource;
+
+import gov.usds.case_issues.db.model.CaseManagementSystem;
+import gov.usds.case_issues.db.model.CaseSummaryRollup;
+import gov.usds.case_issues.db.model.CaseType;
+
+/**
+ * Repository for the precomputed hit-list counts. Not exported: these rows are only ever written by
+ * {@link gov.usds.case_issues.services.CaseSummaryRollupService}.
+ */
+@RepositoryRestResource(exported=false)
+public interface CaseSummaryRollupRepository extends CrudRepository<CaseSummaryRollup, Long> {
+
+	Optional<CaseSummaryRollup> findByCaseManagementSystemAndCaseTypeAndIssueType(
+			CaseManagementSystem caseManagementSystem, CaseType caseType, String issueType);
+
+	List<CaseSummaryRollup> findAllByCaseManagementSystemAndCaseTypeOrderByIssueType(
+			CaseManagementSystem caseManagementSystem, CaseType caseType);
+
+	/**
+	 * Fetch and lock the given rows for update. Rows are always locked in issue type order, so that two
+	 * transactions locking overlapping sets of rows cannot deadlock.
+	 */
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("select r from #{#entityName} r "
+		+ "where r.caseManagementSystem = :caseManagementSystem and r.caseType = :caseType "
+		+ "and r.issueType in :issueTypes "
+		+ "order by r.issueType")
+	List<CaseSummaryRollup> findForUpdate(CaseManagementSystem caseManagementSystem, CaseType caseType,
+			Collection<String> issueTypes);
+
+	/** Fetch and lock all the rows for a case management system and case type, in issue type order. */
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("select r from #{#entityName} r "
+		+ "where r.caseManagementSystem = :caseManagementSystem and r.caseType = :caseType "
+		+ "order by r.issueType")
+	List<CaseSummaryRollup> findAllForUpdate(CaseManagementSystem caseManagementSystem, CaseType caseType);
+
+	/**
+	 * Lock the all-types row for a case management system and case type with an update that changes
+	 * nothing. Unlike a select for update, this blocks other writers on every database we run on
+	 * (including HSQLDB), so it serves as the lock that orders all changes to a case type's counts.
+	 * @return the number of rows locked: 0 if there is no all-types row yet.
+	 */
+	@Modifying
+	@Query("update #{#entityName} r set r.listVersion = r.listVersion "
+		+ "where r.caseManagementSystem = :caseManagementSystem and r.caseType = :caseType "
+		+ "and r.issueType = '" + CaseSummaryRollup.ALL_ISSUE_TYPES + "'")
+	int lockAllTypes(CaseManagementSystem caseManagementSystem, CaseType caseType);
+}
@@ -0,0 +1,49 @@
+package gov.usds.case_issues.db.repositories;
+
+import java.util.List;
+import java.util.Map;
+
+import org.hibernate.validator.constraints.Range;
+import org.springframework.data.rest.core.annotation.RestResource;
+import org.springframework.validation.annotation.Validated;
+
+import gov.usds.case_issues.db.model.projections.HitlistCase;
+
+/**
+ * Repository fragment for fetching pages of the hit list. The SQL for these depends on the filters
+ * and sort order requested, so unlike the queries in {@link BulkCaseRepository} they cannot be fixed named queries.
+ * Each result row is a {@link HitlistCase}.
+ */
+@Validated
+public interface HitlistPageRepository {
+
+	/**
+	 * Fetch a page of snoozed cases.
+	 * @param extraDataFilter key/value pairs that must all be found in the extra data of each case (may be empty).
+	 * @param after the position of the last case on the previous page, or null for the first page.
+	 */
+	@RestResource(exported=false)
+	public List<HitlistCase> getSnoozedCases(
+		Long caseManagementSystemId,
+		Long caseTypeId,
+		Map<String, Object> extraDataFilter,
+		HitlistSort sort,
+		HitlistPosition after,
+		@Range(max=BulkCaseRepository.MAX_PAGE_SIZE) int size
+	);
+
+	/**
+	 * Fetch a page of active (not currently snoozed) cases.
+	 * @param extraDataFilter key/value pairs that must all be found in the extra data of each case (may be empty).
+	 * @param after the position of the last case on the previous page, or null for the first page.
+	 */
+	@RestResource(exported=false)
+	public List<HitlistCase> getActiveCases(
+		Long caseManagementSystemId,
+		Long caseTypeId,
+		Map<String, Object> extraDataFilter,
+		HitlistSort sort,
+		HitlistPosition after,
+		@Range(max=BulkCaseRepository.MAX_PAGE_SIZE) int size
+	);
+}
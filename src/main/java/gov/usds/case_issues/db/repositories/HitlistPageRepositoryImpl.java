@@ -0,0 +1,79 @@
+package gov.usds.case_issues.db.repositories;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import gov.usds.case_issues.db.model.TroubleCase;
+import gov.usds.case_issues.db.model.projections.HitlistCase;
+
+/**
+ * Implementation of {@link HitlistPageRepository}, assembling the page queries from the fragments
+ * defined in {@link TroubleCase} and {@link HitlistSort}. The extra data filter is only added to the SQL
+ * when it is needed, so unfiltered pages in the default order run exactly the same query they always have.
+ * Rows are mapped straight into {@link HitlistCase} values rather than entities, so fetching a page adds
+ * nothing to the persistence context.
+ */
+public class HitlistPageRepositoryImpl implements HitlistPageRepository {
+
+	private static final ObjectMapper FILTER_MAPPER = new ObjectMapper();
+	private static final String LIMIT = "LIMIT :size";
+
+	@Autowired
+	private EntityManager _entityManager;
+
+	@Override
+	public List<HitlistCase> getSnoozedCases(Long caseManagementSystemId, Long caseTypeId,
+			Map<String, Object> extraDataFilter, HitlistSort sort, HitlistPosition after, int size) {
+		return getPage(caseManagementSystemId, caseTypeId, extraDataFilter,
+			TroubleCase.SNOOZED_NOW_CONSTRAINT, sort, after, size);
+	}
+
+	@Override
+	public List<HitlistCase> getActiveCases(Long caseManagementSystemId, Long caseTypeId,
+			Map<String, Object> extraDataFilter, HitlistSort sort, HitlistPosition after, int size) {
+		return getPage(caseManagementSystemId, caseTypeId, extraDataFilter,
+			TroubleCase.NOT_SNOOZED_NOW_CONSTRAINT, sort, after, size);
+	}
+
+	@SuppressWarnings("unchecked")
+	private List<HitlistCase> getPage(Long caseManagementSystemId, Long caseTypeId, Map<String, Object> extraDataFilter,
+			String listConstraint, HitlistSort sort, HitlistPosition after, int size) {
+		boolean filtered = extraDataFilter != null && !extraDataFilter.isEmpty();
+		String sql = TroubleCase.CASE_SELECT_STEM
+			+ listConstraint
+			+ (after == null ? "" : sort.getPageConstraint(after))
+			+ (filtered ? TroubleCase.EXTRA_DATA_FILTER_CONSTRAINT : "")
+			+ sort.getOrder() + LIMIT;
+		Query query = _entityManager.createNativeQuery(sql, "hitlistCaseMapping")
+			.setParameter("caseManagementSystemId", caseManagementSystemId)
+			.setParameter("caseTypeId", caseTypeId)
+			.setParameter("size", size)
+			.setHint(HINT_FETCH_SIZE, size)
+			.setHint(HINT_READONLY, true);
+		if (after != null) {
+			sort.setPageParameters(query, after);
+		}
+		if (filtered) {
+			try {
+				query.setParameter("extraDataFilter", FILTER_MAPPER.writeValueAsString(extraDataFilter));
+			} catch (JsonProcessingException e) {
+				throw new IllegalArgumentException("Unable to serialize extra data filter", e);
+			}
+		}
+		return ((List<Object[]>) query.getResultList()).stream()
+			.map(HitlistCase::fromRow)
+			.collect(Collectors.toList());
+	}
+}
@@ -0,0 +1,55 @@
+package gov.usds.case_issues.db.repositories;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+
+import gov.usds.case_issues.db.model.TroubleCase;
+import gov.usds.case_issues.db.model.projections.HitlistCase;
+
+/**
+ * The position of a case in a sorted hit list: everything needed to fetch the page that follows it
+ * without looking the case up again.
+ */
+public class HitlistPosition {
+
+	private ZonedDateTime _lastSnoozeEnd;
+	private ZonedDateTime _caseCreation;
+	private Long _internalId;
+	private BigDecimal _sortValue;
+
+	public HitlistPosition(ZonedDateTime lastSnoozeEnd, ZonedDateTime caseCreation, Long internalId,
+			BigDecimal sortValue) {
+		_lastSnoozeEnd = lastSnoozeEnd;
+		_caseCreation = caseCreation;
+		_internalId = internalId;
+		_sortValue = sortValue;
+	}
+
+	public HitlistPosition(TroubleCase lastCase, HitlistSort sort) {
+		this(lastCase.getLastSnoozeEnd(), lastCase.getCaseCreation(), lastCase.getInternalId(),
+			sort.getSortValue(lastCase.getExtraData()));
+	}
+
+	public HitlistPosition(HitlistCase lastCase, HitlistSort sort) {
+		this(lastCase.getLastSnoozeEnd(), lastCase.getCaseCreation(), lastCase.getInternalId(),
+			sort.getSortValue(lastCase.getExtraData()));
+	}
+
+	/** The end of the last snooze of the case (null if it has never been snoozed). */
+	public ZonedDateTime getLastSnoozeEnd() {
+		return _lastSnoozeEnd;
+	}
+
+	public ZonedDateTime getCaseCreation() {
+		return _caseCreation;
+	}
+
+	public Long getInternalId() {
+		return _internalId;
+	}
+
+	/** The value of the extra data field the list is sorted on, for sorts that use one (may be null). */
+	public BigDecimal getSortValue() {
+		return _sortValue;
+	}
+}
@@ -0,0 +1,146 @@
+package gov.usds.case_issues.db.repositories;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.persistence.Query;
+
+import gov.usds.case_issues.db.model.TroubleCase;
+
+/**
+ * The orderings that a hit list can be requested in. Each one carries its ORDER BY clause and the
+ * keyset constraint that picks up where a {@link HitlistPosition} left off, and each has a matching index
+ * in the database changelog so that fetching a page never requires sorting the whole list.
+ */
+public enum HitlistSort {
+
+	/** Oldest cases first: the default for the active list. */
+	CREATED_ASC(TroubleCase.NOT_SNOOZED_NOW_ORDER) {
+		@Override
+		public String getPageConstraint(HitlistPosition after) {
+			return TroubleCase.NOT_SNOOZED_NOW_PAGE_CONSTRAINT;
+		}
+
+		@Override
+		public void setPageParameters(Query query, HitlistPosition after) {
+			query.setParameter("caseCreation", after.getCaseCreation())
+				.setParameter("internalId", after.getInternalId());
+		}
+	},
+	/** Newest cases first. */
+	CREATED_DESC("  ORDER BY case_creation DESC, internal_id DESC ") {
+		@Override
+		public String getPageConstraint(HitlistPosition after) {
+			return "  AND case_creation <= :caseCreation "
+				+ "AND (case_creation < :caseCreation OR internal_id < :internalId) ";
+		}
+
+		@Override
+		public void setPageParameters(Query query, HitlistPosition after) {
+			query.setParameter("caseCreation", after.getCaseCreation())
+				.setParameter("internalId", after.getInternalId());
+		}
+	},
+	/** Soonest snooze end first: the default for the snoozed list, and only meaningful there. */
+	SNOOZE_END_ASC(TroubleCase.SNOOZED_NOW_ORDER) {
+		@Override
+		public String getPageConstraint(HitlistPosition after) {
+			return TroubleCase.SNOOZED_PAGE_CONSTRAINT;
+		}
+
+		@Override
+		public void setPageParameters(Query query, HitlistPosition after) {
+			query.setParameter("lastSnoozeEnd", after.getLastSnoozeEnd())
+				.setParameter("caseCreation", after.getCaseCreation())
+				.setParameter("internalId", after.getInternalId());
+		}
+
+		@Override
+		public boolean isSnoozedOnly() {
+			return true;
+		}
+	},
+	/**
+	 * Highest <code>caseAge</code> (from the extra data) first. Cases with no numeric case age come
+	 * last, in the order they were added to the system.
+	 */
+	CASE_AGE_DESC("  ORDER BY " + HitlistSort.CASE_AGE + " DESC NULLS LAST, internal_id ASC ") {
+		@Override
+		public String getPageConstraint(HitlistPosition after) {
+			if (after.getSortValue() == null) {
+				return "  AND " + CASE_AGE + " IS NULL AND internal_id > :internalId ";
+			}
+			return "  AND (" + CASE_AGE + " < :sortValue "
+				+ "OR (" + CASE_AGE + " = :sortValue AND internal_id > :internalId) "
+				+ "OR " + CASE_AGE + " IS NULL) ";
+		}
+
+		@Override
+		public void setPageParameters(Query query, HitlistPosition after) {
+			if (after.getSortValue() != null) {
+				query.setParameter("sortValue", after.getSortValue());
+			}
+			query.setParameter("internalId", after.getInternalId());
+		}
+
+		@Override
+		public BigDecimal getSortValue(Map<String, Object> extraData) {
+			return numericValue(extraData, CASE_AGE_KEY);
+		}
+	},
+	;
+
+	/** The extra data key used by {@link #CASE_AGE_DESC}. */
+	public static final String CASE_AGE_KEY = "caseAge";
+	/** Must match the expression in the ix__trouble_case__case_age index exactly, or the index will not be used. */
+	private static final String CASE_AGE = "extra_data_number(extra_data, '" + CASE_AGE_KEY + "')";
+
+	private final String _order;
+
+	HitlistSort(String order) {
+		_order = order;
+	}
+
+	/** The ORDER BY clause for this sort. */
+	public String getOrder() {
+		return _order;
+	}
+
+	/** The SQL constraint that restricts a list to the cases after the given position. */
+	public abstract String getPageConstraint(HitlistPosition after);
+
+	/** Bind the parameters used by {@link #getPageConstraint(HitlistPosition)}. */
+	public abstract void setPageParameters(Query query, HitlistPosition after);
+
+	/** The value (if any) from the given case extra data that this sort orders cases by. */
+	public BigDecimal getSortValue(Map<String, Object> extraData) {
+		return null;
+	}
+
+	/** Whether this sort can only be applied to the snoozed list. */
+	public boolean isSnoozedOnly() {
+		return false;
+	}
+
+	/**
+	 * Find the sort with the given name (case-insensitively).
+	 * @throws IllegalArgumentException if there is no such sort.
+	 */
+	public static HitlistSort forName(String name) {
+		try {
+			return valueOf(name.toUpperCase(Locale.ROOT));
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException("Unknown sort: " + name, e);
+		}
+	}
+
+	/** Must agree with the extra_data_number database function. */
+	private static BigDecimal numericValue(Map<String, Object> extraData, String key) {
+		Object value = extraData == null ? null : extraData.get(key);
+		if (value instanceof Number) {
+			return new BigDecimal(value.toString());
+		}
+		return null;
+	}
+}
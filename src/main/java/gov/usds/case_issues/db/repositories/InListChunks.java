@@ -0,0 +1,49 @@
+package gov.usds.case_issues.db.repositories;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Helper for running IN-list queries over any number of values: the values are split into chunks, the query is run
+ * once per chunk, and the results are concatenated.
+ */
+public final class InListChunks {
+
+	/**
+	 * The number of values each query gets by default: far below what the databases could take (see
+	 * {@link TroubleCaseRepository#MAX_INLIST_SIZE}), since a statement with a huge IN-list is slow to parse
+	 * and tends to get a poor plan.
+	 */
+	public static final int DEFAULT_CHUNK_SIZE = 1000;
+
+	private InListChunks() {
+		/* static methods only */
+	}
+
+	/** Run the query over chunks of at most {@link #DEFAULT_CHUNK_SIZE} values. */
+	public static <T, R> List<R> query(Collection<T> values, Function<List<T>, ? extends Collection<R>> query) {
+		return query(values, DEFAULT_CHUNK_SIZE, query);
+	}
+
+	/** Run the query over chunks of at most chunkSize values. */
+	public static <T, R> List<R> query(Collection<T> values, int chunkSize, Function<List<T>, ? extends Collection<R>> query) {
+		if (chunkSize < 1) {
+			throw new IllegalArgumentException("Chunk size must be positive");
+		}
+		List<R> results = new ArrayList<>();
+		List<T> chunk = new ArrayList<>(Math.min(chunkSize, values.size()));
+		for (T value : values) {
+			chunk.add(value);
+			if (chunk.size() == chunkSize) {
+				results.addAll(query.apply(chunk));
+				chunk = new ArrayList<>(chunkSize);
+			}
+		}
+		if (!chunk.isEmpty()) {
+			results.addAll(query.apply(chunk));
+		}
+		return results;
+	}
+}
@@ -0,0 +1,32 @@
+package gov.usds.case_issues.db.repositories;
+
+import java.io.Serializable;
+import java.util.Optional;
+
+import javax.persistence.EntityManager;
+
+import org.hibernate.Session;
+import org.springframework.data.jpa.repository.support.JpaEntityInformation;
+import org.springframework.data.jpa.repository.support.SimpleJpaRepository;
+
+/**
+ * Base class for all of our Spring Data repositories (see
+ * {@link gov.usds.case_issues.config.RepositoryConfig}). The only thing it adds is a natural-id implementation
+ * of {@link TaggedEntityRepository#findByExternalId(String)}, which Spring Data uses in preference to deriving
+ * a query. Hibernate can answer a natural-id load from the second-level cache, where a query always goes to the
+ * database.
+ */
+public class NaturalIdLookupRepository<T, ID extends Serializable> extends SimpleJpaRepository<T, ID> {
+
+	private final EntityManager _entityManager;
+
+	public NaturalIdLookupRepository(JpaEntityInformation<T, ?> entityInformation, EntityManager entityManager) {
+		super(entityInformation, entityManager);
+		_entityManager = entityManager;
+	}
+
+	/** Load the entity with the given (single-valued) natural ID. */
+	public Optional<T> findByExternalId(String tag) {
+		return _entityManager.unwrap(Session.class).bySimpleNaturalId(getDomainClass()).loadOptional(tag);
+	}
+}
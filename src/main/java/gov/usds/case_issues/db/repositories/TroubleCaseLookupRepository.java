@@ -0,0 +1,23 @@
+package gov.usds.case_issues.db.repositories;
+
+import java.util.Optional;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import gov.usds.case_issues.db.model.CaseManagementSystem;
+import gov.usds.case_issues.db.model.TroubleCase;
+
+/**
+ * Repository fragment for finding a single case by its natural ID (case management system and receipt number).
+ */
+public interface TroubleCaseLookupRepository {
+
+	/**
+	 * Find a case by receipt number. The receipt number is resolved to an internal ID through the Hibernate
+	 * natural-id cache when possible, so that usually all that reaches the database is a primary-key lookup.
+	 * Finds nothing if either argument is null.
+	 */
+	@Transactional(readOnly=true)
+	public Optional<TroubleCase> findByCaseManagementSystemAndReceiptNumber(CaseManagementSystem caseManager,
+			String receiptNumber);
+}
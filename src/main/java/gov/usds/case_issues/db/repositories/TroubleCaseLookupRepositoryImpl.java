@@ -0,0 +1,33 @@
+package gov.usds.case_issues.db.repositories;
+
+import java.util.Optional;
+
+import javax.persistence.EntityManager;
+
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import gov.usds.case_issues.db.model.CaseManagementSystem;
+import gov.usds.case_issues.db.model.TroubleCase;
+
+/**
+ * Implementation of {@link TroubleCaseLookupRepository}, using a Hibernate natural-id load rather than a query.
+ */
+public class TroubleCaseLookupRepositoryImpl implements TroubleCaseLookupRepository {
+
+	@Autowired
+	private EntityManager _entityManager;
+
+	@Override
+	public Optional<TroubleCase> findByCaseManagementSystemAndReceiptNumber(CaseManagementSystem caseManager,
+			String receiptNumber) {
+		if (caseManager == null || receiptNumber == null) {
+			return Optional.empty(); // as the derived query this replaced would have found nothing
+		}
+		return _entityManager.unwrap(Session.class)
+			.byNaturalId(TroubleCase.class)
+			.using("caseManagementSystem", caseManager)
+			.using("receiptNumber", receiptNumber)
+			.loadOptional();
+	}
+}
@@ -2,7 +2,6 @@ package gov.usds.case_issues.db.repositories;
 
 import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
 
 import javax.persistence.LockModeType;
 import javax.validation.constraints.Size;
@@ -13,8 +12,10 @@ import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.data.rest.core.annotation.Description;
 import org.springframework.data.rest.core.annotation.RepositoryRestResource;
+import org.springframework.data.rest.core.annotation.RestResource;
 import org.springframework.validation.annotation.Validated;
 
 import gov.usds.case_issues.db.model.CaseManagementSystem;
@@ -28,28 +29,51 @@ import gov.usds.case_issues.db.model.TroubleCase;
 	collectionResourceDescription=@Description("All cases that have had at least one issue reported.")
 )
 @Validated
-public interface TroubleCaseRepository extends PagingAndSortingRepository<TroubleCase, Long>, BulkCaseRepository {
+public interface TroubleCaseRepository extends PagingAndSortingRepository<TroubleCase, Long>, BulkCaseRepository, HitlistPageRepository,
+		TroubleCaseLookupRepository {
 
-	public static final String ACTIVE_CASE_CLAUSE = "c.caseManagementSystem = :caseManagementSystem and c.caseType = :caseType and c.openIssues is not empty";
+	public static final String ACTIVE_CASE_CLAUSE = "c.caseManagementSystem = :caseManagementSystem and c.caseType = :caseType and c.openIssueCount > 0";
 	public static final String ACTIVE_CASE_QUERY = "select c from #{#entityName} c where " + ACTIVE_CASE_CLAUSE;
-	public static final String ACTIVE_SNOOZE_CLAUSE = "exists (select snoozeEnd from CaseSnooze where snoozeCase = c and snoozeEnd > CURRENT_TIMESTAMP)";
+	public static final String ACTIVE_SNOOZE_CLAUSE = "c.lastSnoozeEnd > CURRENT_TIMESTAMP";
 	public static final int MAX_INLIST_SIZE = 32000;
 	public static final String INLIST_SIZE_MESSAGE = "Too many items in this IN-list: not all databases can handle this many placeholders.";
 
+	/**
+	 * The original receipt number search, kept because it is exported as a Spring Data REST search. The case search
+	 * API uses the two indexed searches below instead.
+	 */
 	public List<TroubleCase> getFirst5ByCaseManagementSystemAndCaseTypeAndReceiptNumberContains(CaseManagementSystem caseManager, CaseType caseType, String receiptNumber);
 
-	public Page<TroubleCase> getAllByCaseManagementSystemAndCaseType(CaseManagementSystem caseManager, CaseType caseType, Pageable pageable);
+	/**
+	 * Receipt numbers starting with the search string: on PostgreSQL, served by ix__trouble_case__receipt_prefix,
+	 * which (since receipt numbers use the C collation) also yields them in order, so only the first page is read.
+	 */
+	@RestResource(exported=false)
+	public List<TroubleCase> findByCaseManagementSystemAndCaseTypeAndReceiptNumberStartingWithOrderByReceiptNumber(
+			CaseManagementSystem caseManager, CaseType caseType, String receiptNumberPrefix, Pageable pageable);
+
+	/** Receipt numbers containing the search string: on PostgreSQL, served by ix__trouble_case__receipt_trigram. */
+	@RestResource(exported=false)
+	public List<TroubleCase> findByCaseManagementSystemAndCaseTypeAndReceiptNumberContainingOrderByReceiptNumber(
+			CaseManagementSystem caseManager, CaseType caseType, String receiptNumberFragment, Pageable pageable);
 
-	public Optional<TroubleCase> findByCaseManagementSystemAndReceiptNumber(CaseManagementSystem caseManager, String receiptNumber);
+	public Page<TroubleCase> getAllByCaseManagementSystemAndCaseType(CaseManagementSystem caseManager, CaseType caseType, Pageable pageable);
 
 	@Lock(LockModeType.PESSIMISTIC_WRITE) // might need to be more aggressive when postgresql table-level LOCK is available
 	public Collection<TroubleCase> getAllByCaseManagementSystemAndReceiptNumberIn(CaseManagementSystem caseManager,
 			@Size(max=MAX_INLIST_SIZE, message=INLIST_SIZE_MESSAGE) Collection<String> receiptNumbers);
 
+	/** Read (without locking) the cases with the given receipt numbers, for the bulk case details lookup. */
+	@Query("select c from #{#entityName} c join fetch c.caseType "
+			+ "where c.caseManagementSystem = :caseManagementSystem and c.receiptNumber in :receiptNumbers")
+	@RestResource(exported=false)
+	public List<TroubleCase> findAllForDetails(@Param("caseManagementSystem") CaseManagementSystem caseManager,
+			@Param("receiptNumbers") @Size(max=MAX_INLIST_SIZE, message=INLIST_SIZE_MESSAGE) Collection<String> receiptNumbers);
+
 	@Query(ACTIVE_CASE_QUERY)
 	public Page<TroubleCase> getWithOpenIssues(CaseManagementSystem caseManagementSystem, CaseType caseType, Pageable pageable);
 
-	@Query(ACTIVE_CASE_QUERY + " and not " + ACTIVE_SNOOZE_CLAUSE)
+	@Query(ACTIVE_CASE_QUERY + " and (c.lastSnoozeEnd is null or not " + ACTIVE_SNOOZE_CLAUSE + ")")
 	public Page<TroubleCase> getAwakeWithOpenIssues(CaseManagementSystem caseManagementSystem, CaseType caseType, Pageable pageable);
 
 	// we will want to fetch the snooze info in a join: need to figure out how DTO works
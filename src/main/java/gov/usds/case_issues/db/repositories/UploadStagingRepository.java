@@ -0,0 +1,121 @@
+package gov.usds.case_issues.db.repositories;
+
+import java.util.List;
+
+import org.springframework.data.rest.core.annotation.RestResource;
+import org.springframework.transaction.annotation.Transactional;
+
+import gov.usds.case_issues.db.model.CaseIssueUpload;
+import gov.usds.case_issues.model.CaseRequest;
+
+/**
+ * Repository fragment for applying an issue upload with set-based SQL. The upload's records are first staged
+ * (in the <code>case_issue_upload_receipt</code> table) as they are read, and once they have all been staged the
+ * changes to cases and issues are each made by a single statement, rather than a statement per entity.
+ * Where a receipt number is repeated in an upload, the last record for it (by chunk number, then by
+ * position in the chunk) is the one that counts. In a delta upload, that record may ask for the issue to be
+ * closed rather than opened.
+ * <p>
+ * The statements bypass the persistence context entirely, and maintain {@link gov.usds.case_issues.db.model.TroubleCase}
+ * open issue counts and audit columns themselves.
+ */
+public interface UploadStagingRepository {
+
+	/**
+	 * Stage a batch of records from the upload.
+	 * @param chunkNumber the chunk of the upload the records arrived in (zero for an upload sent all at once).
+	 * @param firstRecordNumber the position in the chunk of the first record in the batch.
+	 */
+	@Transactional
+	@RestResource(exported=false)
+	public void stageRecords(CaseIssueUpload upload, long chunkNumber, long firstRecordNumber, List<? extends CaseRequest> records);
+
+	/** Delete the records staged for one chunk of the upload, so that the chunk can be staged again. */
+	@Transactional
+	@RestResource(exported=false)
+	public int clearStagedChunk(CaseIssueUpload upload, long chunkNumber);
+
+	/** Count the records staged by the upload (including any repeated receipt numbers). */
+	@Transactional(readOnly=true)
+	@RestResource(exported=false)
+	public long countStagedRecords(CaseIssueUpload upload);
+
+	/** List the chunks of the upload that have staged records, in order. */
+	@Transactional(readOnly=true)
+	@RestResource(exported=false)
+	public List<Long> findStagedChunkNumbers(CaseIssueUpload upload);
+
+	/**
+	 * Bring the database's statistics for the staging table up to date, where it keeps them (PostgreSQL), before
+	 * staged records are applied. The table fills and empties with every upload, so otherwise the statements that
+	 * apply them would be planned for whatever it held when it was last analyzed: typically nothing, which turns
+	 * the checks for repeated receipt numbers into nested loops over every staged record.
+	 */
+	@Transactional
+	@RestResource(exported=false)
+	public void analyzeStagingTable();
+
+	/**
+	 * Close the open issues of the upload's issue type, on cases of its case management system and case type, whose
+	 * receipt numbers were not staged by the upload.
+	 * @return the number of issues closed.
+	 */
+	@Transactional
+	@RestResource(exported=false)
+	public int closeUnstagedIssues(CaseIssueUpload upload);
+
+	/**
+	 * Close the open issues of the upload's issue type, on cases of its case management system and case type, whose
+	 * last staged record asks for the issue to be closed (as only a delta upload can). The open issue counts of the
+	 * cases are left for {@link #updateStagedCases} to correct.
+	 * @return the number of issues closed.
+	 */
+	@Transactional
+	@RestResource(exported=false)
+	public int closeStagedIssues(CaseIssueUpload upload);
+
+	/**
+	 * Create cases for the staged receipt numbers that do not have one yet (unless they are only to be closed).
+	 * @return the number of cases created.
+	 */
+	@Transactional
+	@RestResource(exported=false)
+	public int createStagedCases(CaseIssueUpload upload);
+
+	/**
+	 * Open an issue of the upload's issue type on each staged case that does not have one open already (unless its
+	 * last staged record asks for the issue to be closed).
+	 * @return the number of issues opened.
+	 */
+	@Transactional
+	@RestResource(exported=false)
+	public int openStagedIssues(CaseIssueUpload upload);
+
+	/**
+	 * Merge the staged extra data into each staged case, and bring its open issue count up to date. Cases whose
+	 * staged extra data is empty, or is the same as the extra data last merged into them (going by its stored hash,
+	 * so that the JSON need not be read), are left alone unless their open issue count has changed.
+	 * @return the number of cases whose extra data was updated.
+	 */
+	@Transactional
+	@RestResource(exported=false)
+	public int updateStagedCases(CaseIssueUpload upload);
+
+	/**
+	 * Count the staged cases that already exist and whose extra data {@link #updateStagedCases} would leave alone.
+	 * (Cases created for the upload are counted too, if this is called after {@link #createStagedCases}).
+	 */
+	@Transactional(readOnly=true)
+	@RestResource(exported=false)
+	public long countUnchangedStagedCases(CaseIssueUpload upload);
+
+	/** Count the staged cases that already exist with a different case type from the upload's. */
+	@Transactional(readOnly=true)
+	@RestResource(exported=false)
+	public long countStagedCasesOfOtherTypes(CaseIssueUpload upload);
+
+	/** Delete the records staged by the upload. */
+	@Transactional
+	@RestResource(exported=false)
+	public int clearStagedRecords(CaseIssueUpload upload);
+}
@@ -0,0 +1,365 @@
+package gov.usds.case_issues.db.repositories;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TemporalType;
+
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.PostgreSQL81Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.BooleanType;
+import org.hibernate.type.StringType;
+import org.hibernate.type.ZonedDateTimeType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.AuditorAware;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import gov.usds.case_issues.db.model.CaseIssueUpload;
+import gov.usds.case_issues.db.model.WriteOnceEntity;
+import gov.usds.case_issues.model.CaseRequest;
+
+/**
+ * Implementation of {@link UploadStagingRepository} with native SQL. Records are staged with one multi-row insert
+ * per chunk rather than a statement per record. New cases and issues take their IDs from blocks reserved from the
+ * entity ID sequence, just as Hibernate's are, with one sequence value for every block of rows an insert needs.
+ * <p>
+ * Every statement declares the tables it changes as its query spaces, so that Hibernate only invalidates the
+ * second-level cache regions for those tables (an undeclared native update could touch any table, so it would
+ * empty the whole cache).
+ */
+public class UploadStagingRepositoryImpl implements UploadStagingRepository {
+
+	private static final ObjectMapper EXTRA_DATA_MAPPER = new ObjectMapper()
+		.enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+	private static final String EXTRA_DATA_HASH_ALGORITHM = "SHA-256";
+
+	private static final String STAGING_TABLE = "case_issue_upload_receipt";
+	private static final String CASE_TABLE = "trouble_case";
+	private static final String ISSUE_TABLE = "case_issue";
+	private static final String ID_SEQUENCE = "case_issue_entity_id_sequence";
+	private static final int ID_BLOCK_SIZE = WriteOnceEntity.ID_ALLOCATION_SIZE;
+
+	private static final String UPLOAD_ID = "uploadId";
+	private static final String CASE_MANAGEMENT_SYSTEM_ID = "caseManagementSystemId";
+	private static final String CASE_TYPE_ID = "caseTypeId";
+	private static final String ISSUE_TYPE = "issueType";
+	private static final String EFFECTIVE_DATE = "effectiveDate";
+	private static final String CHUNK_NUMBER = "chunkNumber";
+	private static final String NOW = "now";
+	private static final String USER = "user";
+
+	private static final String INSERT_STEM =
+		"INSERT INTO {h-schema}case_issue_upload_receipt "
+		+ "(upload_internal_id, chunk_number, record_number, receipt_number, case_creation, extra_data, extra_data_hash, closing) VALUES ";
+	private static final String IS_STAGED =
+		" EXISTS (SELECT 1 FROM {h-schema}case_issue_upload_receipt s "
+		+ "  WHERE s.upload_internal_id = :uploadId AND s.receipt_number = c.receipt_number) ";
+	private static final String IS_LAST_STAGED =
+		" NOT EXISTS (SELECT 1 FROM {h-schema}case_issue_upload_receipt later "
+		+ "  WHERE later.upload_internal_id = s.upload_internal_id AND later.receipt_number = s.receipt_number "
+		+ "  AND (later.chunk_number > s.chunk_number "
+		+ "    OR later.chunk_number = s.chunk_number AND later.record_number > s.record_number)) ";
+	private static final String IS_LAST_STAGED_OPENING =
+		" EXISTS (SELECT 1 FROM {h-schema}case_issue_upload_receipt s "
+		+ "  WHERE s.upload_internal_id = :uploadId AND s.receipt_number = c.receipt_number AND s.closing = FALSE "
+		+ "  AND" + IS_LAST_STAGED + ") ";
+	private static final String IS_LAST_STAGED_CLOSING =
+		" EXISTS (SELECT 1 FROM {h-schema}case_issue_upload_receipt s "
+		+ "  WHERE s.upload_internal_id = :uploadId AND s.receipt_number = c.receipt_number AND s.closing = TRUE "
+		+ "  AND" + IS_LAST_STAGED + ") ";
+	private static final String LAST_STAGED_RECORD =
+		" FROM {h-schema}case_issue_upload_receipt s "
+		+ "  WHERE s.upload_internal_id = :uploadId AND s.receipt_number = c.receipt_number AND" + IS_LAST_STAGED;
+	/** True for a case whose last staged record has extra data that was not the last merged into it. */
+	private static final String HAS_NEW_EXTRA_DATA =
+		" EXISTS (SELECT 1" + LAST_STAGED_RECORD
+		+ "  AND s.extra_data_hash IS NOT NULL "
+		+ "  AND (c.extra_data_hash IS NULL OR c.extra_data_hash <> s.extra_data_hash)) ";
+	private static final String OPEN_ISSUE_COUNT =
+		"(SELECT COUNT(*) FROM {h-schema}case_issue i WHERE i.issue_case_internal_id = c.internal_id AND i.issue_closed IS NULL)";
+	private static final String OPEN_ISSUE_OF_TYPE =
+		" FROM {h-schema}case_issue i WHERE i.issue_case_internal_id = c.internal_id "
+		+ "  AND i.issue_type = :issueType AND i.issue_closed IS NULL";
+	private static final String UNSTAGED_CASES_OF_TYPE =
+		" c.case_management_system_internal_id = :caseManagementSystemId AND c.case_type_internal_id = :caseTypeId "
+		+ "AND NOT" + IS_STAGED;
+	private static final String AUDIT_UPDATE = " updated_at = :now, updated_by = :user ";
+
+	private static final String CLOSING_CASE_UPDATE =
+		"UPDATE {h-schema}trouble_case c SET open_issue_count = open_issue_count - (SELECT COUNT(*)" + OPEN_ISSUE_OF_TYPE + "), "
+		+ AUDIT_UPDATE
+		+ "WHERE" + UNSTAGED_CASES_OF_TYPE + "AND EXISTS (SELECT 1" + OPEN_ISSUE_OF_TYPE + ")";
+	private static final String CLOSING_ISSUE_UPDATE =
+		"UPDATE {h-schema}case_issue SET issue_closed = :effectiveDate, " + AUDIT_UPDATE
+		+ "WHERE issue_type = :issueType AND issue_closed IS NULL "
+		+ "AND issue_case_internal_id IN (SELECT c.internal_id FROM {h-schema}trouble_case c WHERE" + UNSTAGED_CASES_OF_TYPE + ")";
+	private static final String CLOSING_STAGED_ISSUE_UPDATE =
+		"UPDATE {h-schema}case_issue SET issue_closed = :effectiveDate, " + AUDIT_UPDATE
+		+ "WHERE issue_type = :issueType AND issue_closed IS NULL "
+		+ "AND issue_case_internal_id IN (SELECT c.internal_id FROM {h-schema}trouble_case c "
+		+ "  WHERE c.case_management_system_internal_id = :caseManagementSystemId AND c.case_type_internal_id = :caseTypeId "
+		+ "  AND" + IS_LAST_STAGED_CLOSING + ")";
+	/** The last staged record for each receipt number that needs a new case. */
+	private static final String NEW_CASE_RECORDS =
+		" FROM {h-schema}case_issue_upload_receipt s "
+		+ "WHERE s.upload_internal_id = :uploadId AND s.closing = FALSE AND" + IS_LAST_STAGED
+		+ "AND NOT EXISTS (SELECT 1 FROM {h-schema}trouble_case c "
+		+ "  WHERE c.case_management_system_internal_id = :caseManagementSystemId AND c.receipt_number = s.receipt_number)";
+	private static final String CASE_INSERT =
+		"INSERT INTO {h-schema}trouble_case (internal_id, created_at, created_by, updated_at, updated_by, "
+		+ "case_management_system_internal_id, case_type_internal_id, receipt_number, case_creation, extra_data, extra_data_hash, "
+		+ "open_issue_count) "
+		+ "SELECT %s, :now, :user, :now, :user, :caseManagementSystemId, :caseTypeId, "
+		+ "n.receipt_number, n.case_creation, n.extra_data, n.extra_data_hash, 0 "
+		+ "FROM (SELECT s.receipt_number, s.case_creation, s.extra_data, s.extra_data_hash, ROW_NUMBER() OVER () AS row_index"
+		+ NEW_CASE_RECORDS + ") n";
+	/** The staged cases that need a new issue of the upload's type. */
+	private static final String NEW_ISSUE_CASES =
+		" FROM {h-schema}trouble_case c "
+		+ "WHERE c.case_management_system_internal_id = :caseManagementSystemId AND" + IS_LAST_STAGED_OPENING
+		+ "AND NOT EXISTS (SELECT 1" + OPEN_ISSUE_OF_TYPE + ")";
+	private static final String ISSUE_INSERT =
+		"INSERT INTO {h-schema}case_issue (internal_id, created_at, created_by, updated_at, updated_by, "
+		+ "issue_case_internal_id, issue_type, issue_created) "
+		+ "SELECT %s, :now, :user, :now, :user, n.internal_id, :issueType, :effectiveDate "
+		+ "FROM (SELECT c.internal_id, ROW_NUMBER() OVER () AS row_index" + NEW_ISSUE_CASES + ") n";
+	/** Takes a value from the ID sequence for each row returned (there is a staged record for every new row). */
+	private static final String ID_BLOCK_RESERVATION =
+		"SELECT %s FROM {h-schema}case_issue_upload_receipt WHERE upload_internal_id = :uploadId";
+	private static final String STAGED_CASE_UPDATE =
+		"UPDATE {h-schema}trouble_case c SET "
+		+ "extra_data = extra_data_merge(c.extra_data, (SELECT s.extra_data" + LAST_STAGED_RECORD + ")), "
+		+ "extra_data_hash = (SELECT s.extra_data_hash" + LAST_STAGED_RECORD + "), "
+		+ "open_issue_count = " + OPEN_ISSUE_COUNT + ", "
+		+ AUDIT_UPDATE
+		+ "WHERE c.case_management_system_internal_id = :caseManagementSystemId AND" + HAS_NEW_EXTRA_DATA;
+	private static final String STAGED_CASE_RECOUNT =
+		"UPDATE {h-schema}trouble_case c SET open_issue_count = " + OPEN_ISSUE_COUNT + ", " + AUDIT_UPDATE
+		+ "WHERE c.case_management_system_internal_id = :caseManagementSystemId AND" + IS_STAGED
+		+ "AND open_issue_count <> " + OPEN_ISSUE_COUNT;
+	private static final String UNCHANGED_CASE_COUNT =
+		"SELECT COUNT(*) FROM {h-schema}trouble_case c "
+		+ "WHERE c.case_management_system_internal_id = :caseManagementSystemId AND" + IS_STAGED
+		+ "AND NOT" + HAS_NEW_EXTRA_DATA;
+	private static final String OTHER_TYPE_COUNT =
+		"SELECT COUNT(*) FROM {h-schema}trouble_case c "
+		+ "WHERE c.case_management_system_internal_id = :caseManagementSystemId AND c.case_type_internal_id <> :caseTypeId "
+		+ "AND" + IS_STAGED;
+	private static final String STAGED_DELETE =
+		"DELETE FROM {h-schema}case_issue_upload_receipt WHERE upload_internal_id = :uploadId";
+	private static final String STAGED_CHUNK_DELETE = STAGED_DELETE + " AND chunk_number = :chunkNumber";
+	private static final String STAGING_ANALYZE = "ANALYZE {h-schema}case_issue_upload_receipt";
+	private static final String STAGED_COUNT =
+		"SELECT COUNT(*) FROM {h-schema}case_issue_upload_receipt WHERE upload_internal_id = :uploadId";
+	private static final String STAGED_CHUNKS =
+		"SELECT DISTINCT chunk_number FROM {h-schema}case_issue_upload_receipt WHERE upload_internal_id = :uploadId "
+		+ "ORDER BY chunk_number";
+
+	@Autowired
+	private EntityManager _entityManager;
+	@Autowired
+	private AuditorAware<String> _auditor;
+
+	@Override
+	public void stageRecords(CaseIssueUpload upload, long chunkNumber, long firstRecordNumber, List<? extends CaseRequest> records) {
+		if (records.isEmpty()) {
+			return;
+		}
+		StringBuilder sql = new StringBuilder(INSERT_STEM);
+		for (int i = 0; i < records.size(); i++) {
+			sql.append(i == 0 ? "" : ", ")
+				.append(String.format("(:uploadId, :chunkNumber, :n%1$d, :r%1$d, :c%1$d, :x%1$d, :h%1$d, :k%1$d)", i));
+		}
+		NativeQuery<?> insert = uploadStatement(sql.toString(), upload, STAGING_TABLE);
+		insert.setParameter(CHUNK_NUMBER, chunkNumber);
+		for (int i = 0; i < records.size(); i++) {
+			CaseRequest record = records.get(i);
+			String extraData = toJson(record);
+			insert.setParameter("n" + i, firstRecordNumber + i)
+				.setParameter("r" + i, record.getReceiptNumber())
+				.setParameter("c" + i, record.getCaseCreation(), ZonedDateTimeType.INSTANCE) // typed, since it is null for closing records
+				.setParameter("x" + i, extraData, StringType.INSTANCE)
+				.setParameter("h" + i, record.getExtraData().isEmpty() ? null : hash(extraData), StringType.INSTANCE)
+				.setParameter("k" + i, record.isClosing(), BooleanType.INSTANCE);
+		}
+		insert.executeUpdate();
+	}
+
+	@Override
+	public void analyzeStagingTable() {
+		if (dialect() instanceof PostgreSQL81Dialect) {
+			_entityManager.createNativeQuery(STAGING_ANALYZE).unwrap(NativeQuery.class)
+				.addSynchronizedQuerySpace(STAGING_TABLE)
+				.executeUpdate();
+		}
+	}
+
+	@Override
+	public int closeUnstagedIssues(CaseIssueUpload upload) {
+		uploadStatement(CLOSING_CASE_UPDATE, upload, CASE_TABLE).executeUpdate();
+		return uploadStatement(CLOSING_ISSUE_UPDATE, upload, ISSUE_TABLE).executeUpdate();
+	}
+
+	@Override
+	public int closeStagedIssues(CaseIssueUpload upload) {
+		return uploadStatement(CLOSING_STAGED_ISSUE_UPDATE, upload, ISSUE_TABLE).executeUpdate();
+	}
+
+	@Override
+	public int createStagedCases(CaseIssueUpload upload) {
+		return insertNumberedRows(NEW_CASE_RECORDS, CASE_INSERT, upload, CASE_TABLE);
+	}
+
+	@Override
+	public int openStagedIssues(CaseIssueUpload upload) {
+		return insertNumberedRows(NEW_ISSUE_CASES, ISSUE_INSERT, upload, ISSUE_TABLE);
+	}
+
+	@Override
+	public int updateStagedCases(CaseIssueUpload upload) {
+		int updated = uploadStatement(STAGED_CASE_UPDATE, upload, CASE_TABLE).executeUpdate();
+		uploadStatement(STAGED_CASE_RECOUNT, upload, CASE_TABLE).executeUpdate();
+		return updated;
+	}
+
+	@Override
+	public long countUnchangedStagedCases(CaseIssueUpload upload) {
+		return ((Number) uploadStatement(UNCHANGED_CASE_COUNT, upload).getSingleResult()).longValue();
+	}
+
+	@Override
+	public long countStagedCasesOfOtherTypes(CaseIssueUpload upload) {
+		return ((Number) uploadStatement(OTHER_TYPE_COUNT, upload).getSingleResult()).longValue();
+	}
+
+	@Override
+	public int clearStagedRecords(CaseIssueUpload upload) {
+		return uploadStatement(STAGED_DELETE, upload, STAGING_TABLE).executeUpdate();
+	}
+
+	@Override
+	public int clearStagedChunk(CaseIssueUpload upload, long chunkNumber) {
+		return uploadStatement(STAGED_CHUNK_DELETE, upload, STAGING_TABLE)
+			.setParameter(CHUNK_NUMBER, chunkNumber)
+			.executeUpdate();
+	}
+
+	@Override
+	public long countStagedRecords(CaseIssueUpload upload) {
+		return ((Number) uploadStatement(STAGED_COUNT, upload).getSingleResult()).longValue();
+	}
+
+	@Override
+	public List<Long> findStagedChunkNumbers(CaseIssueUpload upload) {
+		List<?> chunks = uploadStatement(STAGED_CHUNKS, upload).getResultList();
+		return chunks.stream().map(c -> ((Number) c).longValue()).collect(Collectors.toList());
+	}
+
+	/**
+	 * Create a native statement, with whichever of the standard parameters for the upload (and for auditing)
+	 * that it uses already bound.
+	 * @param querySpaces the tables the statement changes, if any.
+	 */
+	private NativeQuery<?> uploadStatement(String sql, CaseIssueUpload upload, String... querySpaces) {
+		NativeQuery<?> query = _entityManager.createNativeQuery(sql).unwrap(NativeQuery.class);
+		for (String space : querySpaces) {
+			query.addSynchronizedQuerySpace(space);
+		}
+		bindIfUsed(query, sql, UPLOAD_ID, upload.getInternalId());
+		bindIfUsed(query, sql, CASE_MANAGEMENT_SYSTEM_ID, upload.getCaseManagementSystem().getInternalId());
+		bindIfUsed(query, sql, CASE_TYPE_ID, upload.getCaseType().getInternalId());
+		bindIfUsed(query, sql, ISSUE_TYPE, upload.getIssueType());
+		bindIfUsed(query, sql, EFFECTIVE_DATE, upload.getEffectiveDate());
+		if (sql.contains(":" + NOW)) {
+			query.setParameter(NOW, new Date(), TemporalType.TIMESTAMP);
+			query.setParameter(USER, _auditor.getCurrentAuditor().orElse(null), StringType.INSTANCE);
+		}
+		return query;
+	}
+
+	private static void bindIfUsed(NativeQuery<?> query, String sql, String name, Object value) {
+		if (sql.contains(":" + name)) {
+			query.setParameter(name, value);
+		}
+	}
+
+	private String nextId() {
+		return dialect().getSelectSequenceNextValString(ID_SEQUENCE);
+	}
+
+	private Dialect dialect() {
+		return _entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+	}
+
+	/**
+	 * Insert the rows selected by an insert statement, numbering them from blocks of IDs reserved for the statement.
+	 * A value of the ID sequence stands for the {@link WriteOnceEntity#ID_ALLOCATION_SIZE} IDs starting with it, just
+	 * as it does for Hibernate, so one value is taken for each block of rows rather than for each row.
+	 * @param candidates the FROM and WHERE clauses that select the new rows.
+	 * @param insertSql the insert, with a placeholder for the ID of the row numbered {@code n.row_index}.
+	 */
+	private int insertNumberedRows(String candidates, String insertSql, CaseIssueUpload upload, String table) {
+		long rowCount = ((Number) uploadStatement("SELECT COUNT(*)" + candidates, upload).getSingleResult()).longValue();
+		if (rowCount == 0) {
+			return 0;
+		}
+		int blockCount = (int) ((rowCount + ID_BLOCK_SIZE - 1) / ID_BLOCK_SIZE);
+		List<?> blockStarts = uploadStatement(String.format(ID_BLOCK_RESERVATION, nextId()), upload)
+			.setMaxResults(blockCount)
+			.getResultList();
+		if (blockStarts.size() != blockCount) {
+			throw new IllegalStateException("Reserved " + blockStarts.size() + " blocks of IDs for " + rowCount + " rows");
+		}
+		return uploadStatement(String.format(insertSql, idExpression(blockStarts, rowCount)), upload, table).executeUpdate();
+	}
+
+	/**
+	 * The ID for each numbered row, from its block: consecutive blocks (the usual case, unless another session took
+	 * a value from the sequence while they were being reserved) share a single branch. Rows numbered past the end
+	 * of the last block get no ID, so they fail the insert rather than take an ID that was not reserved.
+	 */
+	private static String idExpression(List<?> blockStarts, long rowCount) {
+		StringBuilder expression = new StringBuilder("CASE");
+		for (int block = 0; block < blockStarts.size(); block++) {
+			long runStart = ((Number) blockStarts.get(block)).longValue();
+			int runFirstBlock = block;
+			while (block + 1 < blockStarts.size()
+					&& ((Number) blockStarts.get(block + 1)).longValue() == runStart + (block + 1L - runFirstBlock) * ID_BLOCK_SIZE) {
+				block++;
+			}
+			long runLastRow = Math.min((block + 1L) * ID_BLOCK_SIZE, rowCount);
+			long offset = runStart - 1 - (long) runFirstBlock * ID_BLOCK_SIZE;
+			expression.append(String.format(" WHEN n.row_index <= %d THEN n.row_index + %d", runLastRow, offset));
+		}
+		return expression.append(" END").toString();
+	}
+
+	/** A digest of a record's extra data: the same extra data always gives the same JSON, since map keys are sorted. */
+	private static String hash(String extraDataJson) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance(EXTRA_DATA_HASH_ALGORITHM);
+			return Base64.getEncoder().encodeToString(digest.digest(extraDataJson.getBytes(StandardCharsets.UTF_8)));
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("Unable to hash extra data", e);
+		}
+	}
+
+	private static String toJson(CaseRequest record) {
+		try {
+			return EXTRA_DATA_MAPPER.writeValueAsString(record.getExtraData());
+		} catch (JsonProcessingException e) {
+			throw new IllegalArgumentException("Unable to serialize extra data for " + record.getReceiptNumber(), e);
+		}
+	}
+}
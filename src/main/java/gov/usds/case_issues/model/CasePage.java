@@ -0,0 +1,28 @@
+package gov.usds.case_issues.model;
+
+import java.util.List;
+
+/**
+ * A page of {@link CaseSummary} objects from one of the hit lists, along with the opaque cursor
+ * that can be used to request the page that follows it.
+ */
+public class CasePage {
+
+	private List<CaseSummary> cases;
+	private String nextCursor;
+
+	public CasePage(List<CaseSummary> cases, String nextCursor) {
+		super();
+		this.cases = cases;
+		this.nextCursor = nextCursor;
+	}
+
+	public List<CaseSummary> getCases() {
+		return cases;
+	}
+
+	/** The cursor for the next page, or null if this page was empty. */
+	public String getNextCursor() {
+		return nextCursor;
+	}
+}
@@ -11,4 +11,12 @@ public interface CaseRequest {
 
 	Map<String, Object> getExtraData();
 
+	/**
+	 * Whether this record asks for the case's issue to be closed, rather than opened. Only a delta upload
+	 * can close issues this way; the case creation date of a closing record may be null.
+	 */
+	default boolean isClosing() {
+		return false;
+	}
+
 }
\ No newline at end of file
@@ -8,21 +8,22 @@ import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 
 import gov.usds.case_issues.db.model.TroubleCase;
 import gov.usds.case_issues.db.model.projections.CaseSnoozeSummary;
+import gov.usds.case_issues.db.model.projections.HitlistCase;
 
 /**
  * API container for the information we will return about each case in a list of either active
  * or snoozed cases. Exposes summary information about the {@link TroubleCase}, summary information
  * about the most recent CaseSnooze applied to it, and a flag to indicate if this is a
  * previously-snoozed case (a shortcut for checking for snooze information and then checking if the
- * snooze has expired).
+ * snooze has expired). Built from a {@link HitlistCase} row rather than the entity itself, and immutable.
  */
-public class CaseSummary implements CaseRequest {
+public final class CaseSummary implements CaseRequest {
 
-	private TroubleCase rootCase;
-	private CaseSnoozeSummary snoozeSummary;
-	private List<NoteSummary> notes;
+	private final HitlistCase rootCase;
+	private final CaseSnoozeSummary snoozeSummary;
+	private final List<NoteSummary> notes;
 
-	public CaseSummary(TroubleCase rootCase, CaseSnoozeSummary summary, List<NoteSummary> notes) {
+	public CaseSummary(HitlistCase rootCase, CaseSnoozeSummary summary, List<NoteSummary> notes) {
 		super();
 		this.rootCase = rootCase;
 		this.snoozeSummary = summary;
@@ -0,0 +1,19 @@
+package gov.usds.case_issues.model;
+
+/**
+ * Thrown when a record in an issue upload cannot be read as a {@link CaseRequest}. Uploads are read while they
+ * are being applied, so this can happen well after the upload has started: the whole upload is rejected,
+ * and nothing it had already applied is kept.
+ */
+public class InvalidUploadException extends IllegalArgumentException {
+
+	private static final long serialVersionUID = 1L;
+
+	public InvalidUploadException(String message) {
+		super(message);
+	}
+
+	public InvalidUploadException(String message, Throwable cause) {
+		super(message, cause);
+	}
+}
@@ -0,0 +1,94 @@
+package gov.usds.case_issues.model;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import gov.usds.case_issues.db.model.CaseIssueUpload;
+import gov.usds.case_issues.db.model.UploadStatus;
+
+/**
+ * The state of an issue upload, for a client waiting for it to be applied. While the upload is running the
+ * record counts show how far it has got: its records are read and checked, then staged in the database, and then
+ * applied all at once. Once it has finished the counts are all the number of records in the upload. While an upload
+ * sent in chunks is still open, the parsed and staged counts are the number of records staged so far, and the chunks
+ * received are listed. An upload that is running on another instance (or that was cut off when an instance stopped)
+ * shows no progress at all, since its counts are only known to the instance running it.
+ */
+public class UploadProgress {
+
+	private CaseIssueUpload upload;
+	private long parsedRecordCount;
+	private long stagedRecordCount;
+	private long appliedRecordCount;
+	private List<Long> stagedChunks;
+
+	public UploadProgress(CaseIssueUpload upload, long parsedRecordCount, long stagedRecordCount, long appliedRecordCount) {
+		this(upload, parsedRecordCount, stagedRecordCount, appliedRecordCount, null);
+	}
+
+	public UploadProgress(CaseIssueUpload upload, long parsedRecordCount, long stagedRecordCount, long appliedRecordCount,
+			List<Long> stagedChunks) {
+		super();
+		this.upload = upload;
+		this.parsedRecordCount = parsedRecordCount;
+		this.stagedRecordCount = stagedRecordCount;
+		this.appliedRecordCount = appliedRecordCount;
+		this.stagedChunks = stagedChunks;
+	}
+
+	public Long getUploadId() {
+		return upload.getInternalId();
+	}
+
+	public String getIssueType() {
+		return upload.getIssueType();
+	}
+
+	public ZonedDateTime getEffectiveDate() {
+		return upload.getEffectiveDate();
+	}
+
+	public UploadStatus getUploadStatus() {
+		return upload.getUploadStatus();
+	}
+
+	/** The number of records read from the upload and checked. */
+	public long getParsedRecordCount() {
+		return parsedRecordCount;
+	}
+
+	/** The number of records written to the staging table so far. */
+	public long getStagedRecordCount() {
+		return stagedRecordCount;
+	}
+
+	/**
+	 * The number of records whose changes have been made. The staged records are applied all together, so this stays
+	 * at zero until they all have been, and none of the changes are visible in the hit lists until the upload has
+	 * finished successfully.
+	 */
+	public long getAppliedRecordCount() {
+		return appliedRecordCount;
+	}
+
+	/** The numbers of the chunks received so far, for an upload that is still open (and null otherwise). */
+	public List<Long> getStagedChunks() {
+		return stagedChunks;
+	}
+
+	public Long getNewIssueCount() {
+		return upload.getNewIssueCount();
+	}
+
+	public Long getClosedIssueCount() {
+		return upload.getClosedIssueCount();
+	}
+
+	public Long getUpdatedCaseCount() {
+		return upload.getUpdatedCaseCount();
+	}
+
+	public Long getUnchangedCaseCount() {
+		return upload.getUnchangedCaseCount();
+	}
+}
@@ -0,0 +1,14 @@
+package gov.usds.case_issues.model;
+
+/**
+ * Thrown when an issue upload cannot be accepted because as many uploads as are allowed are already waiting
+ * to be applied. Nothing is kept from the upload, so it can simply be tried again later.
+ */
+public class UploadsBusyException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	public UploadsBusyException() {
+		super("Too many issue uploads are waiting to be applied: try again later");
+	}
+}
@@ -1,7 +1,10 @@
 package gov.usds.case_issues.services;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -57,4 +60,15 @@ public class CaseAttachmentService {
 	public List<CaseAttachmentAssociation> findNotesForCase(TroubleCase rootCase) {
 		return _associationRepository.findAllBySnoozeSnoozeCaseOrderByUpdatedAtAsc(rootCase);
 	}
+
+	/**
+	 * Find the notes for a batch of cases at once.
+	 * @param caseIds the internal IDs of the cases.
+	 * @return the notes for each case that has any, keyed by case internal ID and in the same order as
+	 *     {@link #findNotesForCase(TroubleCase)} would return them.
+	 */
+	public Map<Long, List<CaseAttachmentAssociation>> findNotesForCases(Collection<Long> caseIds) {
+		return _associationRepository.findAllForCases(caseIds).stream()
+			.collect(Collectors.groupingBy(a -> a.getSnooze().getSnoozeCase().getInternalId()));
+	}
 }
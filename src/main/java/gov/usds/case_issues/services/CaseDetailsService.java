@@ -2,8 +2,15 @@ package gov.usds.case_issues.services;
 
 import java.time.ZonedDateTime;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import javax.validation.Valid;
@@ -12,6 +19,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import gov.usds.case_issues.db.model.CaseAttachmentAssociation;
+import gov.usds.case_issues.db.model.CaseIssue;
 import gov.usds.case_issues.db.model.CaseManagementSystem;
 import gov.usds.case_issues.db.model.CaseSnooze;
 import gov.usds.case_issues.db.model.TroubleCase;
@@ -20,6 +29,7 @@ import gov.usds.case_issues.db.model.projections.CaseSnoozeSummary;
 import gov.usds.case_issues.db.repositories.CaseIssueRepository;
 import gov.usds.case_issues.db.repositories.CaseManagementSystemRepository;
 import gov.usds.case_issues.db.repositories.CaseSnoozeRepository;
+import gov.usds.case_issues.db.repositories.InListChunks;
 import gov.usds.case_issues.db.repositories.TroubleCaseRepository;
 import gov.usds.case_issues.model.ApiModelNotFoundException;
 import gov.usds.case_issues.model.CaseDetails;
@@ -46,6 +56,8 @@ public class CaseDetailsService {
 	private CaseIssueRepository _issueRepo;
 	@Autowired
 	private CaseAttachmentService _attachmentService;
+	@Autowired
+	private CaseSummaryRollupService _rollupService;
 
 	public TroubleCase findCaseByTags(String caseManagementSystemTag, String receiptNumber) {
 		CaseManagementSystem caseManagementSystem = _caseManagementSystemRepo.findByExternalId(caseManagementSystemTag)
@@ -74,6 +86,44 @@ public class CaseDetailsService {
 		return new CaseDetails(mainCase, issues, snoozes, notes);
 	}
 
+	/**
+	 * Find all details about a batch of cases at once. This runs a fixed number of queries for each chunk of
+	 * {@link InListChunks#DEFAULT_CHUNK_SIZE} receipt numbers, however many cases are requested.
+	 * @param caseManagementSystemTag
+	 * @param receiptNumbers
+	 * @return the details of the requested cases that exist, in the order they were requested (receipt
+	 *     numbers that are not found are left out, and duplicates are only returned once).
+	 */
+	public List<CaseDetails> findCaseDetails(String caseManagementSystemTag, Collection<String> receiptNumbers) {
+		if (receiptNumbers == null) {
+			throw new IllegalArgumentException("A list of receipt numbers is required.");
+		}
+		CaseManagementSystem caseManagementSystem = _caseManagementSystemRepo.findByExternalId(caseManagementSystemTag)
+				.orElseThrow(()->new ApiModelNotFoundException("Case Management System", caseManagementSystemTag));
+		Set<String> requested = new LinkedHashSet<>(receiptNumbers);
+		Map<String, TroubleCase> cases = InListChunks.query(requested, chunk -> _caseRepo.findAllForDetails(caseManagementSystem, chunk))
+			.stream()
+			.collect(Collectors.toMap(TroubleCase::getReceiptNumber, Function.identity()));
+		List<Long> caseIds = cases.values().stream().map(TroubleCase::getInternalId).collect(Collectors.toList());
+		Map<Long, List<CaseIssue>> issues = InListChunks.query(caseIds, _issueRepo::findAllForCases).stream()
+			.collect(Collectors.groupingBy(i -> i.getIssueCase().getInternalId()));
+		Map<Long, List<CaseSnooze>> snoozes = InListChunks.query(caseIds, _snoozeRepo::findAllForCases).stream()
+			.collect(Collectors.groupingBy(s -> s.getSnoozeCase().getInternalId()));
+		Map<Long, List<CaseAttachmentAssociation>> notes = new HashMap<>();
+		InListChunks.query(caseIds, chunk -> _attachmentService.findNotesForCases(chunk).entrySet())
+			.forEach(e -> notes.put(e.getKey(), e.getValue()));
+		return requested.stream()
+			.map(cases::get)
+			.filter(Objects::nonNull)
+			.map(c -> new CaseDetails(c,
+				issues.getOrDefault(c.getInternalId(), Collections.emptyList()),
+				snoozes.getOrDefault(c.getInternalId(), Collections.emptyList()),
+				notes.getOrDefault(c.getInternalId(), Collections.emptyList()).stream()
+					.map(NoteSummary::new)
+					.collect(Collectors.toList())))
+			.collect(Collectors.toList());
+	}
+
 	public Optional<CaseSnoozeSummary> findActiveSnooze(String caseManagementSystemTag, String receiptNumber) {
 		Optional<CaseSnooze> found = findSnooze(caseManagementSystemTag, receiptNumber);
 		if (snoozeIsActive(found)) {
@@ -88,6 +138,8 @@ public class CaseDetailsService {
 		Optional<CaseSnooze> found = findSnooze(caseManagementSystemTag, receiptNumber);
 		if (snoozeIsActive(found)) {
 			found.get().endSnoozeNow();
+			TroubleCase snoozeCase = found.get().getSnoozeCase();
+			_rollupService.moveCase(snoozeCase, TroubleCase.CURRENTLY_SNOOZED, TroubleCase.PREVIOUSLY_SNOOZED);
 			return true;
 		} else {
 			return false;
@@ -97,6 +149,7 @@ public class CaseDetailsService {
 	@Transactional(readOnly=false)
 	public CaseSnoozeSummaryFacade updateSnooze(String caseManagementSystemTag, String receiptNumber, @Valid SnoozeRequest requestedSnooze) {
 		TroubleCase mainCase = findCaseByTags(caseManagementSystemTag, receiptNumber);
+		String previousState = HitlistSummaryCache.snoozeState(mainCase.getLastSnoozeEnd());
 		Optional<CaseSnooze> foundSnooze = _snoozeRepo.findFirstBySnoozeCaseOrderBySnoozeEndDesc(mainCase);
 		if (snoozeIsActive(foundSnooze)) {
 			CaseSnooze oldSnooze = foundSnooze.get();
@@ -106,6 +159,8 @@ public class CaseDetailsService {
 		int duration = requestedSnooze.getDuration();
 		CaseSnooze replacement = new CaseSnooze(mainCase, reason, duration);
 		_snoozeRepo.save(replacement);
+		String newState = HitlistSummaryCache.snoozeState(mainCase.getLastSnoozeEnd());
+		_rollupService.moveCase(mainCase, previousState, newState);
 		List<NoteSummary> savedNotes = requestedSnooze.getNotes().stream()
 				.map(r->_attachmentService.attachNote(r, replacement))
 				.map(NoteSummary::new)
@@ -123,6 +178,7 @@ public class CaseDetailsService {
 		Optional<CaseSnooze> foundSnooze = _snoozeRepo.findFirstBySnoozeCaseOrderBySnoozeEndDesc(mainCase);
 		if (snoozeIsActive(foundSnooze)) {
 			_attachmentService.attachNote(newNote, foundSnooze.get());
+			_rollupService.markChanged(mainCase.getCaseManagementSystem(), mainCase.getCaseType());
 		} else {
 			throw new IllegalArgumentException("Cannot add a note to a case that is not snoozed.");
 		}
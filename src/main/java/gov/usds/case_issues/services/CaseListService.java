@@ -1,45 +1,66 @@
 package gov.usds.case_issues.services;
 
+import java.io.IOException;
 import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.NoSuchElementException;
 import java.util.Optional;
-import java.util.function.Function;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import javax.persistence.EntityManager;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 import org.springframework.validation.annotation.Validated;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 import gov.usds.case_issues.config.DataFormatSpec;
 import gov.usds.case_issues.config.WebConfigurationProperties;
+import gov.usds.case_issues.db.model.CaseAttachmentAssociation;
 import gov.usds.case_issues.db.model.CaseIssue;
 import gov.usds.case_issues.db.model.CaseIssueUpload;
 import gov.usds.case_issues.db.model.CaseManagementSystem;
 import gov.usds.case_issues.db.model.CaseSnooze;
 import gov.usds.case_issues.db.model.CaseType;
 import gov.usds.case_issues.db.model.TroubleCase;
+import gov.usds.case_issues.db.model.UploadMode;
 import gov.usds.case_issues.db.model.UploadStatus;
-import gov.usds.case_issues.db.model.projections.CaseSnoozeSummary;
+import gov.usds.case_issues.db.model.projections.HitlistCase;
+import gov.usds.case_issues.db.model.projections.LatestCaseSnooze;
 import gov.usds.case_issues.db.repositories.BulkCaseRepository;
 import gov.usds.case_issues.db.repositories.CaseIssueRepository;
 import gov.usds.case_issues.db.repositories.CaseIssueUploadRepository;
 import gov.usds.case_issues.db.repositories.CaseManagementSystemRepository;
 import gov.usds.case_issues.db.repositories.CaseSnoozeRepository;
 import gov.usds.case_issues.db.repositories.CaseTypeRepository;
+import gov.usds.case_issues.db.repositories.HitlistPosition;
+import gov.usds.case_issues.db.repositories.HitlistSort;
 import gov.usds.case_issues.db.repositories.TroubleCaseRepository;
+import gov.usds.case_issues.db.repositories.UploadStagingRepository;
 import gov.usds.case_issues.model.ApiModelNotFoundException;
+import gov.usds.case_issues.model.CasePage;
 import gov.usds.case_issues.model.CaseRequest;
 import gov.usds.case_issues.model.CaseSummary;
+import gov.usds.case_issues.model.InvalidUploadException;
 import gov.usds.case_issues.model.NoteSummary;
+import gov.usds.case_issues.services.HitlistCursorService.ListType;
 import gov.usds.case_issues.validators.TagFragment;
 
 /**
@@ -53,6 +74,15 @@ public class CaseListService {
 
 	private static final Logger LOG = LoggerFactory.getLogger(CaseListService.class);
 
+	private static final String FILTER_SEPARATOR = ":";
+	private static final ObjectMapper FILTER_VALUE_READER = new ObjectMapper();
+
+	/** The number of cases to process at a time when exporting a full list. */
+	public static final int EXPORT_CHUNK_SIZE = 200;
+	/** The number of cases to read from an issue upload before staging them. */
+	public static final int UPLOAD_CHUNK_SIZE = 1000;
+	private static final Pattern RECEIPT_NUMBER_FORMAT = Pattern.compile(TroubleCase.RECEIPT_NUMBER_PATTERN);
+
 	@Autowired
 	private CaseTypeRepository _caseTypeRepo;
 	@Autowired
@@ -74,22 +104,48 @@ public class CaseListService {
 	private CaseIssueUploadRepository _uploadRepo;
 	@Autowired
 	private WebConfigurationProperties _webProperties;
+	@Autowired
+	private HitlistCursorService _cursorService;
+	@Autowired
+	private EntityManager _entityManager;
+	@Autowired
+	private HitlistSummaryCache _summaryCache;
+	@Autowired
+	private CaseSummaryRollupService _rollupService;
 
+	/**
+	 * Find cases for the receipt-number typeahead. Receipt numbers that start with the query come first, since
+	 * that search can use an ordinary index; if there are not enough of those and the query is long enough,
+	 * the rest of the results are receipt numbers that contain the query anywhere.
+	 * @param limit the maximum number of cases to return (null for the configured default).
+	 */
 	public List<TroubleCase> getCases(
 			@TagFragment String caseManagementSystemTag,
 			@TagFragment String caseTypeTag,
-			String query) {
+			String query,
+			Integer limit) {
 		CaseGroupInfo translated = translatePath(caseManagementSystemTag, caseTypeTag);
+		int resultLimit = limit == null ? _webProperties.getSearchResultLimit() : limit;
+		if (resultLimit < 1 || resultLimit > _webProperties.getSearchResultMaxLimit()) {
+			throw new IllegalArgumentException("Search result limit must be between 1 and " + _webProperties.getSearchResultMaxLimit());
+		}
 
 		if (query == null || query.isEmpty()) {
 			return new ArrayList<>();
 		}
 
-		return _caseRepo.getFirst5ByCaseManagementSystemAndCaseTypeAndReceiptNumberContains(
-			translated.getCaseManagementSystem(),
-			translated.getCaseType(),
-			query
-		);
+		Pageable firstResults = PageRequest.of(0, resultLimit);
+		List<TroubleCase> found = _caseRepo.findByCaseManagementSystemAndCaseTypeAndReceiptNumberStartingWithOrderByReceiptNumber(
+			translated.getCaseManagementSystem(), translated.getCaseType(), query, firstResults);
+		if (found.size() == resultLimit || query.length() < _webProperties.getSearchContainsMinLength()) {
+			return found;
+		}
+		Map<Long, TroubleCase> combined = new LinkedHashMap<>();
+		Stream.concat(found.stream(),
+				_caseRepo.findByCaseManagementSystemAndCaseTypeAndReceiptNumberContainingOrderByReceiptNumber(
+					translated.getCaseManagementSystem(), translated.getCaseType(), query, firstResults).stream())
+			.forEach(c -> combined.putIfAbsent(c.getInternalId(), c));
+		return combined.values().stream().limit(resultLimit).collect(Collectors.toList());
 	}
 
 	public List<CaseSummary> getActiveCases(
@@ -97,34 +153,54 @@ public class CaseListService {
 		@TagFragment String caseTypeTag,
 		@TagFragment String receiptNumber, // wrong validator!
 		int size
+	) {
+		return getActiveCasePage(caseManagementSystemTag, caseTypeTag, receiptNumber, null, Collections.emptyList(), null, size)
+			.getCases();
+	}
+
+	/**
+	 * Fetch a page of active cases, along with a cursor for the page after it.
+	 * @param receiptNumber the last case of the previous page, if no cursor is available (this costs an extra lookup).
+	 * @param cursor the cursor returned with the previous page, if any: takes precedence over receiptNumber.
+	 * @param filters extra data filters, in the form accepted by {@link #parseExtraDataFilters(List)}.
+	 * @param sort the name of a {@link HitlistSort} (defaults to {@link HitlistSort#CREATED_ASC}).
+	 */
+	public CasePage getActiveCasePage(
+		@TagFragment String caseManagementSystemTag,
+		@TagFragment String caseTypeTag,
+		@TagFragment String receiptNumber, // wrong validator!
+		String cursor,
+		List<String> filters,
+		String sort,
+		int size
 	) {
 		CaseGroupInfo translated = translatePath(caseManagementSystemTag, caseTypeTag);
+		Map<String, Object> extraDataFilter = parseExtraDataFilters(filters);
+		HitlistSort sortOrder = parseSort(sort, HitlistSort.CREATED_ASC);
+		if (sortOrder.isSnoozedOnly()) {
+			throw new IllegalArgumentException("Sort " + sortOrder + " is only available for snoozed cases");
+		}
 		LOG.debug(
 			"Request for active cases after case with systemTag: {} and receiptNumber: {}",
 			caseManagementSystemTag,
 			receiptNumber
 		);
-		Optional<TroubleCase> lastCase =_caseRepo.findByCaseManagementSystemAndReceiptNumber(
-			translated.getCaseManagementSystem(),
-			receiptNumber
-		);
-		if (!lastCase.isPresent()) {
-			return rewrap(
-				_bulkRepo.getActiveCases(
-					translated.getCaseManagementSystemId(),
-					translated.getCaseTypeId(),
-					size
-				)
-			);
+		HitlistPosition after = null;
+		if (StringUtils.hasText(cursor)) {
+			after = _cursorService.decode(cursor, translated, ListType.ACTIVE, sortOrder);
+		} else {
+			after = _caseRepo.findByCaseManagementSystemAndReceiptNumber(
+				translated.getCaseManagementSystem(),
+				receiptNumber
+			).map(c -> new HitlistPosition(c, sortOrder)).orElse(null);
 		}
-		TroubleCase troubleCase = lastCase.get();
-
-		return rewrap(
-			_bulkRepo.getActiveCasesAfter(
+		return toPage(translated, ListType.ACTIVE, sortOrder,
+			_caseRepo.getActiveCases(
 				translated.getCaseManagementSystemId(),
 				translated.getCaseTypeId(),
-				troubleCase.getCaseCreation(),
-				troubleCase.getInternalId(),
+				extraDataFilter,
+				sortOrder,
+				after,
 				size
 			)
 		);
@@ -135,66 +211,201 @@ public class CaseListService {
 			@TagFragment String caseTypeTag,
 			@TagFragment String receiptNumber, // wrong validation tag!
 			int size
+	) {
+		return getSnoozedCasePage(caseManagementSystemTag, caseTypeTag, receiptNumber, null, Collections.emptyList(), null, size)
+			.getCases();
+	}
+
+	/**
+	 * Fetch a page of snoozed cases, along with a cursor for the page after it.
+	 * @param receiptNumber the last case of the previous page, if no cursor is available (this costs an extra
+	 *     lookup, and fails if that case's snooze has ended in the meantime).
+	 * @param cursor the cursor returned with the previous page, if any: takes precedence over receiptNumber.
+	 * @param filters extra data filters, in the form accepted by {@link #parseExtraDataFilters(List)}.
+	 * @param sort the name of a {@link HitlistSort} (defaults to {@link HitlistSort#SNOOZE_END_ASC}).
+	 */
+	public CasePage getSnoozedCasePage(
+			@TagFragment String caseManagementSystemTag,
+			@TagFragment String caseTypeTag,
+			@TagFragment String receiptNumber, // wrong validation tag!
+			String cursor,
+			List<String> filters,
+			String sort,
+			int size
 	) {
 		CaseGroupInfo translated = translatePath(caseManagementSystemTag, caseTypeTag);
+		Map<String, Object> extraDataFilter = parseExtraDataFilters(filters);
+		HitlistSort sortOrder = parseSort(sort, HitlistSort.SNOOZE_END_ASC);
 		LOG.debug(
 			"Request for snoozed cases after case with systemTag: {} and receiptNumber: {}",
 			caseManagementSystemTag,
 			receiptNumber
 		);
-		Optional<TroubleCase> lastCase =_caseRepo.findByCaseManagementSystemAndReceiptNumber(
-			translated.getCaseManagementSystem(),
-			receiptNumber
-		);
-
-		if (!lastCase.isPresent()) {
-			return rewrap(
-				_bulkRepo.getSnoozedCases(
-					translated.getCaseManagementSystemId(),
-					translated.getCaseTypeId(),
-					size
-				)
+		HitlistPosition after = null;
+		if (StringUtils.hasText(cursor)) {
+			after = _cursorService.decode(cursor, translated, ListType.SNOOZED, sortOrder);
+			if (after.getLastSnoozeEnd() == null) {
+				throw new IllegalArgumentException("Page cursor does not belong to this list");
+			}
+		} else {
+			Optional<TroubleCase> lastCase =_caseRepo.findByCaseManagementSystemAndReceiptNumber(
+				translated.getCaseManagementSystem(),
+				receiptNumber
 			);
+			if (lastCase.isPresent()) {
+				after = new HitlistPosition(lastCase.get(), sortOrder);
+				if (after.getLastSnoozeEnd() == null) {
+					throw new IllegalArgumentException(
+						"Receipt number given does not correspond to a snoozed case"
+					);
+				}
+				// in theory, reversing this and using isBefore would work nicely, only this might produce a 1-millisecond
+				// race condition in tests
+				if (!after.getLastSnoozeEnd().isAfter(ZonedDateTime.now())) {
+					throw new IllegalArgumentException("Snooze was ended for this case before page request was sent.");
+				}
+			}
 		}
 
-		TroubleCase troubleCase = lastCase.get();
-		try {
-			CaseSnooze lastSnoozeEnd = _snoozeRepo.findFirstBySnoozeCaseOrderBySnoozeEndDesc(troubleCase).get();
-			// in theory, reversing this and using isBefore would work nicely, only this might produce a 1-millisecond
-			// race condition in tests
-			if (lastSnoozeEnd.getSnoozeEnd().isAfter(ZonedDateTime.now())) {
-				return rewrap(
-					_bulkRepo.getSnoozedCasesAfter(
-						translated.getCaseManagementSystemId(),
-						translated.getCaseTypeId(),
-						lastSnoozeEnd.getSnoozeEnd(),
-						troubleCase.getCaseCreation(),
-						troubleCase.getInternalId(),
-						size
-					)
-				);
-			} else {
-				throw new IllegalArgumentException("Snooze was ended for this case before page request was sent.");
+		return toPage(translated, ListType.SNOOZED, sortOrder,
+			_caseRepo.getSnoozedCases(
+				translated.getCaseManagementSystemId(),
+				translated.getCaseTypeId(),
+				extraDataFilter,
+				sortOrder,
+				after,
+				size
+			)
+		);
+	}
+
+	/**
+	 * Write every case on one of the hit lists to the given sink, in page order. Cases are read from a
+	 * forward-only stream and handed off a chunk at a time, with the persistence context cleared after
+	 * each chunk, so memory use does not grow with the size of the list.
+	 * @return the number of cases exported.
+	 */
+	public long exportCases(
+			@TagFragment String caseManagementSystemTag,
+			@TagFragment String caseTypeTag,
+			ListType listType,
+			CaseSummarySink sink) throws IOException {
+		CaseGroupInfo translated = translatePath(caseManagementSystemTag, caseTypeTag);
+		LOG.info("Exporting {} cases for {}/{}", listType, caseManagementSystemTag, caseTypeTag);
+		long exported = 0;
+		try (Stream<Object[]> rows = listType == ListType.SNOOZED
+				? _bulkRepo.streamSnoozedCases(translated.getCaseManagementSystemId(), translated.getCaseTypeId())
+				: _bulkRepo.streamActiveCases(translated.getCaseManagementSystemId(), translated.getCaseTypeId())) {
+			Iterator<HitlistCase> rowIterator = rows.map(HitlistCase::fromRow).iterator();
+			List<HitlistCase> chunk = new ArrayList<>(EXPORT_CHUNK_SIZE);
+			while (rowIterator.hasNext()) {
+				chunk.add(rowIterator.next());
+				if (chunk.size() == EXPORT_CHUNK_SIZE || !rowIterator.hasNext()) {
+					for (CaseSummary summary : rewrap(chunk)) {
+						sink.accept(summary);
+					}
+					sink.flush();
+					exported += chunk.size();
+					chunk.clear();
+					_entityManager.clear();
+				}
 			}
-		} catch (NoSuchElementException _exception) {
-			throw new IllegalArgumentException(
-				"Receipt number given does not correspond to a snoozed case"
-			);
 		}
+		LOG.info("Exported {} {} cases for {}/{}", exported, listType, caseManagementSystemTag, caseTypeTag);
+		return exported;
+	}
 
+	/**
+	 * Get an entity tag for the hit lists and summaries of a case type, cheaply enough to check it before doing any
+	 * of the work of fetching them. It changes whenever anything on the lists changes (see
+	 * {@link CaseSummaryRollupService#getListVersion}), when snoozes expire each day, and when the
+	 * paging cursor signing key changes (so that clients never hold on to cursors we cannot read).
+	 */
+	public String getListEntityTag(@TagFragment String caseManagementSystemTag, @TagFragment String caseTypeTag) {
+		CaseGroupInfo translated = translatePath(caseManagementSystemTag, caseTypeTag);
+		long version = _rollupService.getListVersion(translated.getCaseManagementSystem(), translated.getCaseType());
+		ZonedDateTime now = ZonedDateTime.now();
+		ZonedDateTime lastExpiry = now.truncatedTo(ChronoUnit.DAYS).withHour(CaseSnooze.EXPIRES_TIME);
+		if (lastExpiry.isAfter(now)) {
+			lastExpiry = lastExpiry.minusDays(1);
+		}
+		return String.format("W/\"%d-%s-%s\"", version, lastExpiry.toLocalDate(), _cursorService.getKeyId());
 	}
 
+	/**
+	 * Count the cases on the hit list for a case type by snooze state, and find when the list was last updated.
+	 * The counts are read from the precomputed {@link CaseSummaryRollupService} counts; the result is cached
+	 * by {@link HitlistSummaryCache} under the current list version, so it is never served once the lists have
+	 * changed.
+	 */
 	public Map<String, Object> getSummaryInfo(@TagFragment String caseManagementSystemTag, @TagFragment String caseTypeTag) {
 		CaseGroupInfo translated = translatePath(caseManagementSystemTag, caseTypeTag);
-		Map<String, Object> caseCounts = _bulkRepo.getSnoozeSummary(translated.getCaseManagementSystemId(), translated.getCaseTypeId())
-				.stream()
-				.collect(Collectors.toMap(a->((String) a[0]).trim(), a->(Number) a[1]));
+		long version = _rollupService.getListVersion(translated.getCaseManagementSystem(), translated.getCaseType());
+		return _summaryCache.get(translated.getCaseManagementSystem(), translated.getCaseType(), version,
+			() -> loadSummaryInfo(translated));
+	}
+
+	private Map<String, Object> loadSummaryInfo(CaseGroupInfo translated) {
+		Map<String, Object> caseCounts = _rollupService.getSummary(translated.getCaseManagementSystem(), translated.getCaseType());
 		CaseIssueUpload lastSuccess = _uploadStatusService.getLastUpload(
 			translated.getCaseManagementSystem(), translated.getCaseType(), UploadStatus.SUCCESSFUL);
 		if (lastSuccess != null) {
 			caseCounts.put("lastUpdated", lastSuccess.getEffectiveDate());
 		}
-		return caseCounts;
+		return Collections.unmodifiableMap(caseCounts);
+	}
+
+	/**
+	 * Count the cases on the hit list for a case type that have open issues of each issue type, by snooze state.
+	 */
+	public Map<String, Map<String, Object>> getIssueTypeSummaryInfo(@TagFragment String caseManagementSystemTag,
+			@TagFragment String caseTypeTag) {
+		CaseGroupInfo translated = translatePath(caseManagementSystemTag, caseTypeTag);
+		return _rollupService.getIssueTypeSummaries(translated.getCaseManagementSystem(), translated.getCaseType());
+	}
+
+	/**
+	 * Turn a list of filter strings of the form <code>key:value</code> into a map that can be matched against
+	 * {@link TroubleCase#getExtraData()}. Values that are JSON literals (numbers, booleans, null or quoted
+	 * strings) are matched as such; anything else is matched as a plain string.
+	 * @throws IllegalArgumentException if a filter is malformed or a key is repeated.
+	 */
+	public Map<String, Object> parseExtraDataFilters(List<String> filters) {
+		Map<String, Object> parsed = new HashMap<>();
+		if (filters == null) {
+			return parsed;
+		}
+		for (String filter : filters) {
+			int separator = filter.indexOf(FILTER_SEPARATOR);
+			if (separator < 1) {
+				throw new IllegalArgumentException("Filters must be in the form key:value");
+			}
+			String key = filter.substring(0, separator);
+			if (parsed.containsKey(key)) {
+				throw new IllegalArgumentException("Only one filter may be given for each key");
+			}
+			parsed.put(key, parseFilterValue(filter.substring(separator + 1)));
+		}
+		return parsed;
+	}
+
+	private static HitlistSort parseSort(String sort, HitlistSort defaultSort) {
+		if (!StringUtils.hasText(sort)) {
+			return defaultSort;
+		}
+		return HitlistSort.forName(sort);
+	}
+
+	private static Object parseFilterValue(String value) {
+		try {
+			JsonNode parsed = FILTER_VALUE_READER.readTree(value);
+			if (parsed != null && parsed.isValueNode()) {
+				return FILTER_VALUE_READER.treeToValue(parsed, Object.class);
+			}
+		} catch (IOException e) {
+			LOG.trace("Treating filter value {} as a plain string", value);
+		}
+		return value;
 	}
 
 	public CaseGroupInfo translatePath(@TagFragment String caseManagementSystemTag, @TagFragment String caseTypeTag) {
@@ -216,92 +427,176 @@ public class CaseListService {
 	 * <li>Cases that are in the list and already exist will have their additional data updated,
 	 *     and an issue created if no open issue of the correct type exists;</li>
 	 * </ul>
-	 * @param systemTag the {@link CaseManagementSystem#getExternalId()} for the system we are updating.
-	 * @param caseTypeTag {@link CaseType#getExternalId()} for the case type we are updating.
-	 * @param issueTypeTag the type of issue we are updating.
-	 * @param newIssueCases case information for each case that has this issue as of the date for which we are uploading data.
-	 * @param eventDate the date (usually but not always {@link ZonedDateTime#now()}) to attach to this update
+	 * The list is read {@link #UPLOAD_CHUNK_SIZE} cases at a time and staged in the database (see
+	 * {@link UploadStagingRepository}), so memory use does not grow with the size of the upload. Once the whole
+	 * list has been staged, each of the changes above is made to all the affected cases at once by a single statement.
+	 * It all happens in one transaction, so an upload that fails part way through leaves nothing behind.
+	 * <p>
+	 * A {@link UploadMode#DELTA} upload is not the whole list: it closes only the issues on cases whose records
+	 * ask for them to be closed ({@link CaseRequest#isClosing()}), and leaves cases that are not in the upload alone.
+	 * <p>
+	 * An upload whose content (see {@link UploadDigest}) is the same as the last one applied for its issue type is
+	 * completed as {@link UploadStatus#UNCHANGED} without changing anything. If the upload already has its digest
+	 * (because its records were read before it was handed over), that is checked before its records are read at all.
+	 * @param translated the upload being processed: its counts and status are filled in here.
+	 * @param newIssueCases case information for each case that has this issue as of the upload's effective date
 	 *    (this will be reflected in the {@link CaseIssue#getIssueCreated()} and {@link CaseIssue#getIssueClosed()}
 	 *    values that are set by this method).
-	 * @throws ApiModelNotFoundException if the {@link CaseManagementSystem} or {@link CaseType} could not be found.
 	 */
-
 	@Transactional(readOnly=false)
 	@PreAuthorize("hasAuthority(T(gov.usds.case_issues.authorization.CaseIssuePermission).UPDATE_ISSUES.name())")
-	public CaseIssueUpload putIssueList(CaseIssueUpload translated, List<CaseRequest> newIssueCases) {
-		// convenience aliases to local variables, for use in closures
-		final ZonedDateTime eventDate = translated.getEffectiveDate();
-		final String issueTypeTag = translated.getIssueType();
-
-		List<CaseIssue> currentIssues = _issueRepo.findActiveIssues(translated.getCaseManagementSystem(), translated.getCaseType(),
-				translated.getIssueType());
-		Map<String, CaseIssue> currentMap = currentIssues.stream().collect(Collectors.toMap(i->i.getIssueCase().getReceiptNumber(), i->i));
-
-		// build a list containing only CaseSummary objects with no existing CaseIssue
-		List<CaseRequest> requestedNewIssues = new ArrayList<>();
-		for (CaseRequest caseSummary : newIssueCases) {
-			CaseIssue existingIssue = currentMap.remove(caseSummary.getReceiptNumber());
-			if (null == existingIssue) {
-				requestedNewIssues.add(caseSummary);
-			} else {
-				TroubleCase issueCase = existingIssue.getIssueCase();
-				issueCase.getExtraData().putAll(caseSummary.getExtraData());
-				if (issueCase.getCaseType() != translated.getCaseType()) {
-					LOG.error("Illegal update of case type requested for {}", issueCase.getReceiptNumber());
-				}
+	public CaseIssueUpload putIssueList(CaseIssueUpload translated, Iterator<? extends CaseRequest> newIssueCases) {
+		if (translated.getInternalId() == null) {
+			translated = _uploadRepo.save(translated);
+			_entityManager.flush(); // the staged records need something to belong to
+		}
+		if (translated.getContentDigest() != null && isUnchanged(translated)) {
+			return completeUnchanged(translated, translated.getUploadedRecordCount());
+		}
+		UploadDigest digest = translated.getContentDigest() == null ? new UploadDigest(translated.getUploadMode()) : null;
+		long recordCount = stageUploadRecords(translated, 0, newIssueCases, digest);
+		if (digest != null) {
+			translated.setContentDigest(digest.finish());
+			if (isUnchanged(translated)) {
+				_issueRepo.clearStagedRecords(translated);
+				return completeUnchanged(translated, recordCount);
 			}
 		}
+		return applyStagedRecords(translated, recordCount);
+	}
 
-		// terminate all the remaining issues in the current collection
-		// this could also be done directly in the database, which might not be a bad idea?
-		currentMap.values().forEach(i -> i.setIssueClosed(eventDate));
-		LOG.info("Closing {} issues", currentMap.size());
-		translated.setClosedIssueCount(currentMap.size());
-
-		// get or create cases
-		HashSet<String> newReceipts = requestedNewIssues.stream().map(CaseRequest::getReceiptNumber)
-				.collect(Collectors.toCollection(HashSet::new));
-		Map<String, TroubleCase> existingCases = _caseRepo.getAllByCaseManagementSystemAndReceiptNumberIn(
-				translated.getCaseManagementSystem(), newReceipts).stream().collect(Collectors.toMap(TroubleCase::getReceiptNumber, i->i));
-		newReceipts.removeAll(existingCases.keySet());
-
-		List<TroubleCase> unsavedCases = new ArrayList<>();
-		// create or update cases
-		for (CaseRequest candidate : requestedNewIssues) {
-			String receiptNumber = candidate.getReceiptNumber();
-			if (newReceipts.contains(receiptNumber)) {
-				unsavedCases.add(new TroubleCase(translated.getCaseManagementSystem(),
-						receiptNumber, translated.getCaseType(),
-						candidate.getCaseCreation(), candidate.getExtraData()));
-			} else {
-				TroubleCase found = existingCases.get(receiptNumber);
-				if (found.getCaseType() != translated.getCaseType()) {
-					LOG.error("Illegal update of case type requested for {}", receiptNumber);
-				}
-				found.getExtraData().putAll(candidate.getExtraData());
+	/**
+	 * Stage one numbered chunk of an upload that is being sent in chunks (see {@link #putIssueList} for what
+	 * happens when it is committed). The chunk replaces anything already staged under the same number, so a
+	 * chunk can safely be sent again if the first attempt timed out. Each chunk is staged in its own transaction.
+	 * @return the number of records in the chunk.
+	 * @throws IllegalArgumentException if the upload is no longer {@link UploadStatus#OPEN}.
+	 */
+	@Transactional(readOnly=false)
+	@PreAuthorize("hasAuthority(T(gov.usds.case_issues.authorization.CaseIssuePermission).UPDATE_ISSUES.name())")
+	public long stageIssueChunk(CaseIssueUpload upload, long chunkNumber, Iterator<? extends CaseRequest> newIssueCases) {
+		CaseIssueUpload locked = _uploadRepo.findAndLock(upload.getInternalId())
+			.orElseThrow(() -> new ApiModelNotFoundException("Upload", String.valueOf(upload.getInternalId())));
+		if (locked.getUploadStatus() != UploadStatus.OPEN) {
+			throw new IllegalArgumentException("Upload " + locked.getInternalId() + " is no longer open for new chunks");
+		}
+		int replaced = _issueRepo.clearStagedChunk(locked, chunkNumber);
+		if (replaced > 0) {
+			LOG.info("Upload {} chunk {} sent again: replacing {} staged records", locked.getInternalId(), chunkNumber, replaced);
+		}
+		long recordCount = stageUploadRecords(locked, chunkNumber, newIssueCases, null);
+		// keep a running total, which also marks the upload as still in use (see UploadStatusService#failAbandonedUploads)
+		locked.setUploadedRecordCount(locked.getUploadedRecordCount() - replaced + recordCount);
+		return recordCount;
+	}
+
+	/**
+	 * Apply an upload whose records were all staged by {@link #stageIssueChunk}, in the same way as
+	 * {@link #putIssueList}.
+	 */
+	@Transactional(readOnly=false)
+	@PreAuthorize("hasAuthority(T(gov.usds.case_issues.authorization.CaseIssuePermission).UPDATE_ISSUES.name())")
+	public CaseIssueUpload applyStagedIssues(CaseIssueUpload upload) {
+		long recordCount = _issueRepo.countStagedRecords(upload);
+		_uploadStatusService.recordParsed(upload, recordCount);
+		_uploadStatusService.recordStaged(upload, recordCount);
+		return applyStagedRecords(upload, recordCount);
+	}
+
+	/** @param digest the digest to add each record to, or null if none is to be taken. */
+	private long stageUploadRecords(CaseIssueUpload upload, long chunkNumber, Iterator<? extends CaseRequest> newIssueCases,
+			UploadDigest digest) {
+		long recordCount = 0;
+		List<CaseRequest> batch = new ArrayList<>(UPLOAD_CHUNK_SIZE);
+		while (newIssueCases.hasNext()) {
+			CaseRequest record = newIssueCases.next();
+			checkUploadRecord(record, recordCount + batch.size() + 1);
+			if (digest != null) {
+				digest.add(record);
+			}
+			batch.add(record);
+			if (batch.size() == UPLOAD_CHUNK_SIZE || !newIssueCases.hasNext()) {
+				_issueRepo.stageRecords(upload, chunkNumber, recordCount, batch);
+				recordCount += batch.size();
+				batch.clear();
+				_uploadStatusService.recordStaged(upload, recordCount);
+				LOG.debug("Upload {} has staged {} records in chunk {}", upload.getInternalId(), recordCount, chunkNumber);
 			}
 		}
-		// slightly dumb bit of DRY factory work
-		Function<? super TroubleCase, ? extends CaseIssue> createIssue = tc -> new CaseIssue(tc, issueTypeTag, eventDate);
+		return recordCount;
+	}
 
-		// well this is ugly
-		Iterable<TroubleCase> newlySavedCases = _caseRepo.saveAll(unsavedCases);
-		List<CaseIssue> newIssues = new ArrayList<>();
-		newlySavedCases.forEach(tc -> newIssues.add(createIssue.apply(tc)));
+	/** Check whether an upload has the same content as the last one applied for its issue type. */
+	private boolean isUnchanged(CaseIssueUpload upload) {
+		CaseIssueUpload previous = _uploadStatusService.getLastUpload(
+			upload.getCaseManagementSystem(), upload.getCaseType(), upload.getIssueType());
+		return previous != null && upload.getContentDigest().equals(previous.getContentDigest());
+	}
 
-		// aaaand save everything!
-		_issueRepo.saveAll(
-			Stream.concat(
-				existingCases.values().stream().map(createIssue),
-				newIssues.stream()
-			).collect(Collectors.toSet())
-		);
-		translated.setNewIssueCount(existingCases.size() + newIssues.size());
+	/**
+	 * Finish an upload that would change nothing, without touching any cases or issues. It becomes the latest
+	 * upload, so the hit list's "last updated" date moves forward to its effective date.
+	 */
+	private CaseIssueUpload completeUnchanged(CaseIssueUpload upload, long recordCount) {
+		LOG.info("Upload {} read {} records, identical to the last upload of {}: nothing to change",
+			upload.getInternalId(), recordCount, upload.getIssueType());
+		upload.setUploadedRecordCount(recordCount);
+		upload.setNewIssueCount(0);
+		upload.setClosedIssueCount(0);
+		upload.setUpdatedCaseCount(0);
+		upload.setUploadStatus(UploadStatus.UNCHANGED);
+		upload = _uploadRepo.save(upload);
+		// the summary (which includes the last updated date) shares the hit list's entity tag
+		_rollupService.markChanged(upload.getCaseManagementSystem(), upload.getCaseType());
+		return upload;
+	}
+
+	private CaseIssueUpload applyStagedRecords(CaseIssueUpload translated, long recordCount) {
+		_issueRepo.analyzeStagingTable();
+		long misfiledCases = _issueRepo.countStagedCasesOfOtherTypes(translated);
+		if (misfiledCases > 0) {
+			LOG.error("Illegal update of case type requested for {} cases by upload {}", misfiledCases, translated.getInternalId());
+		}
+		long closedIssueCount = translated.getUploadMode() == UploadMode.DELTA
+			? _issueRepo.closeStagedIssues(translated)
+			: _issueRepo.closeUnstagedIssues(translated);
+		long unchangedCaseCount = _issueRepo.countUnchangedStagedCases(translated);
+		long newCaseCount = _issueRepo.createStagedCases(translated);
+		long newIssueCount = _issueRepo.openStagedIssues(translated);
+		long updatedCaseCount = _issueRepo.updateStagedCases(translated);
+		_issueRepo.clearStagedRecords(translated);
+		_uploadStatusService.recordApplied(translated, recordCount);
+		LOG.info("Upload {} read {} records, created {} cases, updated {} and left {} unchanged, opened {} issues and closed {}",
+			translated.getInternalId(), recordCount, newCaseCount, updatedCaseCount, unchangedCaseCount, newIssueCount,
+			closedIssueCount);
+
+		_rollupService.recompute(translated.getCaseManagementSystem(), translated.getCaseType());
+		// the counts may not have changed, but the issues and case details on the lists have
+		_rollupService.markChanged(translated.getCaseManagementSystem(), translated.getCaseType());
+		translated.setUploadedRecordCount(recordCount);
+		translated.setNewIssueCount(newIssueCount);
+		translated.setClosedIssueCount(closedIssueCount);
+		translated.setUpdatedCaseCount(updatedCaseCount);
+		translated.setUnchangedCaseCount(unchangedCaseCount);
 		translated.setUploadStatus(UploadStatus.SUCCESSFUL);
-		_uploadRepo.save(translated);
+		translated = _uploadRepo.save(translated);
 		return translated;
 	}
 
+	/**
+	 * Check a record from an issue upload for anything that would stop it being applied.
+	 * @param recordNumber the position of the record in the upload (or in its chunk), counting from 1.
+	 * @throws InvalidUploadException if the record cannot be applied.
+	 */
+	static void checkUploadRecord(CaseRequest record, long recordNumber) {
+		if (!RECEIPT_NUMBER_FORMAT.matcher(record.getReceiptNumber()).matches()) {
+			throw new InvalidUploadException("Invalid receipt number in record " + recordNumber);
+		}
+		if (record.getCaseCreation() == null && !record.isClosing()) {
+			throw new InvalidUploadException("Missing case creation date in record " + recordNumber);
+		}
+	}
+
 	public DataFormatSpec getUploadFormat(String uploadFormatId) {
 		if (uploadFormatId == null) {
 			return new DataFormatSpec();
@@ -313,17 +608,48 @@ public class CaseListService {
 		return spec;
 	}
 
-	private List<CaseSummary> rewrap(List<Object[]> queryResult) {
-		LOG.info("Finding snoozed case from {}.", _snoozeRepo);
-		LOG.info("Finding attachment from {}.", _attachmentService);
-		Function<? super Object[], ? extends CaseSummary> mapper = row ->{
-			TroubleCase rootCase = (TroubleCase) row[0];
-			ZonedDateTime lastSnoozeEnd = (ZonedDateTime) row[1];
-			CaseSnoozeSummary summary = lastSnoozeEnd == null ? null : _snoozeRepo.findFirstBySnoozeCaseOrderBySnoozeEndDesc(rootCase).get();
-			List<NoteSummary> notes = _attachmentService.findNotesForCase(rootCase).stream().map(NoteSummary::new).collect(Collectors.toList());
-			return new CaseSummary(rootCase, summary, notes);
-		};
-		return queryResult.stream().map(mapper).collect(Collectors.toList());
+	private CasePage toPage(CaseGroupInfo translated, ListType listType, HitlistSort sort, List<HitlistCase> queryResult) {
+		String nextCursor = null;
+		if (!queryResult.isEmpty()) {
+			HitlistCase lastCase = queryResult.get(queryResult.size() - 1);
+			nextCursor = _cursorService.encode(translated, listType, sort, lastCase);
+		}
+		return new CasePage(rewrap(queryResult), nextCursor);
+	}
+
+	/**
+	 * Turn a page of hit-list query results into {@link CaseSummary} objects, fetching the snooze and note
+	 * information for the whole page at once rather than case by case.
+	 */
+	private List<CaseSummary> rewrap(List<HitlistCase> cases) {
+		if (cases.isEmpty()) {
+			return Collections.emptyList();
+		}
+		List<Long> caseIds = cases.stream().map(HitlistCase::getInternalId).collect(Collectors.toList());
+		Map<Long, LatestCaseSnooze> snoozes = _snoozeRepo.findLatestSnoozesForCases(caseIds).stream()
+			.collect(Collectors.toMap(LatestCaseSnooze::getCaseInternalId, s -> s, (a, b) -> a));
+		Map<Long, List<CaseAttachmentAssociation>> notes = _attachmentService.findNotesForCases(caseIds);
+		return cases.stream()
+			.map(rootCase -> new CaseSummary(
+				rootCase,
+				snoozes.get(rootCase.getInternalId()),
+				notes.getOrDefault(rootCase.getInternalId(), Collections.emptyList()).stream()
+					.map(NoteSummary::new)
+					.collect(Collectors.toList())
+			))
+			.collect(Collectors.toList());
+	}
+
+	/** A destination for exported cases. */
+	@FunctionalInterface
+	public interface CaseSummarySink {
+
+		void accept(CaseSummary summary) throws IOException;
+
+		/** Called after each chunk of cases has been passed to {@link #accept(CaseSummary)}. */
+		default void flush() throws IOException {
+			// nothing to do by default
+		}
 	}
 
 	public static class CaseGroupInfo {
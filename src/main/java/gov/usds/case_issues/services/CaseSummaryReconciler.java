@@ -0,0 +1,82 @@
+package gov.usds.case_issues.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import gov.usds.case_issues.db.model.CaseManagementSystem;
+import gov.usds.case_issues.db.model.CaseSnooze;
+import gov.usds.case_issues.db.model.CaseType;
+import gov.usds.case_issues.db.repositories.CaseManagementSystemRepository;
+import gov.usds.case_issues.db.repositories.CaseTypeRepository;
+
+/**
+ * Scheduled jobs that bring the precomputed hit-list counts (and the cache in front of them) back in line
+ * with the case and issue tables: at startup, when snoozes expire (which moves cases between counts
+ * without anything being written), and periodically to catch any drift.
+ */
+@Component
+public class CaseSummaryReconciler {
+
+	private static final Logger LOG = LoggerFactory.getLogger(CaseSummaryReconciler.class);
+
+	/** One second after snoozes expire, every day. */
+	public static final String SNOOZE_EXPIRY_CRON = "1 0 " + CaseSnooze.EXPIRES_TIME + " * * *";
+	/** Half past every hour (well clear of snooze expiry). */
+	public static final String RECONCILIATION_CRON = "0 30 * * * *";
+
+	@Autowired
+	private CaseManagementSystemRepository _caseManagementSystemRepo;
+	@Autowired
+	private CaseTypeRepository _caseTypeRepo;
+	@Autowired
+	private CaseSummaryRollupService _rollupService;
+	@Autowired
+	private HitlistSummaryCache _summaryCache;
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void reconcileAtStartup() {
+		LOG.info("Recomputing hit-list summary counts at startup");
+		recomputeAll();
+		_summaryCache.clearAll();
+	}
+
+	@Scheduled(cron = SNOOZE_EXPIRY_CRON)
+	public void recomputeAtSnoozeExpiry() {
+		LOG.info("Recomputing hit-list summary counts for snooze expiry");
+		recomputeAll();
+		_summaryCache.clearAll();
+	}
+
+	/**
+	 * Recompute all the counts, warning about any that had drifted (which moves their list version on, so any
+	 * cached summaries for them are no longer used).
+	 * @return the number of case management system and case type pairs whose counts had drifted.
+	 */
+	@Scheduled(cron = RECONCILIATION_CRON)
+	public int reconcile() {
+		int drifted = 0;
+		for (CaseManagementSystem system : _caseManagementSystemRepo.findAll()) {
+			for (CaseType caseType : _caseTypeRepo.findAll()) {
+				if (_rollupService.recompute(system, caseType)) {
+					LOG.warn("Hit-list summary counts for {}/{} had drifted from the case data, and were corrected",
+						system.getExternalId(), caseType.getExternalId());
+					drifted++;
+				}
+			}
+		}
+		return drifted;
+	}
+
+	private void recomputeAll() {
+		for (CaseManagementSystem system : _caseManagementSystemRepo.findAll()) {
+			for (CaseType caseType : _caseTypeRepo.findAll()) {
+				_rollupService.recompute(system, caseType);
+			}
+		}
+	}
+}
@@ -0,0 +1,195 @@
+package gov.usds.case_issues.services;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+import javax.persistence.EntityManager;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import gov.usds.case_issues.db.model.CaseManagementSystem;
+import gov.usds.case_issues.db.model.CaseSummaryRollup;
+import gov.usds.case_issues.db.model.CaseType;
+import gov.usds.case_issues.db.model.TroubleCase;
+import gov.usds.case_issues.db.repositories.BulkCaseRepository;
+import gov.usds.case_issues.db.repositories.CaseIssueRepository;
+import gov.usds.case_issues.db.repositories.CaseSummaryRollupRepository;
+
+/**
+ * Service object for maintaining and reading the precomputed hit-list counts in {@link CaseSummaryRollup}.
+ * Uploads recompute the counts for their case type outright; snooze changes adjust the counts for the one
+ * case affected. Both happen in the same transaction as the change itself, and both lock the all-types
+ * row for the case type before reading anything, so that concurrent changes to the same counts are applied
+ * one after the other rather than over each other.
+ */
+@Service
+@Transactional(readOnly=false)
+public class CaseSummaryRollupService {
+
+	private static final Logger LOG = LoggerFactory.getLogger(CaseSummaryRollupService.class);
+
+	@Autowired
+	private CaseSummaryRollupRepository _rollupRepo;
+	@Autowired
+	private BulkCaseRepository _bulkRepo;
+	@Autowired
+	private CaseIssueRepository _issueRepo;
+	@Autowired
+	private EntityManager _entityManager;
+	@Autowired
+	private PlatformTransactionManager _transactionManager;
+
+	/**
+	 * Get the counts for all issue types together, in the same form as the results of the "summary" query
+	 * on {@link TroubleCase}.
+	 */
+	@Transactional(readOnly=true)
+	public Map<String, Object> getSummary(CaseManagementSystem system, CaseType caseType) {
+		return _rollupRepo.findByCaseManagementSystemAndCaseTypeAndIssueType(system, caseType, CaseSummaryRollup.ALL_ISSUE_TYPES)
+			.map(CaseSummaryRollup::getCounts)
+			.orElseGet(HashMap::new);
+	}
+
+	/**
+	 * Get the change counter for the hit lists of a case management system and case type (see
+	 * {@link CaseSummaryRollup#getListVersion()}).
+	 */
+	@Transactional(readOnly=true)
+	public long getListVersion(CaseManagementSystem system, CaseType caseType) {
+		return _rollupRepo.findByCaseManagementSystemAndCaseTypeAndIssueType(system, caseType, CaseSummaryRollup.ALL_ISSUE_TYPES)
+			.map(CaseSummaryRollup::getListVersion)
+			.orElse(0L);
+	}
+
+	/**
+	 * Record that something on the hit lists for a case management system and case type has changed, in a
+	 * way that might not have changed any of the counts.
+	 */
+	public void markChanged(CaseManagementSystem system, CaseType caseType) {
+		if (!findAllTypes(system, caseType).isPresent()) {
+			recompute(system, caseType);
+		}
+		lockAllTypes(system, caseType).incrementListVersion();
+	}
+
+	/** Get the counts for each issue type that has open issues, keyed by issue type. */
+	@Transactional(readOnly=true)
+	public Map<String, Map<String, Object>> getIssueTypeSummaries(CaseManagementSystem system, CaseType caseType) {
+		Map<String, Map<String, Object>> summaries = new TreeMap<>();
+		for (CaseSummaryRollup rollup : _rollupRepo.findAllByCaseManagementSystemAndCaseTypeOrderByIssueType(system, caseType)) {
+			if (!CaseSummaryRollup.ALL_ISSUE_TYPES.equals(rollup.getIssueType())) {
+				summaries.put(rollup.getIssueType(), rollup.getCounts());
+			}
+		}
+		return summaries;
+	}
+
+	/**
+	 * Recompute all the counts for a case management system and case type from the case and issue tables.
+	 * @return true if any stored count was changed.
+	 */
+	public boolean recompute(CaseManagementSystem system, CaseType caseType) {
+		_entityManager.flush();
+		CaseSummaryRollup allTypesRollup = lockAllTypes(system, caseType);
+		Map<String, Map<String, Number>> computed = new HashMap<>();
+		Map<String, Number> allTypes = new HashMap<>();
+		for (Object[] row : _bulkRepo.getSnoozeSummary(system.getInternalId(), caseType.getInternalId())) {
+			allTypes.put(((String) row[0]).trim(), (Number) row[1]);
+		}
+		computed.put(CaseSummaryRollup.ALL_ISSUE_TYPES, allTypes);
+		for (Object[] row : _bulkRepo.getIssueTypeSnoozeSummary(system.getInternalId(), caseType.getInternalId())) {
+			computed.computeIfAbsent((String) row[0], k -> new HashMap<>()).put(((String) row[1]).trim(), (Number) row[2]);
+		}
+
+		boolean changed = false;
+		for (CaseSummaryRollup rollup : _rollupRepo.findAllForUpdate(system, caseType)) {
+			Map<String, Object> stored = rollup.getCounts();
+			rollup.setCounts(computed.getOrDefault(rollup.getIssueType(), new HashMap<>()));
+			computed.remove(rollup.getIssueType());
+			if (!stored.equals(rollup.getCounts())) {
+				LOG.debug("Counts for {}/{}/{} changed from {} to {}", system.getExternalId(), caseType.getExternalId(),
+					rollup.getIssueType(), stored, rollup.getCounts());
+				changed = true;
+			}
+			if (rollup.isEmpty() && !CaseSummaryRollup.ALL_ISSUE_TYPES.equals(rollup.getIssueType())) {
+				_rollupRepo.delete(rollup);
+			}
+		}
+		for (Map.Entry<String, Map<String, Number>> missing : computed.entrySet()) {
+			CaseSummaryRollup rollup = new CaseSummaryRollup(system, caseType, missing.getKey());
+			rollup.setCounts(missing.getValue());
+			_rollupRepo.save(rollup);
+			changed = changed || !rollup.isEmpty();
+		}
+		if (changed) {
+			allTypesRollup.incrementListVersion();
+		}
+		return changed;
+	}
+
+	/**
+	 * Move a case from one snooze state count to another, in the all-types counts and in the counts for
+	 * each type of open issue it has, and record that the hit lists have changed (even if the state has
+	 * not: the snooze details may have). Does nothing if the case is not on the hit list.
+	 */
+	public void moveCase(TroubleCase changedCase, String previousState, String newState) {
+		if (changedCase.getOpenIssueCount() == 0) {
+			return;
+		}
+		CaseManagementSystem system = changedCase.getCaseManagementSystem();
+		CaseType caseType = changedCase.getCaseType();
+		CaseSummaryRollup allTypesRollup = lockAllTypes(system, caseType);
+		List<String> issueTypes = _issueRepo.findOpenIssueTypes(changedCase);
+		List<CaseSummaryRollup> rollups = _rollupRepo.findForUpdate(system, caseType, issueTypes);
+		if (rollups.size() != issueTypes.size() || allTypesRollup.isEmpty()) {
+			LOG.warn("Missing summary counts for {}/{}: recomputing", system.getExternalId(), caseType.getExternalId());
+			recompute(system, caseType);
+			allTypesRollup.incrementListVersion();
+			return;
+		}
+		if (!previousState.equals(newState)) {
+			allTypesRollup.moveCase(previousState, newState);
+			rollups.forEach(r -> r.moveCase(previousState, newState));
+		}
+		allTypesRollup.incrementListVersion();
+	}
+
+	/**
+	 * Lock and fetch the all-types row for a case management system and case type, creating it first if
+	 * there is none yet. The row is created in a transaction of its own, so that two transactions that both
+	 * find it missing do not both insert it: the one that loses the race uses the other's row instead.
+	 */
+	private CaseSummaryRollup lockAllTypes(CaseManagementSystem system, CaseType caseType) {
+		if (!findAllTypes(system, caseType).isPresent()) {
+			TransactionTemplate newTransaction = new TransactionTemplate(_transactionManager);
+			newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+			try {
+				newTransaction.execute(s -> _rollupRepo.save(new CaseSummaryRollup(system, caseType, CaseSummaryRollup.ALL_ISSUE_TYPES)));
+			} catch (DataIntegrityViolationException e) {
+				LOG.debug("Summary counts for {}/{} created concurrently", system.getExternalId(), caseType.getExternalId());
+			}
+		}
+		if (_rollupRepo.lockAllTypes(system, caseType) == 0) { // the case type or system itself is not committed yet
+			return _rollupRepo.save(new CaseSummaryRollup(system, caseType, CaseSummaryRollup.ALL_ISSUE_TYPES));
+		}
+		_entityManager.flush();
+		CaseSummaryRollup found = findAllTypes(system, caseType).get();
+		_entityManager.refresh(found);
+		return found;
+	}
+
+	private Optional<CaseSummaryRollup> findAllTypes(CaseManagementSystem system, CaseType caseType) {
+		return _rollupRepo.findByCaseManagementSystemAndCaseTypeAndIssueType(system, caseType, CaseSummaryRollup.ALL_ISSUE_TYPES);
+	}
+}
@@ -0,0 +1,170 @@
+package gov.usds.case_issues.services;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.regex.Pattern;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import gov.usds.case_issues.config.WebConfigurationProperties;
+import gov.usds.case_issues.db.model.projections.HitlistCase;
+import gov.usds.case_issues.db.repositories.HitlistPosition;
+import gov.usds.case_issues.db.repositories.HitlistSort;
+import gov.usds.case_issues.services.CaseListService.CaseGroupInfo;
+
+/**
+ * Creates and reads the opaque cursors that let a client request the next page of a hit list
+ * without our having to look up the last case of the previous page first. A cursor records the
+ * sort position of that case, and is signed so that clients cannot forge or alter one. The position is the
+ * full sort key, ending with the internal ID, so the next page starts exactly after that case even when
+ * other cases share its sort values.
+ */
+@Service
+public class HitlistCursorService {
+
+	private static final Logger LOG = LoggerFactory.getLogger(HitlistCursorService.class);
+
+	private static final String HMAC_ALGORITHM = "HmacSHA256";
+	private static final int GENERATED_KEY_BYTES = 32;
+	private static final String FIELD_SEPARATOR = "|";
+	private static final String SIGNATURE_SEPARATOR = ".";
+	private static final int LIST_TYPE_FIELD = 0;
+	private static final int SYSTEM_FIELD = 1;
+	private static final int CASE_TYPE_FIELD = 2;
+	private static final int SORT_FIELD = 3;
+	private static final int SNOOZE_END_FIELD = 4;
+	private static final int CASE_CREATION_FIELD = 5;
+	private static final int INTERNAL_ID_FIELD = 6;
+	private static final int SORT_VALUE_FIELD = 7;
+	private static final int FIELD_COUNT = 8;
+	private static final String KEY_ID_PAYLOAD = "key-id";
+	private static final int KEY_ID_LENGTH = 8;
+
+	/** The hit lists that can be paged through with a cursor. */
+	public enum ListType {
+		ACTIVE,
+		SNOOZED;
+	}
+
+	private final byte[] _signingKey;
+	private final String _keyId;
+
+	@Autowired
+	public HitlistCursorService(WebConfigurationProperties properties) {
+		String configuredKey = properties.getCursorSigningKey();
+		if (StringUtils.hasText(configuredKey)) {
+			_signingKey = configuredKey.getBytes(StandardCharsets.UTF_8);
+		} else {
+			LOG.warn("No cursor signing key configured: generating one (paging cursors will not survive a restart)");
+			_signingKey = new byte[GENERATED_KEY_BYTES];
+			new SecureRandom().nextBytes(_signingKey);
+		}
+		_keyId = Base64.getUrlEncoder().withoutPadding().encodeToString(sign(KEY_ID_PAYLOAD)).substring(0, KEY_ID_LENGTH);
+	}
+
+	/**
+	 * A short identifier for the signing key, which changes when the key does but does not reveal it:
+	 * responses that contain cursors can include it in their entity tags.
+	 */
+	public String getKeyId() {
+		return _keyId;
+	}
+
+	/**
+	 * Create a cursor pointing just past the given case.
+	 * @param group the case management system and case type of the list being paged through.
+	 * @param listType the hit list being paged through.
+	 * @param sort the order the list is being paged through in.
+	 * @param lastCase the final case on the current page.
+	 * @return a URL- and header-safe cursor string.
+	 */
+	public String encode(CaseGroupInfo group, ListType listType, HitlistSort sort, HitlistCase lastCase) {
+		HitlistPosition position = new HitlistPosition(lastCase, sort);
+		ZonedDateTime lastSnoozeEnd = position.getLastSnoozeEnd();
+		BigDecimal sortValue = position.getSortValue();
+		String payload = String.join(FIELD_SEPARATOR,
+			listType.name(),
+			group.getCaseManagementSystemId().toString(),
+			group.getCaseTypeId().toString(),
+			sort.name(),
+			lastSnoozeEnd == null ? "" : lastSnoozeEnd.toInstant().toString(),
+			position.getCaseCreation().toInstant().toString(),
+			position.getInternalId().toString(),
+			sortValue == null ? "" : sortValue.toPlainString()
+		);
+		Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+		return encoder.encodeToString(payload.getBytes(StandardCharsets.UTF_8))
+			+ SIGNATURE_SEPARATOR + encoder.encodeToString(sign(payload));
+	}
+
+	/**
+	 * Read a cursor created by {@link #encode(CaseGroupInfo, ListType, HitlistSort, HitlistCase)}.
+	 * @throws IllegalArgumentException if the cursor is malformed, has been tampered with, or was issued
+	 *     for a different list or sort order.
+	 */
+	public HitlistPosition decode(String cursor, CaseGroupInfo group, ListType listType, HitlistSort sort) {
+		int separatorIndex = cursor.indexOf(SIGNATURE_SEPARATOR);
+		if (separatorIndex < 0) {
+			throw new IllegalArgumentException("Invalid page cursor");
+		}
+		String payload;
+		byte[] signature;
+		try {
+			Base64.Decoder decoder = Base64.getUrlDecoder();
+			payload = new String(decoder.decode(cursor.substring(0, separatorIndex)), StandardCharsets.UTF_8);
+			signature = decoder.decode(cursor.substring(separatorIndex + 1));
+		} catch (IllegalArgumentException badEncoding) {
+			throw new IllegalArgumentException("Invalid page cursor", badEncoding);
+		}
+		if (!MessageDigest.isEqual(sign(payload), signature)) {
+			throw new IllegalArgumentException("Invalid page cursor");
+		}
+		String[] fields = payload.split(Pattern.quote(FIELD_SEPARATOR), -1);
+		if (fields.length != FIELD_COUNT
+				|| !listType.name().equals(fields[LIST_TYPE_FIELD])
+				|| !group.getCaseManagementSystemId().toString().equals(fields[SYSTEM_FIELD])
+				|| !group.getCaseTypeId().toString().equals(fields[CASE_TYPE_FIELD])
+				|| !sort.name().equals(fields[SORT_FIELD])) {
+			throw new IllegalArgumentException("Page cursor does not belong to this list");
+		}
+		try {
+			return new HitlistPosition(
+				fields[SNOOZE_END_FIELD].isEmpty() ? null : parseInstant(fields[SNOOZE_END_FIELD]),
+				parseInstant(fields[CASE_CREATION_FIELD]),
+				Long.valueOf(fields[INTERNAL_ID_FIELD]),
+				fields[SORT_VALUE_FIELD].isEmpty() ? null : new BigDecimal(fields[SORT_VALUE_FIELD])
+			);
+		} catch (DateTimeParseException | NumberFormatException badField) {
+			throw new IllegalArgumentException("Invalid page cursor", badField);
+		}
+	}
+
+	private static ZonedDateTime parseInstant(String value) {
+		return Instant.parse(value).atZone(ZoneOffset.UTC);
+	}
+
+	private byte[] sign(String payload) {
+		try {
+			Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+			mac.init(new SecretKeySpec(_signingKey, HMAC_ALGORITHM));
+			return mac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException("Unable to sign page cursor", e);
+		}
+	}
+}
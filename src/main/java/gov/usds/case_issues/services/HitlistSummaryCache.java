@@ -0,0 +1,71 @@
+package gov.usds.case_issues.services;
+
+import java.time.ZonedDateTime;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.stereotype.Service;
+
+import gov.usds.case_issues.db.model.CaseManagementSystem;
+import gov.usds.case_issues.db.model.CaseType;
+import gov.usds.case_issues.db.model.TroubleCase;
+
+/**
+ * Holds the cached results of {@link CaseListService#getSummaryInfo(String, String)}. Each summary is cached
+ * under the list version it was read at (see {@link CaseSummaryRollupService#getListVersion}), which every
+ * upload and snooze change moves on in the same transaction as the change itself. So once a change has
+ * committed, no instance serves a summary from before it: there is nothing to evict, and a summary loaded
+ * while the change was in flight is only ever served under the old version (and so the old entity tag).
+ * <p>
+ * Cache keys are a {@link SimpleKey} of the case management system tag, the case type tag and the list
+ * version.
+ */
+@Service
+public class HitlistSummaryCache {
+
+	private static final Logger LOG = LoggerFactory.getLogger(HitlistSummaryCache.class);
+
+	public static final String CACHE_NAME = "hitlistSummary";
+
+	@Autowired
+	private CacheManager _cacheManager;
+
+	/**
+	 * Find which of the summary counts a case is included in, given the end of its latest snooze
+	 * (the Java equivalent of {@link TroubleCase#CASE_SNOOZE_DECODE}).
+	 */
+	public static String snoozeState(ZonedDateTime lastSnoozeEnd) {
+		if (lastSnoozeEnd == null) {
+			return TroubleCase.NEVER_SNOOZED;
+		}
+		return lastSnoozeEnd.isBefore(ZonedDateTime.now()) ? TroubleCase.PREVIOUSLY_SNOOZED : TroubleCase.CURRENTLY_SNOOZED;
+	}
+
+	/**
+	 * Get the cached summary for a case type at the given list version, loading it if there is none. Only one
+	 * thread loads a given summary; any others asking for it at the same time wait for that one.
+	 */
+	public Map<String, Object> get(CaseManagementSystem system, CaseType caseType, long listVersion,
+			Callable<Map<String, Object>> loader) {
+		return getCache().get(new SimpleKey(system.getExternalId(), caseType.getExternalId(), listVersion), loader);
+	}
+
+	/**
+	 * Clear every cached summary (see {@link CaseSummaryReconciler}, which does this when snoozes expire,
+	 * since that moves cases between counts in bulk).
+	 */
+	public void clearAll() {
+		LOG.info("Clearing cached hit-list summaries");
+		getCache().clear();
+	}
+
+	private Cache getCache() {
+		return _cacheManager.getCache(CACHE_NAME);
+	}
+}
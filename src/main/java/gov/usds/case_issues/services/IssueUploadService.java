@@ -1,16 +1,35 @@
 package gov.usds.case_issues.services;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.ZonedDateTime;
-import java.util.List;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
 import org.springframework.stereotype.Service;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+
+import gov.usds.case_issues.config.WebConfigurationProperties;
 import gov.usds.case_issues.db.model.CaseIssueUpload;
+import gov.usds.case_issues.db.model.UploadMode;
 import gov.usds.case_issues.model.CaseRequest;
+import gov.usds.case_issues.model.InvalidUploadException;
+import gov.usds.case_issues.model.UploadsBusyException;
 import gov.usds.case_issues.services.CaseListService.CaseGroupInfo;
 
 @Service
@@ -18,32 +37,232 @@ import gov.usds.case_issues.services.CaseListService.CaseGroupInfo;
 public class IssueUploadService {
 
 	private static final Logger LOG = LoggerFactory.getLogger(IssueUploadService.class);
+	/** How long to let running uploads finish when the application is shut down. */
+	private static final int SHUTDOWN_WAIT_SECONDS = 60;
+	/** A quarter past every hour. */
+	public static final String ABANDONED_UPLOAD_CRON = "0 15 * * * *";
+
 	@Autowired
 	private UploadStatusService _statusService;
 	@Autowired
 	private CaseListService _listService;
+	@Autowired
+	private WebConfigurationProperties _webProperties;
+
+	/**
+	 * The workers for uploads handed off by {@link #submitIssueList}. This is not a bean, since an Executor bean
+	 * would replace the one Spring Boot provides for asynchronous MVC requests (such as hit-list exports).
+	 */
+	private ThreadPoolTaskExecutor _uploadExecutor;
 
+	@PostConstruct
+	public void startWorkers() {
+		_uploadExecutor = new ThreadPoolTaskExecutor();
+		_uploadExecutor.setThreadNamePrefix("issue-upload-");
+		_uploadExecutor.setCorePoolSize(_webProperties.getUploadWorkers());
+		_uploadExecutor.setMaxPoolSize(_webProperties.getUploadWorkers());
+		_uploadExecutor.setQueueCapacity(_webProperties.getUploadQueueCapacity());
+		_uploadExecutor.setWaitForTasksToCompleteOnShutdown(true);
+		_uploadExecutor.setAwaitTerminationSeconds(SHUTDOWN_WAIT_SECONDS);
+		_uploadExecutor.initialize();
+	}
+
+	@PreDestroy
+	public void stopWorkers() {
+		_uploadExecutor.shutdown();
+	}
+
+	/**
+	 * Fail the uploads that have gone longer than the upload timeout without finishing, and delete any spool files
+	 * that old. The work queue is held in memory, so an upload that was still queued or running when an instance
+	 * stopped would otherwise stay {@link gov.usds.case_issues.db.model.UploadStatus#STARTED} for good; and a
+	 * chunked upload that its client stopped sending would stay
+	 * {@link gov.usds.case_issues.db.model.UploadStatus#OPEN}, with its chunks staged, for good. Run at startup (when
+	 * such uploads are most likely to be found) and then hourly.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	@Scheduled(cron = ABANDONED_UPLOAD_CRON)
+	public void failAbandonedUploads() {
+		long cutoff = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(_webProperties.getUploadTimeoutMinutes());
+		int failed = _statusService.failAbandonedUploads(new Date(cutoff));
+		int deleted = UploadSpool.deleteAbandoned(cutoff);
+		if (failed > 0 || deleted > 0) {
+			LOG.warn("Failed {} abandoned uploads and deleted {} abandoned spool files", failed, deleted);
+		}
+	}
+
+	/**
+	 * Record an issue upload and hand it off to be applied in the background. The records are read and checked
+	 * first, and written to a temporary file for the background job, so a malformed upload is still rejected
+	 * here; progress after that can be followed with {@link UploadStatusService#getUploadProgress}.
+	 * @return the upload record, still in the {@link gov.usds.case_issues.db.model.UploadStatus#STARTED} state.
+	 * @throws InvalidUploadException if a record in the upload could not be read: the upload is discarded entirely.
+	 * @throws UploadsBusyException if there are already as many uploads waiting as are allowed: the upload is
+	 *     discarded, and can be tried again later.
+	 */
 	@SuppressWarnings("checkstyle:IllegalCatch")
 	@PreAuthorize("hasAuthority(T(gov.usds.case_issues.authorization.CaseIssuePermission).UPDATE_ISSUES.name())")
-	public CaseIssueUpload putIssueList(CaseGroupInfo pathInfo, String issueTypeTag, List<CaseRequest> newIssueCases,
-			ZonedDateTime eventDate) {
+	public CaseIssueUpload submitIssueList(CaseGroupInfo pathInfo, String issueTypeTag, UploadMode mode,
+			Iterator<? extends CaseRequest> newIssueCases, ZonedDateTime eventDate) {
 		CaseIssueUpload uploadStatus = _statusService.commenceUpload(
 				pathInfo.getCaseManagementSystem(),
 				pathInfo.getCaseType(),
 				issueTypeTag,
+				mode,
 				eventDate,
-				newIssueCases.size());
+				0);
+		_statusService.trackProgress(uploadStatus);
+		UploadSpool spool = null;
 		try {
-			LOG.info("Processing upload of {} cases for {}/{}/{}",
-					newIssueCases.size(),
-					uploadStatus.getCaseManagementSystem().getExternalId(),
-					uploadStatus.getCaseType().getExternalId(),
-					uploadStatus.getIssueType());
-			uploadStatus = _listService.putIssueList(uploadStatus, newIssueCases);
-		} catch (Exception e) {
-			LOG.error("Issue upload {} failed!", uploadStatus.getInternalId(), e);
-			uploadStatus = _statusService.failUpload(uploadStatus);
+			final CaseIssueUpload upload = uploadStatus;
+			spool = UploadSpool.write(mode, newIssueCases, count -> _statusService.recordParsed(upload, count));
+			LOG.info("Read {} records for upload {}: queueing it", spool.getRecordCount(), upload.getInternalId());
+			upload.setUploadedRecordCount(spool.getRecordCount());
+			upload.setContentDigest(spool.getContentDigest()); // so that an unchanged upload need not be read again
+			_uploadExecutor.execute(new DelegatingSecurityContextRunnable(applySpooledUpload(upload, spool)));
+		} catch (IOException e) {
+			abandonUpload(uploadStatus, spool);
+			throw new UncheckedIOException("Unable to spool issue upload", e);
+		} catch (TaskRejectedException e) {
+			LOG.warn("Issue upload {} turned away: too many uploads waiting", uploadStatus.getInternalId());
+			abandonUpload(uploadStatus, spool);
+			throw new UploadsBusyException();
+		} catch (InvalidUploadException e) {
+			LOG.warn("Issue upload {} rejected: {}", uploadStatus.getInternalId(), e.getMessage());
+			abandonUpload(uploadStatus, spool);
+			throw e;
+		} catch (RuntimeException e) {
+			abandonUpload(uploadStatus, spool);
+			throw e;
 		}
 		return uploadStatus;
 	}
+
+	/**
+	 * Open an upload whose records will be sent in numbered chunks (by {@link #putUploadChunk}), and applied all
+	 * together once it is committed (by {@link #commitUploadSession}).
+	 * @return the upload record, in the {@link gov.usds.case_issues.db.model.UploadStatus#OPEN} state.
+	 */
+	@PreAuthorize("hasAuthority(T(gov.usds.case_issues.authorization.CaseIssuePermission).UPDATE_ISSUES.name())")
+	public CaseIssueUpload openUploadSession(CaseGroupInfo pathInfo, String issueTypeTag, UploadMode mode, ZonedDateTime eventDate) {
+		CaseIssueUpload upload = _statusService.openUpload(
+				pathInfo.getCaseManagementSystem(),
+				pathInfo.getCaseType(),
+				issueTypeTag,
+				mode,
+				eventDate);
+		LOG.info("Opened upload {} for {}/{}/{}", upload.getInternalId(),
+				upload.getCaseManagementSystem().getExternalId(),
+				upload.getCaseType().getExternalId(),
+				upload.getIssueType());
+		return upload;
+	}
+
+	/**
+	 * Stage one chunk of an open upload. Sending a chunk again replaces whatever was staged for it before, so a
+	 * client that is not sure whether a chunk arrived can simply send it again.
+	 * @return the number of records in the chunk.
+	 * @throws InvalidUploadException if a record in the chunk could not be read: nothing in the chunk is staged,
+	 *     and the upload stays open.
+	 * @throws IllegalArgumentException if the upload is no longer open.
+	 */
+	@PreAuthorize("hasAuthority(T(gov.usds.case_issues.authorization.CaseIssuePermission).UPDATE_ISSUES.name())")
+	public long putUploadChunk(CaseGroupInfo pathInfo, Long uploadId, long chunkNumber, Iterator<? extends CaseRequest> newIssueCases) {
+		if (chunkNumber < 0) {
+			throw new IllegalArgumentException("Chunk numbers cannot be negative");
+		}
+		CaseIssueUpload upload = _statusService.getUpload(pathInfo, uploadId);
+		try {
+			long recordCount = _listService.stageIssueChunk(upload, chunkNumber, newIssueCases);
+			LOG.info("Staged {} records in chunk {} of upload {}", recordCount, chunkNumber, uploadId);
+			return recordCount;
+		} catch (InvalidUploadException e) {
+			LOG.warn("Chunk {} of upload {} rejected: {}", chunkNumber, uploadId, e.getMessage());
+			throw e;
+		}
+	}
+
+	/**
+	 * Close an open upload to further chunks and hand it off to be applied in the background, with the same
+	 * effect as if all of its staged records had been sent at once to {@link #submitIssueList}.
+	 * @return the upload record, now in the {@link gov.usds.case_issues.db.model.UploadStatus#STARTED} state.
+	 * @throws IllegalArgumentException if the upload is not open (for instance, if it was already committed).
+	 * @throws UploadsBusyException if there are already as many uploads waiting as are allowed: the upload is
+	 *     left open, and can be committed again later.
+	 */
+	@PreAuthorize("hasAuthority(T(gov.usds.case_issues.authorization.CaseIssuePermission).UPDATE_ISSUES.name())")
+	public CaseIssueUpload commitUploadSession(CaseGroupInfo pathInfo, Long uploadId) {
+		CaseIssueUpload upload = _statusService.commitUpload(_statusService.getUpload(pathInfo, uploadId));
+		_statusService.trackProgress(upload);
+		try {
+			_uploadExecutor.execute(new DelegatingSecurityContextRunnable(applyStagedUpload(upload)));
+		} catch (TaskRejectedException e) {
+			LOG.warn("Commit of upload {} turned away: too many uploads waiting", uploadId);
+			_statusService.untrackProgress(upload);
+			_statusService.reopenUpload(upload);
+			throw new UploadsBusyException();
+		}
+		return upload;
+	}
+
+	/**
+	 * Cancel an open upload, discarding whatever chunks have been sent for it.
+	 * @return the upload record, now in the {@link gov.usds.case_issues.db.model.UploadStatus#CANCELED} state.
+	 * @throws IllegalArgumentException if the upload is not open (for instance, if it was already committed).
+	 */
+	@PreAuthorize("hasAuthority(T(gov.usds.case_issues.authorization.CaseIssuePermission).UPDATE_ISSUES.name())")
+	public CaseIssueUpload cancelUploadSession(CaseGroupInfo pathInfo, Long uploadId) {
+		CaseIssueUpload upload = _statusService.cancelUpload(_statusService.getUpload(pathInfo, uploadId));
+		LOG.info("Canceled upload {}", uploadId);
+		return upload;
+	}
+
+	@SuppressWarnings("checkstyle:IllegalCatch")
+	private Runnable applySpooledUpload(CaseIssueUpload upload, UploadSpool spool) {
+		return () -> {
+			try (MappingIterator<? extends CaseRequest> records = spool.read()) {
+				LOG.info("Processing upload {} for {}/{}/{}",
+						upload.getInternalId(),
+						upload.getCaseManagementSystem().getExternalId(),
+						upload.getCaseType().getExternalId(),
+						upload.getIssueType());
+				_listService.putIssueList(upload, records);
+			} catch (Exception e) {
+				// the records were checked when they were spooled, so this is not the uploader's fault
+				LOG.error("Issue upload {} failed!", upload.getInternalId(), e);
+				_statusService.failUpload(upload);
+			} finally {
+				spool.delete();
+				_statusService.untrackProgress(upload);
+			}
+		};
+	}
+
+	@SuppressWarnings("checkstyle:IllegalCatch")
+	private Runnable applyStagedUpload(CaseIssueUpload upload) {
+		return () -> {
+			try {
+				LOG.info("Processing committed upload {} for {}/{}/{}",
+						upload.getInternalId(),
+						upload.getCaseManagementSystem().getExternalId(),
+						upload.getCaseType().getExternalId(),
+						upload.getIssueType());
+				_listService.applyStagedIssues(upload);
+			} catch (Exception e) {
+				LOG.error("Issue upload {} failed!", upload.getInternalId(), e);
+				_statusService.failUpload(upload);
+				_statusService.clearStagedRecords(upload);
+			} finally {
+				_statusService.untrackProgress(upload);
+			}
+		};
+	}
+
+	private void abandonUpload(CaseIssueUpload upload, UploadSpool spool) {
+		if (spool != null) {
+			spool.delete();
+		}
+		_statusService.untrackProgress(upload);
+		_statusService.discardUpload(upload);
+	}
 }
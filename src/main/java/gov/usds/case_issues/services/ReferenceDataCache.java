@@ -0,0 +1,78 @@
+package gov.usds.case_issues.services;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.rest.core.annotation.HandleAfterCreate;
+import org.springframework.data.rest.core.annotation.HandleAfterDelete;
+import org.springframework.data.rest.core.annotation.HandleAfterLinkDelete;
+import org.springframework.data.rest.core.annotation.HandleAfterLinkSave;
+import org.springframework.data.rest.core.annotation.HandleAfterSave;
+import org.springframework.data.rest.core.annotation.RepositoryEventHandler;
+import org.springframework.stereotype.Service;
+
+import gov.usds.case_issues.db.model.TaggedEntity;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Looks after the Hibernate second-level cache region that holds the {@link TaggedEntity} reference data.
+ * Hibernate keeps the region consistent with changes it makes itself; as a backstop, the whole region is
+ * discarded whenever one of these entities is changed through the repository REST resources, since that
+ * happens only a few times a year. The hit ratio of the region is published as the
+ * <code>reference.data.cache.hit.ratio</code> metric (NaN while Hibernate statistics are turned off).
+ */
+@Service
+@RepositoryEventHandler
+public class ReferenceDataCache implements MeterBinder {
+
+	private static final Logger LOG = LoggerFactory.getLogger(ReferenceDataCache.class);
+
+	@Autowired
+	private EntityManagerFactory _entityManagerFactory;
+
+	@HandleAfterCreate
+	@HandleAfterSave
+	@HandleAfterDelete
+	@HandleAfterLinkSave
+	@HandleAfterLinkDelete
+	public void referenceDataChanged(TaggedEntity changed) {
+		LOG.info("{} {} changed: clearing the reference data cache", changed.getClass().getSimpleName(),
+			changed.getExternalId());
+		evictAll();
+	}
+
+	/** Discard everything in the reference data cache region. */
+	public void evictAll() {
+		getSessionFactory().getCache().evictRegion(TaggedEntity.CACHE_REGION);
+	}
+
+	/** The fraction of reference data cache lookups (by ID or by tag) that found what they were looking for. */
+	public double getHitRatio() {
+		Statistics stats = getSessionFactory().getStatistics();
+		if (!stats.isStatisticsEnabled()) {
+			return Double.NaN;
+		}
+		CacheRegionStatistics region = stats.getDomainDataRegionStatistics(TaggedEntity.CACHE_REGION);
+		long lookups = region.getHitCount() + region.getMissCount();
+		return lookups == 0 ? Double.NaN : (double) region.getHitCount() / lookups;
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		Gauge.builder("reference.data.cache.hit.ratio", this, ReferenceDataCache::getHitRatio)
+			.description("Fraction of reference data (case management system, case type and attachment subtype) "
+				+ "lookups answered from the second-level cache")
+			.register(registry);
+	}
+
+	private SessionFactory getSessionFactory() {
+		return _entityManagerFactory.unwrap(SessionFactory.class);
+	}
+}
@@ -0,0 +1,59 @@
+package gov.usds.case_issues.services;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import gov.usds.case_issues.db.model.UploadMode;
+import gov.usds.case_issues.model.CaseRequest;
+
+/**
+ * A digest of the content of an issue upload, for recognizing an upload that is the same as the last one. Each
+ * record is normalized before it is added: the case creation date as an instant, and the extra data as JSON with
+ * its keys in order. So two uploads with the same records in the same order have the same digest, however their
+ * dates and keys were written.
+ */
+class UploadDigest {
+
+	private static final String ALGORITHM = "SHA-256";
+	private static final char SEPARATOR = '\u001f';
+	private static final ObjectMapper NORMALIZING_MAPPER = new ObjectMapper()
+		.enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+
+	private final MessageDigest _digest;
+
+	UploadDigest(UploadMode mode) {
+		try {
+			_digest = MessageDigest.getInstance(ALGORITHM);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("Unable to digest uploads", e);
+		}
+		update(mode.name());
+	}
+
+	void add(CaseRequest record) {
+		update(record.getReceiptNumber());
+		update(record.getCaseCreation() == null ? "" : record.getCaseCreation().toInstant().toString());
+		update(Boolean.toString(record.isClosing()));
+		try {
+			update(NORMALIZING_MAPPER.writeValueAsString(record.getExtraData()));
+		} catch (JsonProcessingException e) {
+			throw new IllegalArgumentException("Unable to serialize extra data for " + record.getReceiptNumber(), e);
+		}
+	}
+
+	/** The digest of everything added so far, base64-encoded. */
+	String finish() {
+		return Base64.getEncoder().encodeToString(_digest.digest());
+	}
+
+	private void update(String field) {
+		_digest.update(field.getBytes(StandardCharsets.UTF_8));
+		_digest.update((byte) SEPARATOR);
+	}
+}
@@ -0,0 +1,172 @@
+package gov.usds.case_issues.services;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.ZonedDateTime;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.LongConsumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+
+import gov.usds.case_issues.db.model.UploadMode;
+import gov.usds.case_issues.model.CaseRequest;
+
+/**
+ * A temporary file holding the records of an issue upload, between the request that delivered them (which
+ * checks each one as it is written here) and the background job that applies them. The records are kept
+ * one JSON object per line, with the case creation date as a string so that it comes back exactly as it went in.
+ * The file holds case data, so only the account running the application can read it.
+ */
+class UploadSpool {
+
+	private static final Logger LOG = LoggerFactory.getLogger(UploadSpool.class);
+	private static final ObjectMapper SPOOL_MAPPER = new ObjectMapper();
+	private static final String SPOOL_PREFIX = "issue-upload-";
+	private static final String SPOOL_SUFFIX = ".ndjson";
+
+	private final File _file;
+	private final long _recordCount;
+	private final String _contentDigest;
+
+	private UploadSpool(File file, long recordCount, String contentDigest) {
+		_file = file;
+		_recordCount = recordCount;
+		_contentDigest = contentDigest;
+	}
+
+	/**
+	 * Write out all the records of an upload, checking each one with {@link CaseListService#checkUploadRecord}
+	 * and taking a digest of them all (see {@link UploadDigest}) as they go.
+	 * @param progress told the number of records written so far, every {@link CaseListService#UPLOAD_CHUNK_SIZE}
+	 *     records and at the end.
+	 * @throws gov.usds.case_issues.model.InvalidUploadException if a record cannot be read or fails its check:
+	 *     the file is deleted before this is thrown.
+	 */
+	@SuppressWarnings("checkstyle:IllegalCatch")
+	static UploadSpool write(UploadMode mode, Iterator<? extends CaseRequest> records, LongConsumer progress) throws IOException {
+		File file = createSpoolFile();
+		UploadDigest digest = new UploadDigest(mode);
+		long recordCount = 0;
+		try (SequenceWriter out = SPOOL_MAPPER.writerFor(SpooledRecord.class).withRootValueSeparator("\n").writeValues(file)) {
+			while (records.hasNext()) {
+				CaseRequest record = records.next();
+				CaseListService.checkUploadRecord(record, ++recordCount);
+				digest.add(record);
+				out.write(new SpooledRecord(record));
+				if (recordCount % CaseListService.UPLOAD_CHUNK_SIZE == 0) {
+					progress.accept(recordCount);
+				}
+			}
+		} catch (IOException | RuntimeException e) {
+			deleteFile(file);
+			throw e;
+		}
+		progress.accept(recordCount);
+		return new UploadSpool(file, recordCount, digest.finish());
+	}
+
+	/**
+	 * Delete the spool files (in the temporary directory this instance uses) last written before the given time,
+	 * which were left behind by uploads that were cut off when an instance stopped.
+	 * @return the number of files deleted.
+	 */
+	static int deleteAbandoned(long writtenBeforeMillis) {
+		File[] abandoned = new File(System.getProperty("java.io.tmpdir")).listFiles((dir, name) ->
+			name.startsWith(SPOOL_PREFIX) && name.endsWith(SPOOL_SUFFIX));
+		int deleted = 0;
+		for (File file : abandoned == null ? new File[0] : abandoned) {
+			if (file.lastModified() < writtenBeforeMillis) {
+				LOG.warn("Deleting abandoned issue upload spool file {}", file);
+				deleteFile(file);
+				deleted++;
+			}
+		}
+		return deleted;
+	}
+
+	long getRecordCount() {
+		return _recordCount;
+	}
+
+	String getContentDigest() {
+		return _contentDigest;
+	}
+
+	/** Read the records back, in the order they were written. The iterator must be closed when it is finished with. */
+	MappingIterator<? extends CaseRequest> read() throws IOException {
+		return SPOOL_MAPPER.readerFor(SpooledRecord.class).readValues(_file);
+	}
+
+	void delete() {
+		deleteFile(_file);
+	}
+
+	private static File createSpoolFile() throws IOException {
+		if (!FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+			return Files.createTempFile(SPOOL_PREFIX, SPOOL_SUFFIX).toFile();
+		}
+		return Files.createTempFile(SPOOL_PREFIX, SPOOL_SUFFIX, PosixFilePermissions.asFileAttribute(
+			EnumSet.of(PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE))).toFile();
+	}
+
+	private static void deleteFile(File file) {
+		if (!file.delete()) {
+			LOG.warn("Unable to delete issue upload spool file {}", file);
+		}
+	}
+
+	/** The form a {@link CaseRequest} takes in the spool file. */
+	@JsonAutoDetect(fieldVisibility=Visibility.ANY, getterVisibility=Visibility.NONE, isGetterVisibility=Visibility.NONE)
+	private static class SpooledRecord implements CaseRequest {
+
+		private String receiptNumber;
+		private String caseCreation;
+		private Map<String, Object> extraData;
+		private boolean closing;
+
+		@SuppressWarnings("unused")
+		private SpooledRecord() {
+			/* for Jackson */
+		}
+
+		SpooledRecord(CaseRequest original) {
+			receiptNumber = original.getReceiptNumber();
+			caseCreation = original.getCaseCreation() == null ? null : original.getCaseCreation().toString();
+			extraData = original.getExtraData();
+			closing = original.isClosing();
+		}
+
+		@Override
+		public String getReceiptNumber() {
+			return receiptNumber;
+		}
+
+		@Override
+		public ZonedDateTime getCaseCreation() {
+			return caseCreation == null ? null : ZonedDateTime.parse(caseCreation);
+		}
+
+		@Override
+		public Map<String, Object> getExtraData() {
+			return extraData;
+		}
+
+		@Override
+		public boolean isClosing() {
+			return closing;
+		}
+	}
+}
@@ -2,7 +2,13 @@ package gov.usds.case_issues.services;
 
 
 import java.time.ZonedDateTime;
+import java.util.Date;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -14,24 +20,81 @@ import org.springframework.transaction.annotation.Transactional;
 import gov.usds.case_issues.db.model.CaseIssueUpload;
 import gov.usds.case_issues.db.model.CaseManagementSystem;
 import gov.usds.case_issues.db.model.CaseType;
+import gov.usds.case_issues.db.model.UploadMode;
 import gov.usds.case_issues.db.model.UploadStatus;
+import gov.usds.case_issues.db.repositories.CaseIssueRepository;
 import gov.usds.case_issues.db.repositories.CaseIssueUploadRepository;
+import gov.usds.case_issues.model.ApiModelNotFoundException;
+import gov.usds.case_issues.model.UploadProgress;
+import gov.usds.case_issues.services.CaseListService.CaseGroupInfo;
 
 @Service
 @Transactional
 public class UploadStatusService {
 
 	private static final Logger LOG = LoggerFactory.getLogger(UploadStatusService.class);
+	/** The statuses of uploads that finished without error, and so say when the hit list was last brought up to date. */
+	private static final Set<UploadStatus> COMPLETED_STATUSES = EnumSet.of(UploadStatus.SUCCESSFUL, UploadStatus.UNCHANGED);
 
 	@Autowired
 	private CaseIssueUploadRepository _uploadRepository;
+	@Autowired
+	private CaseIssueRepository _stagingRepository;
+
+	/**
+	 * Record counts for the uploads this instance is running. These cannot be read from the upload records, since
+	 * nothing an upload does is committed until it finishes.
+	 */
+	private final Map<Long, RecordCounts> _runningUploads = new ConcurrentHashMap<>();
 
 	@Transactional(readOnly=false, propagation=Propagation.REQUIRES_NEW)
-	public CaseIssueUpload commenceUpload(CaseManagementSystem sys, CaseType caseType, String issueType,
+	public CaseIssueUpload commenceUpload(CaseManagementSystem sys, CaseType caseType, String issueType, UploadMode mode,
 	        ZonedDateTime effectiveDate, int uploadedRecords) {
 		LOG.debug("Saving upload record for {}/{}/{}", sys.getExternalId(), caseType.getExternalId(), issueType);
 		return _uploadRepository.save(
-		    new CaseIssueUpload(sys, caseType, issueType, effectiveDate, uploadedRecords));
+		    new CaseIssueUpload(sys, caseType, issueType, effectiveDate, uploadedRecords, mode));
+	}
+
+	/** Record an upload whose records will be sent in chunks, and applied once it is committed. */
+	@Transactional(readOnly=false, propagation=Propagation.REQUIRES_NEW)
+	public CaseIssueUpload openUpload(CaseManagementSystem sys, CaseType caseType, String issueType, UploadMode mode,
+			ZonedDateTime effectiveDate) {
+		LOG.debug("Opening chunked upload for {}/{}/{}", sys.getExternalId(), caseType.getExternalId(), issueType);
+		CaseIssueUpload upload = new CaseIssueUpload(sys, caseType, issueType, effectiveDate, 0, mode);
+		upload.setUploadStatus(UploadStatus.OPEN);
+		return _uploadRepository.save(upload);
+	}
+
+	/**
+	 * Close an upload to further chunks, so that it can be applied. The upload is locked while it is checked, so
+	 * that it cannot be committed twice, or committed while a chunk is being staged.
+	 * @throws IllegalArgumentException if the upload is not {@link UploadStatus#OPEN}.
+	 */
+	@Transactional(readOnly=false, propagation=Propagation.REQUIRES_NEW)
+	public CaseIssueUpload commitUpload(CaseIssueUpload upload) {
+		CaseIssueUpload locked = _uploadRepository.findAndLock(upload.getInternalId())
+			.orElseThrow(() -> new ApiModelNotFoundException("Upload", String.valueOf(upload.getInternalId())));
+		if (locked.getUploadStatus() != UploadStatus.OPEN) {
+			throw new IllegalArgumentException("Upload " + locked.getInternalId() + " is not open, and cannot be committed");
+		}
+		LOG.debug("Committing upload {}", locked.getInternalId());
+		locked.setUploadStatus(UploadStatus.STARTED);
+		return _uploadRepository.save(locked);
+	}
+
+	/** Put a committed upload that could not be started back to {@link UploadStatus#OPEN}, so it can be committed again. */
+	@Transactional(readOnly=false, propagation=Propagation.REQUIRES_NEW)
+	public CaseIssueUpload reopenUpload(CaseIssueUpload upload) {
+		LOG.debug("Reopening upload {}", upload.getInternalId());
+		upload.setUploadStatus(UploadStatus.OPEN);
+		return _uploadRepository.save(upload);
+	}
+
+	/** Delete whatever records an upload still has staged (once it has failed, they will never be applied). */
+	@Transactional(readOnly=false, propagation=Propagation.REQUIRES_NEW)
+	public void clearStagedRecords(CaseIssueUpload upload) {
+		int cleared = _stagingRepository.clearStagedRecords(upload);
+		LOG.debug("Cleared {} staged records for upload {}", cleared, upload.getInternalId());
 	}
 
 	@Transactional(readOnly=false, propagation=Propagation.REQUIRES_NEW)
@@ -48,6 +111,60 @@ public class UploadStatusService {
 		return _uploadRepository.save(upload);
 	}
 
+	/**
+	 * Cancel an upload that is still open, and delete whatever records it has staged. The upload is locked while it
+	 * is checked, as in {@link #commitUpload}, so that it cannot be canceled while a chunk is being staged.
+	 * @throws IllegalArgumentException if the upload is not {@link UploadStatus#OPEN}.
+	 */
+	@Transactional(readOnly=false, propagation=Propagation.REQUIRES_NEW)
+	public CaseIssueUpload cancelUpload(CaseIssueUpload upload) {
+		CaseIssueUpload locked = _uploadRepository.findAndLock(upload.getInternalId())
+			.orElseThrow(() -> new ApiModelNotFoundException("Upload", String.valueOf(upload.getInternalId())));
+		if (locked.getUploadStatus() != UploadStatus.OPEN) {
+			throw new IllegalArgumentException("Upload " + locked.getInternalId() + " is not open, and cannot be canceled");
+		}
+		LOG.debug("Canceling upload {}", locked.getInternalId());
+		locked.setUploadStatus(UploadStatus.CANCELED);
+		_stagingRepository.clearStagedRecords(locked);
+		return _uploadRepository.save(locked);
+	}
+
+	/**
+	 * Mark as failed the uploads that have not been touched since the given time and are still not finished: those
+	 * that were started, other than any this instance is running, and those that are still open but have had no new
+	 * chunks staged since then. Whatever records they still have staged are deleted.
+	 * @return the number of uploads failed.
+	 */
+	@Transactional(readOnly=false, propagation=Propagation.REQUIRES_NEW)
+	public int failAbandonedUploads(Date idleSince) {
+		int failed = 0;
+		for (CaseIssueUpload upload : _uploadRepository.findAllByUploadStatusAndUpdatedAtBefore(UploadStatus.STARTED, idleSince)) {
+			if (_runningUploads.containsKey(upload.getInternalId())) {
+				continue;
+			}
+			LOG.warn("Upload {} was started at {} and never finished: marking it as failed",
+				upload.getInternalId(), upload.getUpdatedAt());
+			upload.setUploadStatus(UploadStatus.FAILED);
+			_stagingRepository.clearStagedRecords(upload);
+			failed++;
+		}
+		for (CaseIssueUpload upload : _uploadRepository.findAllByUploadStatusAndUpdatedAtBefore(UploadStatus.OPEN, idleSince)) {
+			LOG.warn("Upload {} has been open since {} without being committed: marking it as failed",
+				upload.getInternalId(), upload.getUpdatedAt());
+			upload.setUploadStatus(UploadStatus.FAILED);
+			_stagingRepository.clearStagedRecords(upload);
+			failed++;
+		}
+		return failed;
+	}
+
+	/** Delete the record of an upload that was rejected as invalid after it had started. */
+	@Transactional(readOnly=false, propagation=Propagation.REQUIRES_NEW)
+	public void discardUpload(CaseIssueUpload upload) {
+		LOG.debug("Discarding upload record {}", upload.getInternalId());
+		_uploadRepository.deleteById(upload.getInternalId());
+	}
+
 	/** Return <b>all</b> uploads (successful and otherwise) for this system and case type,
 	 * sorted by effective date (not by created date, unless we change our minds).
 	 */
@@ -56,13 +173,88 @@ public class UploadStatusService {
 		history.sort((a,b)->a.getEffectiveDate().compareTo(b.getEffectiveDate()));
 		return history;
 	}
+	/** Return the latest upload of this issue type to complete (whether or not it changed anything). */
 	public CaseIssueUpload getLastUpload(CaseManagementSystem sys, CaseType type, String issueTypeTag) {
-		return _uploadRepository.findFirstByCaseManagementSystemAndCaseTypeAndIssueTypeAndUploadStatusOrderByEffectiveDateDesc(
-				sys, type, issueTypeTag, UploadStatus.SUCCESSFUL).orElse(null);
+		return _uploadRepository.findFirstByCaseManagementSystemAndCaseTypeAndIssueTypeAndUploadStatusInOrderByEffectiveDateDesc(
+				sys, type, issueTypeTag, COMPLETED_STATUSES).orElse(null);
 	}
 	public CaseIssueUpload getLastUpload(CaseManagementSystem sys, CaseType type, UploadStatus successful) {
-		return _uploadRepository.findFirstByCaseManagementSystemAndCaseTypeAndUploadStatusOrderByEffectiveDateDesc(
-				sys, type, UploadStatus.SUCCESSFUL).orElse(null);
+		return _uploadRepository.findFirstByCaseManagementSystemAndCaseTypeAndUploadStatusInOrderByEffectiveDateDesc(
+				sys, type, COMPLETED_STATUSES).orElse(null);
+	}
+
+	/** Start keeping count of the records read, staged and applied by an upload, until {@link #untrackProgress} is called. */
+	@Transactional(propagation=Propagation.SUPPORTS)
+	public void trackProgress(CaseIssueUpload upload) {
+		_runningUploads.put(upload.getInternalId(), new RecordCounts());
+	}
+
+	@Transactional(propagation=Propagation.SUPPORTS)
+	public void untrackProgress(CaseIssueUpload upload) {
+		_runningUploads.remove(upload.getInternalId());
+	}
+
+	/** Record the number of records read from an upload so far (if its progress is being tracked). */
+	@Transactional(propagation=Propagation.SUPPORTS)
+	public void recordParsed(CaseIssueUpload upload, long parsedRecordCount) {
+		RecordCounts counts = _runningUploads.get(upload.getInternalId());
+		if (counts != null) {
+			counts.parsed.set(parsedRecordCount);
+		}
+	}
+
+	/** Record the number of records an upload has staged so far (if its progress is being tracked). */
+	@Transactional(propagation=Propagation.SUPPORTS)
+	public void recordStaged(CaseIssueUpload upload, long stagedRecordCount) {
+		RecordCounts counts = _runningUploads.get(upload.getInternalId());
+		if (counts != null) {
+			counts.staged.set(stagedRecordCount);
+		}
+	}
+
+	/** Record the number of records an upload has applied so far (if its progress is being tracked). */
+	@Transactional(propagation=Propagation.SUPPORTS)
+	public void recordApplied(CaseIssueUpload upload, long appliedRecordCount) {
+		RecordCounts counts = _runningUploads.get(upload.getInternalId());
+		if (counts != null) {
+			counts.applied.set(appliedRecordCount);
+		}
+	}
+
+	/**
+	 * Fetch the state of an upload for the given case management system and case type, with its progress if it is
+	 * still running on this instance, or the chunks it has received so far if it is still open. An upload that is
+	 * running but not on this instance shows no progress.
+	 */
+	@Transactional(readOnly=true)
+	public UploadProgress getUploadProgress(CaseGroupInfo pathInfo, Long id) {
+		CaseIssueUpload upload = getUpload(pathInfo, id);
+		if (upload.getUploadStatus() == UploadStatus.OPEN) {
+			long staged = _stagingRepository.countStagedRecords(upload);
+			return new UploadProgress(upload, staged, staged, 0, _stagingRepository.findStagedChunkNumbers(upload));
+		}
+		if (upload.getUploadStatus() != UploadStatus.STARTED) {
+			long recordCount = upload.getUploadedRecordCount();
+			long applied = COMPLETED_STATUSES.contains(upload.getUploadStatus()) ? recordCount : 0;
+			return new UploadProgress(upload, recordCount, recordCount, applied);
+		}
+		RecordCounts counts = _runningUploads.get(id);
+		if (counts == null) {
+			return new UploadProgress(upload, 0, 0, 0);
+		}
+		return new UploadProgress(upload, counts.parsed.get(), counts.staged.get(), counts.applied.get());
+	}
+
+	/**
+	 * Fetch an upload by ID, checking that it belongs to the given case management system and case type.
+	 * @throws ApiModelNotFoundException if there is no such upload for them.
+	 */
+	@Transactional(readOnly=true)
+	public CaseIssueUpload getUpload(CaseGroupInfo pathInfo, Long id) {
+		return _uploadRepository.findById(id)
+			.filter(u -> u.getCaseManagementSystem().getInternalId().equals(pathInfo.getCaseManagementSystemId()))
+			.filter(u -> u.getCaseType().getInternalId().equals(pathInfo.getCaseTypeId()))
+			.orElseThrow(() -> new ApiModelNotFoundException("Upload", String.valueOf(id)));
 	}
 
 	/** Simple fetch-by-ID, for something where people rarely want to know the ID: initially just for test/verification */ 
@@ -70,4 +262,10 @@ public class UploadStatusService {
 		return _uploadRepository.findById(id).orElseThrow(
 			() -> new IllegalArgumentException("Upload information not found"));
 	}
+
+	private static class RecordCounts {
+		private final AtomicLong parsed = new AtomicLong();
+		private final AtomicLong staged = new AtomicLong();
+		private final AtomicLong applied = new AtomicLong();
+	}
 }
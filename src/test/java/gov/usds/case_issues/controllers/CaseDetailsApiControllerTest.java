@@ -1,6 +1,10 @@
 package gov.usds.case_issues.controllers;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -29,6 +33,7 @@ import gov.usds.case_issues.db.model.AttachmentSubtype;
 import gov.usds.case_issues.db.model.AttachmentType;
 import gov.usds.case_issues.db.model.TroubleCase;
 import gov.usds.case_issues.db.repositories.AttachmentSubtypeRepository;
+import gov.usds.case_issues.db.repositories.TroubleCaseRepository;
 import gov.usds.case_issues.model.AttachmentRequest;
 
 @WithMockUser(authorities = {"READ_CASES", "UPDATE_CASES"})
@@ -41,6 +46,8 @@ public class CaseDetailsApiControllerTest extends ControllerTestBase {
 	private CaseManagementSystem _sys;
 	@Autowired
 	private AttachmentSubtypeRepository _subtypeRepository;
+	@Autowired
+	private TroubleCaseRepository _caseRepo;
 
 	@Before
 	public void resetDb() {
@@ -83,6 +90,37 @@ public class CaseDetailsApiControllerTest extends ControllerTestBase {
 			;
 	}
 
+	@Test
+	public void getBulkDetails_mixedReceipts_foundCasesInRequestOrder() throws Exception {
+		TroubleCase sample = initSampleCase();
+		TroubleCase other = _dataService.initCaseAndOpenIssue(_sys, "BH90211", sample.getCaseType(), ZonedDateTime.now(), "WHOOPS");
+		_dataService.attachComment(_dataService.snoozeCase(other), "Still looking");
+		_mvc.perform(bulkDetailsRequest(VALID_SYS, "[\"BH90211\", \"NOPE\", \"" + SAMPLE_CASE + "\", \"BH90211\"]"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.length()").value(2))
+			.andExpect(jsonPath("$[0].receiptNumber").value("BH90211"))
+			.andExpect(jsonPath("$[0].issues[0].issueType").value("WHOOPS"))
+			.andExpect(jsonPath("$[0].snoozes[0].snoozeReason").value("DONOTCARE"))
+			.andExpect(jsonPath("$[0].notes[0].content").value("Still looking"))
+			.andExpect(jsonPath("$[1].receiptNumber").value(SAMPLE_CASE))
+			.andExpect(jsonPath("$[1].issues").isEmpty())
+			.andExpect(jsonPath("$[1].snoozes").isEmpty())
+			.andExpect(jsonPath("$[1].notes").isEmpty())
+			;
+	}
+
+	@Test
+	public void getBulkDetails_badInput_errors() throws Exception {
+		initSampleCase();
+		_mvc.perform(bulkDetailsRequest("NOPE", "[\"" + SAMPLE_CASE + "\"]"))
+			.andExpect(status().isNotFound());
+		_mvc.perform(bulkDetailsRequest(VALID_SYS, "{\"receiptNumber\": \"" + SAMPLE_CASE + "\"}"))
+			.andExpect(status().isBadRequest());
+		_mvc.perform(bulkDetailsRequest(VALID_SYS, "[]"))
+			.andExpect(status().isOk())
+			.andExpect(content().json("[]", true));
+	}
+
 	@Test
 	@SuppressWarnings("checkstyle:MagicNumber")
 	public void snoozeOperations_noCase_notFound() throws Exception {
@@ -119,6 +157,21 @@ public class CaseDetailsApiControllerTest extends ControllerTestBase {
 			.andExpect(status().isNoContent());
 	}
 
+	@Test
+	public void snoozeOperations_validCase_lastSnoozeEndMaintained() throws Exception {
+		initSampleCase();
+		assertNull(fetchSampleCase().getLastSnoozeEnd());
+		_mvc.perform(updateSnooze(VALID_SYS, SAMPLE_CASE, "BECAUSE", 1, null))
+			.andExpect(status().isOk());
+		ZonedDateTime snoozeEnd = fetchSampleCase().getLastSnoozeEnd();
+		assertNotNull(snoozeEnd);
+		assertTrue("Snooze end should be in the future", snoozeEnd.isAfter(ZonedDateTime.now()));
+		_mvc.perform(endSnooze(VALID_SYS, SAMPLE_CASE))
+			.andExpect(status().isOk());
+		assertFalse("Snooze end should no longer be in the future",
+			fetchSampleCase().getLastSnoozeEnd().isAfter(ZonedDateTime.now()));
+	}
+
 	@Test
 	public void snoozeOperations_validCaseNoCsrf_forbidden() throws Exception {
 		TroubleCase tc = initSampleCase();
@@ -276,6 +329,10 @@ public class CaseDetailsApiControllerTest extends ControllerTestBase {
 			.andExpect(status().isBadRequest());
 	}
 
+	private TroubleCase fetchSampleCase() {
+		return _caseRepo.findByCaseManagementSystemAndReceiptNumber(_sys, SAMPLE_CASE).get();
+	}
+
 	private TroubleCase initSampleCase() {
 		CaseType type = _dataService.ensureCaseTypeInitialized("T2", "Ahnold", "Metal and scary");
 		return _dataService.initCase(_sys, SAMPLE_CASE, type, ZonedDateTime.now());
@@ -297,6 +354,13 @@ public class CaseDetailsApiControllerTest extends ControllerTestBase {
 		return get("/api/caseDetails/{caseManagementSystemTag}/{receiptNumber}", systemTag, receipt);
 	}
 
+	private MockHttpServletRequestBuilder bulkDetailsRequest(String systemTag, String receiptsJson) {
+		return post("/api/caseDetails/{caseManagementSystemTag}", systemTag)
+			.contentType("application/json")
+			.content(receiptsJson)
+			.with(csrf());
+	}
+
 	private MockHttpServletRequestBuilder getSnooze(String systemTag, String receipt) {
 		return get("/api/caseDetails/{caseManagementSystemTag}/{receiptNumber}/activeSnooze", systemTag, receipt);
 	}
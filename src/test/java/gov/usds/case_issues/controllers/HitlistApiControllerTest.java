@@ -2,11 +2,18 @@ package gov.usds.case_issues.controllers;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import java.time.ZonedDateTime;
@@ -14,15 +21,19 @@ import java.time.ZonedDateTime;
 import org.junit.Before;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 
 import gov.usds.case_issues.db.model.CaseIssueUpload;
 import gov.usds.case_issues.db.model.CaseManagementSystem;
 import gov.usds.case_issues.db.model.CaseType;
 import gov.usds.case_issues.db.model.TroubleCase;
+import gov.usds.case_issues.db.model.UploadMode;
 import gov.usds.case_issues.db.model.UploadStatus;
+import gov.usds.case_issues.db.repositories.CaseIssueRepository;
 import gov.usds.case_issues.services.UploadStatusService;
 
 @WithMockUser(username = "default_hitlist_user", authorities = "READ_CASES")
@@ -35,12 +46,16 @@ public class HitlistApiControllerTest extends ControllerTestBase {
 	private static final String ISSUE_UPLOAD_PATH = API_PATH + "{issueTag}";
 	private static final String CASE_TYPE_NOPE = "Case Type 'NOPE' was not found";
 	private static final String CASE_MANAGEMENT_SYSTEM_NOPE = "Case Management System 'NOPE' was not found";
+	private static final int AWAIT_ATTEMPTS = 100;
+	private static final long AWAIT_INTERVAL_MILLIS = 100;
 
 	private CaseManagementSystem _system;
 	private CaseType _type;
 
 	@Autowired
 	private UploadStatusService _uploadService;
+	@Autowired
+	private CaseIssueRepository _issueRepo;
 
 	@Before
 	public void resetDb() {
@@ -133,6 +148,191 @@ public class HitlistApiControllerTest extends ControllerTestBase {
 				0, _uploadService.getUploadHistory(_system, _type).size());
 	}
 
+	@Test
+	@WithMockUser(authorities = "UPDATE_ISSUES")
+	public void putJson_twoCases_accepted() throws Exception {
+		MockHttpServletRequestBuilder jsonPut = putIssues(MediaType.APPLICATION_JSON_VALUE)
+			.content("[{\"receiptNumber\": \"FKE5250608\", \"creationDate\": \"2014-08-29T00:00:00-04:00\", \"caseAge\": 1816},"
+				+ " {\"receiptNumber\": \"FKE5250609\", \"creationDate\": \"2014-08-30T00:00:00-04:00\", \"nested\": {\"a\": [1, 2]}}]");
+		perform(jsonPut).andExpect(status().isAccepted());
+		checkUploadRecord(2, 2, 0);
+	}
+
+	@Test
+	@WithMockUser(authorities = "UPDATE_ISSUES")
+	public void putJson_twoCases_statusLinked() throws Exception {
+		MvcResult accepted = perform(putIssues(MediaType.APPLICATION_JSON_VALUE)
+			.content("[{\"receiptNumber\": \"FKE5250608\", \"creationDate\": \"2014-08-29T00:00:00-04:00\"},"
+				+ " {\"receiptNumber\": \"FKE5250609\", \"creationDate\": \"2014-08-30T00:00:00-04:00\"}]"))
+			.andExpect(status().isAccepted())
+			.andExpect(header().exists(HttpHeaders.LOCATION))
+			.andExpect(jsonPath("$.uploadId").isNumber())
+			.andExpect(jsonPath("$.parsedRecordCount").value(2))
+			.andReturn();
+		String statusLocation = accepted.getResponse().getHeader(HttpHeaders.LOCATION);
+		awaitUploads();
+		perform(get(statusLocation))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.uploadStatus").value("SUCCESSFUL"))
+			.andExpect(jsonPath("$.issueType").value(VALUE_ISSUE_TYPE))
+			.andExpect(jsonPath("$.parsedRecordCount").value(2))
+			.andExpect(jsonPath("$.appliedRecordCount").value(2))
+			.andExpect(jsonPath("$.newIssueCount").value(2))
+			.andExpect(jsonPath("$.closedIssueCount").value(0));
+	}
+
+	@Test
+	@SuppressWarnings("checkstyle:MagicNumber")
+	@WithMockUser(authorities = "UPDATE_ISSUES")
+	public void getUploadStatus_unknownUpload_notFound() throws Exception {
+		perform(get(API_PATH + "uploads/{uploadId}", VALID_CASE_MGT_SYS, VALID_CASE_TYPE, 10003L))
+			.andExpect(status().isNotFound());
+	}
+
+	@Test
+	@SuppressWarnings("checkstyle:MagicNumber")
+	@WithMockUser(authorities = "UPDATE_ISSUES")
+	public void chunkedUpload_chunkSentTwice_appliedOnce() throws Exception {
+		String statusLocation = openUpload();
+		perform(putChunk(statusLocation, 0, MediaType.APPLICATION_JSON_VALUE)
+			.content("[{\"receiptNumber\": \"FKE5250608\", \"creationDate\": \"2014-08-29T00:00:00-04:00\"},"
+				+ " {\"receiptNumber\": \"FKE5250609\", \"creationDate\": \"2014-08-30T00:00:00-04:00\"}]"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.uploadStatus").value("OPEN"))
+			.andExpect(jsonPath("$.parsedRecordCount").value(2));
+		for (int attempt = 0; attempt < 2; attempt++) {
+			perform(putChunk(statusLocation, 1, "text/csv")
+				.content("receiptNumber,creationDate,caseAge\nFKE5250610,2014-08-31T00:00:00-04:00,1814\n"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.parsedRecordCount").value(3))
+				.andExpect(jsonPath("$.stagedChunks.length()").value(2));
+		}
+		perform(post(statusLocation + "/commit").with(csrf()))
+			.andExpect(status().isAccepted())
+			.andExpect(header().string(HttpHeaders.LOCATION, statusLocation));
+		checkUploadRecord(3, 3, 0);
+		perform(get(statusLocation))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.uploadStatus").value("SUCCESSFUL"))
+			.andExpect(jsonPath("$.stagedChunks").doesNotExist());
+	}
+
+	@Test
+	@WithMockUser(authorities = "UPDATE_ISSUES")
+	public void chunkedUpload_invalidChunk_rejectedAndUploadStillOpen() throws Exception {
+		String statusLocation = openUpload();
+		perform(putChunk(statusLocation, 0, MediaType.APPLICATION_JSON_VALUE)
+			.content("[{\"receiptNumber\": \"FKE5250608\", \"creationDate\": \"NOT A DATE\"}]"))
+			.andExpect(status().isBadRequest());
+		perform(get(statusLocation))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.uploadStatus").value("OPEN"))
+			.andExpect(jsonPath("$.parsedRecordCount").value(0));
+		perform(putChunk(statusLocation, -1, MediaType.APPLICATION_JSON_VALUE).content("[]"))
+			.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	@WithMockUser(authorities = "UPDATE_ISSUES")
+	public void chunkedUpload_afterCommit_badRequest() throws Exception {
+		String statusLocation = openUpload();
+		perform(post(statusLocation + "/commit").with(csrf()))
+			.andExpect(status().isAccepted());
+		perform(post(statusLocation + "/commit").with(csrf()))
+			.andExpect(status().isBadRequest());
+		awaitUploads();
+		perform(putChunk(statusLocation, 0, MediaType.APPLICATION_JSON_VALUE).content("[]"))
+			.andExpect(status().isBadRequest());
+		checkUploadRecord(0, 0, 0);
+	}
+
+	@Test
+	@WithMockUser(authorities = "UPDATE_ISSUES")
+	public void chunkedUpload_canceled_chunksDiscarded() throws Exception {
+		String statusLocation = openUpload();
+		perform(putChunk(statusLocation, 0, "text/csv")
+			.content("receiptNumber,creationDate\nFKE5250610,2014-08-31T00:00:00-04:00\n"))
+			.andExpect(status().isOk());
+		perform(delete(statusLocation).with(csrf()))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.uploadStatus").value("CANCELED"))
+			.andExpect(jsonPath("$.appliedRecordCount").value(0));
+		CaseIssueUpload canceled = _uploadService.readUploadInformation(
+			Long.valueOf(statusLocation.substring(statusLocation.lastIndexOf('/') + 1)));
+		assertEquals(0, _issueRepo.countStagedRecords(canceled));
+		perform(delete(statusLocation).with(csrf()))
+			.andExpect(status().isBadRequest());
+		perform(post(statusLocation + "/commit").with(csrf()))
+			.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	@WithMockUser(authorities = {"READ_CASES", "UPDATE_ISSUES"})
+	public void putJson_deltaMode_onlyListedIssuesChanged() throws Exception {
+		ZonedDateTime thatWasThen = ZonedDateTime.now().minusMonths(1);
+		_dataService.initOpenIssue(_dataService.initCase(_system, "FKE5250600", _type, thatWasThen), VALUE_ISSUE_TYPE);
+		_dataService.initOpenIssue(_dataService.initCase(_system, "FKE5250601", _type, thatWasThen), VALUE_ISSUE_TYPE);
+		perform(putIssues(MediaType.APPLICATION_JSON_VALUE).param("mode", "delta")
+			.content("[{\"receiptNumber\": \"FKE5250601\", \"issueAction\": \"close\"},"
+				+ " {\"receiptNumber\": \"FKE5250608\", \"creationDate\": \"2014-08-29T00:00:00-04:00\", \"issueAction\": \"open\"}]"))
+			.andExpect(status().isAccepted());
+		checkUploadRecord(2, 1, 1);
+		assertEquals(UploadMode.DELTA, _uploadService.getLastUpload(_system, _type, VALUE_ISSUE_TYPE).getUploadMode());
+		_mvc.perform(getActive(VALID_CASE_MGT_SYS, VALID_CASE_TYPE))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.length()").value(2))
+			.andExpect(jsonPath("$[?(@.receiptNumber == 'FKE5250600')]").exists())
+			.andExpect(jsonPath("$[?(@.receiptNumber == 'FKE5250608')]").exists());
+	}
+
+	@Test
+	@WithMockUser(authorities = "UPDATE_ISSUES")
+	public void putCsv_deltaModeCloseWithoutDate_accepted() throws Exception {
+		_dataService.initOpenIssue(_dataService.initCase(_system, "FKE5250601", _type, ZonedDateTime.now()), VALUE_ISSUE_TYPE);
+		perform(putIssues("text/csv").param("mode", "delta")
+			.content("receiptNumber,creationDate,issueAction\nFKE5250601,,close\n"))
+			.andExpect(status().isAccepted());
+		checkUploadRecord(1, 0, 1);
+	}
+
+	@Test
+	@WithMockUser(authorities = "UPDATE_ISSUES")
+	public void putJson_deltaModeBadAction_badRequest() throws Exception {
+		perform(putIssues(MediaType.APPLICATION_JSON_VALUE).param("mode", "delta")
+			.content("[{\"receiptNumber\": \"FKE5250601\", \"issueAction\": \"reopen\"}]"))
+			.andExpect(status().isBadRequest());
+		perform(putIssues(MediaType.APPLICATION_JSON_VALUE).param("mode", "sideways").content("[]"))
+			.andExpect(status().isBadRequest());
+		assertEquals("No upload records should exist",
+			0, _uploadService.getUploadHistory(_system, _type).size());
+	}
+
+	@Test
+	@WithMockUser(authorities = "UPDATE_ISSUES")
+	public void putJson_notAnArray_badRequest() throws Exception {
+		perform(putIssues(MediaType.APPLICATION_JSON_VALUE).content("{\"receiptNumber\": \"FKE5250608\"}"))
+			.andExpect(status().isBadRequest());
+		perform(putIssues(MediaType.APPLICATION_JSON_VALUE).content("nope"))
+			.andExpect(status().isBadRequest());
+		perform(putIssues(MediaType.APPLICATION_JSON_VALUE).content(""))
+			.andExpect(status().isBadRequest());
+		assertEquals("No upload records should exist",
+			0, _uploadService.getUploadHistory(_system, _type).size());
+	}
+
+	@Test
+	@WithMockUser(authorities = "UPDATE_ISSUES")
+	public void putJson_truncatedArray_badRequest() throws Exception {
+		perform(putIssues(MediaType.APPLICATION_JSON_VALUE)
+				.content("[{\"receiptNumber\": \"FKE5250608\", \"creationDate\": \"2014-08-29T00:00:00-04:00\"}, {\"receiptNu"))
+			.andExpect(status().isBadRequest());
+		perform(putIssues(MediaType.APPLICATION_JSON_VALUE)
+				.content("[{\"receiptNumber\": \"FKE5250608\", \"creationDate\": \"2014-08-29T00:00:00-04:00\"}, 42]"))
+			.andExpect(status().isBadRequest());
+		assertEquals("No upload records should exist",
+			0, _uploadService.getUploadHistory(_system, _type).size());
+	}
+
 	@Test
 	@WithMockUser(authorities = "UPDATE_ISSUES")
 	public void putCsv_emptyList_accepted() throws Exception {
@@ -167,6 +367,161 @@ public class HitlistApiControllerTest extends ControllerTestBase {
 			0, _uploadService.getUploadHistory(_system, _type).size());
 	}
 
+	@Test
+	@WithMockUser(authorities = {"READ_CASES", "UPDATE_ISSUES"})
+	public void putCsv_invalidRecordAfterValidRecords_badRequestNothingSaved() throws Exception {
+		MockHttpServletRequestBuilder csvPut = putIssues("text/csv")
+			.content(
+				"receiptNumber,creationDate,caseAge\n" +
+				"FKE5250608,2014-08-29T00:00:00-04:00,1816\n" +
+				"FKE5250609,2014-08-29T00:00:00-04:00,1816\n" +
+				",2014-08-29T00:00:00-04:00,1816\n"
+			);
+		perform(csvPut).andExpect(status().isBadRequest());
+		assertEquals("No upload records should exist",
+			0, _uploadService.getUploadHistory(_system, _type).size());
+		_mvc.perform(getActive(VALID_CASE_MGT_SYS, VALID_CASE_TYPE))
+			.andExpect(status().isOk())
+			.andExpect(content().json("[]", true));
+	}
+
+	@Test
+	public void getActive_followCursor_nextPageReturned() throws Exception {
+		initCaseData();
+		_dataService.initCaseAndOpenIssue(_system, "FFFF1113", _type, ZonedDateTime.now().minusDays(1), "FOOBAR");
+		String cursor = _mvc.perform(getActive(VALID_CASE_MGT_SYS, VALID_CASE_TYPE).param("size", "1"))
+			.andExpect(status().isOk())
+			.andExpect(content().json("[{'receiptNumber': 'FFFF1111'}]", false))
+			.andExpect(header().exists(HitlistApiController.NEXT_PAGE_CURSOR_HEADER))
+			.andReturn().getResponse().getHeader(HitlistApiController.NEXT_PAGE_CURSOR_HEADER);
+		cursor = _mvc.perform(getActive(VALID_CASE_MGT_SYS, VALID_CASE_TYPE).param("size", "1").param("cursor", cursor))
+			.andExpect(status().isOk())
+			.andExpect(content().json("[{'receiptNumber': 'FFFF1113'}]", false))
+			.andReturn().getResponse().getHeader(HitlistApiController.NEXT_PAGE_CURSOR_HEADER);
+		_mvc.perform(getActive(VALID_CASE_MGT_SYS, VALID_CASE_TYPE).param("size", "1").param("cursor", cursor))
+			.andExpect(status().isOk())
+			.andExpect(content().json("[]", true))
+			.andExpect(header().doesNotExist(HitlistApiController.NEXT_PAGE_CURSOR_HEADER));
+		_mvc.perform(getSnoozed(VALID_CASE_MGT_SYS, VALID_CASE_TYPE).param("cursor", cursor))
+			.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	public void getActive_withFilters_filteredResult() throws Exception {
+		ZonedDateTime thatWasThen = ZonedDateTime.now().minusMonths(1);
+		_dataService.initCaseAndOpenIssue(_system, "FFFF1111", _type, thatWasThen, "FOOBAR", "caseStatus", "Pending", "channelType", "Pigeon");
+		_dataService.initCaseAndOpenIssue(_system, "FFFF1112", _type, thatWasThen, "FOOBAR", "caseStatus", "Pending", "channelType", "Mail");
+		_dataService.initCaseAndOpenIssue(_system, "FFFF1113", _type, thatWasThen, "FOOBAR", "caseStatus", "Done", "channelType", "Pigeon");
+		_mvc.perform(getActive(VALID_CASE_MGT_SYS, VALID_CASE_TYPE).param("filter", "caseStatus:Pending", "channelType:Pigeon"))
+			.andExpect(status().isOk())
+			.andExpect(content().json("[{'receiptNumber': 'FFFF1111'}]", false))
+		;
+		_mvc.perform(getSnoozed(VALID_CASE_MGT_SYS, VALID_CASE_TYPE).param("filter", "caseStatus:Pending"))
+			.andExpect(status().isOk())
+			.andExpect(content().json("[]", true))
+		;
+		_mvc.perform(getActive(VALID_CASE_MGT_SYS, VALID_CASE_TYPE).param("filter", "caseStatus"))
+			.andExpect(status().isBadRequest())
+		;
+	}
+
+	@Test
+	public void getActive_currentEntityTag_notModified() throws Exception {
+		initCaseData();
+		String etag = _mvc.perform(getActive(VALID_CASE_MGT_SYS, VALID_CASE_TYPE))
+			.andExpect(status().isOk())
+			.andExpect(header().exists(HttpHeaders.ETAG))
+			.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		_mvc.perform(getActive(VALID_CASE_MGT_SYS, VALID_CASE_TYPE).header(HttpHeaders.IF_NONE_MATCH, etag))
+			.andExpect(status().isNotModified())
+			.andExpect(header().string(HttpHeaders.ETAG, etag))
+			.andExpect(content().string(""));
+		_mvc.perform(getSummary(VALID_CASE_MGT_SYS, VALID_CASE_TYPE).header(HttpHeaders.IF_NONE_MATCH, etag))
+			.andExpect(status().isNotModified());
+
+		_dataService.snoozeCase(_dataService.initCaseAndOpenIssue(_system, "FFFF1113", _type, ZonedDateTime.now(), "FOOBAR"));
+		_mvc.perform(getActive(VALID_CASE_MGT_SYS, VALID_CASE_TYPE).header(HttpHeaders.IF_NONE_MATCH, etag))
+			.andExpect(status().isOk());
+		_mvc.perform(get(API_PATH + "snoozed", VALID_CASE_MGT_SYS, VALID_CASE_TYPE).header(HttpHeaders.IF_NONE_MATCH, etag))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.length()").value(2));
+	}
+
+	@Test
+	@WithMockUser(authorities = {"READ_CASES", "UPDATE_ISSUES"})
+	public void getSummary_uploadWithSameCounts_entityTagChanged() throws Exception {
+		initCaseData();
+		String etag = _mvc.perform(getSummary(VALID_CASE_MGT_SYS, VALID_CASE_TYPE))
+			.andExpect(status().isOk())
+			.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		_mvc.perform(putIssues("application/json").content("[]"))
+			.andExpect(status().isAccepted());
+		awaitUploads();
+		_mvc.perform(getSummary(VALID_CASE_MGT_SYS, VALID_CASE_TYPE).header(HttpHeaders.IF_NONE_MATCH, etag))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.lastUpdated").isString());
+	}
+
+	@Test
+	public void getActive_withSort_sortedResult() throws Exception {
+		ZonedDateTime thatWasThen = ZonedDateTime.now().minusMonths(1);
+		_dataService.initCaseAndOpenIssue(_system, "FFFF1111", _type, thatWasThen, "FOOBAR");
+		_dataService.initCaseAndOpenIssue(_system, "FFFF1112", _type, thatWasThen.plusDays(1), "FOOBAR");
+		_mvc.perform(getActive(VALID_CASE_MGT_SYS, VALID_CASE_TYPE).param("sort", "CREATED_DESC"))
+			.andExpect(status().isOk())
+			.andExpect(content().json("[{'receiptNumber': 'FFFF1112'}, {'receiptNumber': 'FFFF1111'}]", false))
+		;
+		_mvc.perform(getActive(VALID_CASE_MGT_SYS, VALID_CASE_TYPE).param("sort", "DROP TABLE"))
+			.andExpect(status().isBadRequest())
+		;
+		_mvc.perform(getActive(VALID_CASE_MGT_SYS, VALID_CASE_TYPE).param("sort", "SNOOZE_END_ASC"))
+			.andExpect(status().isBadRequest())
+		;
+	}
+
+	@Test
+	public void exportActive_withData_ndjsonStreamed() throws Exception {
+		initCaseData();
+		_dataService.initCaseAndOpenIssue(_system, "FFFF1113", _type, ZonedDateTime.now().minusDays(1), "FOOBAR");
+		MvcResult result = _mvc.perform(exportCases("active"))
+			.andExpect(request().asyncStarted())
+			.andReturn();
+		String[] lines = _mvc.perform(asyncDispatch(result))
+			.andExpect(status().isOk())
+			.andExpect(content().contentType("application/x-ndjson"))
+			.andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"F1-C1-active.ndjson\""))
+			.andReturn().getResponse().getContentAsString().split("\n");
+		assertEquals(2, lines.length);
+		assertTrue(lines[0].contains("\"receiptNumber\":\"FFFF1111\""));
+		assertTrue(lines[1].contains("\"receiptNumber\":\"FFFF1113\""));
+	}
+
+	@Test
+	public void exportSnoozed_withData_csvStreamed() throws Exception {
+		initCaseData();
+		MvcResult result = _mvc.perform(exportCases("snoozed").param("format", "csv"))
+			.andExpect(request().asyncStarted())
+			.andReturn();
+		String[] lines = _mvc.perform(asyncDispatch(result))
+			.andExpect(status().isOk())
+			.andExpect(content().contentType("text/csv"))
+			.andReturn().getResponse().getContentAsString().split("\n");
+		assertEquals(2, lines.length);
+		assertEquals("receiptNumber,caseCreation,previouslySnoozed,snoozeReason,snoozeStart,snoozeEnd,noteCount,extraData", lines[0]);
+		assertTrue(lines[1].startsWith("FFFF1112,"));
+		assertTrue(lines[1].contains(",false,DONOTCARE,"));
+		assertTrue(lines[1].endsWith(",0,{}"));
+	}
+
+	@Test
+	public void exportActive_badInput_errors() throws Exception {
+		_mvc.perform(exportCases("active").param("format", "xml"))
+			.andExpect(status().isBadRequest());
+		_mvc.perform(get(API_PATH + "active/export", VALID_CASE_MGT_SYS, "NOPE"))
+			.andExpect(status().isNotFound())
+			.andExpect(jsonPath("message").value(CASE_TYPE_NOPE));
+	}
+
 	@Test
 	public void getSummary_dataNeverAdded_noLastActive() throws Exception {
 		initCaseData();
@@ -176,6 +531,16 @@ public class HitlistApiControllerTest extends ControllerTestBase {
 	}
 
 
+	@Test
+	public void getIssueTypeSummary_withData_countsByIssueType() throws Exception {
+		initCaseData();
+		_mvc.perform(get(API_PATH + "summary/issue-types", VALID_CASE_MGT_SYS, VALID_CASE_TYPE))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.FOOBAR.NEVER_SNOOZED").value(1))
+			.andExpect(jsonPath("$.FOOBAR.CURRENTLY_SNOOZED").value(1));
+	}
+
+
 	@Test
 	@WithMockUser(authorities = {"READ_CASES", "UPDATE_ISSUES"})
 	public void getSummary_emptyCasesAdded_lastActviePresent() throws Exception {
@@ -187,6 +552,7 @@ public class HitlistApiControllerTest extends ControllerTestBase {
 				"receiptNumber,creationDate,caseAge,channelType,caseState,i90SP,caseStatus,applicationReason,caseId,caseSubstatus\n" +
 				"FKE5250608,2014-08-29T00:00:00-04:00,1816,Pigeon,Happy,true,Eschewing Obfuscation,Boredom,43375,Scrutinizing\n"
 		)).andExpect(status().isAccepted());
+		awaitUploads();
 
 		_mvc.perform(getSummary(VALID_CASE_MGT_SYS, VALID_CASE_TYPE))
 			.andExpect(status().isOk())
@@ -207,6 +573,16 @@ public class HitlistApiControllerTest extends ControllerTestBase {
 			.andExpect(content().json("[]", true));
 	}
 
+	@Test
+	public void search_withSize_limitedResult() throws Exception {
+		initCaseData();
+		perform(doSearch(VALID_CASE_MGT_SYS, VALID_CASE_TYPE, "FFFF").param("size", "1"))
+			.andExpect(status().isOk())
+			.andExpect(content().json("[{\"receiptNumber\": \"FFFF1111\"}]", false));
+		perform(doSearch(VALID_CASE_MGT_SYS, VALID_CASE_TYPE, "FFFF").param("size", "1000"))
+			.andExpect(status().isBadRequest());
+	}
+
 	@Test
 	public void search_invalidInput_badRequest() throws Exception {
 		perform(doSearch(VALID_CASE_MGT_SYS, VALID_CASE_TYPE, "ab cde"))
@@ -231,7 +607,8 @@ public class HitlistApiControllerTest extends ControllerTestBase {
 		_dataService.snoozeCase(case2);
 	}
 
-	private void checkUploadRecord(int recordCount, int newIssues, int closedIssues) {
+	private void checkUploadRecord(int recordCount, int newIssues, int closedIssues) throws InterruptedException {
+		awaitUploads();
 		CaseIssueUpload uploadInfo = _uploadService.getLastUpload(_system, _type, VALUE_ISSUE_TYPE);
 		assertNotNull(uploadInfo);
 		assertEquals(UploadStatus.SUCCESSFUL, uploadInfo.getUploadStatus());
@@ -240,6 +617,32 @@ public class HitlistApiControllerTest extends ControllerTestBase {
 		assertEquals(recordCount, uploadInfo.getUploadedRecordCount());
 	}
 
+	/** Wait for any uploads that are still being applied in the background to finish. */
+	private void awaitUploads() throws InterruptedException {
+		for (int i = 0; i < AWAIT_ATTEMPTS; i++) {
+			if (_uploadService.getUploadHistory(_system, _type).stream().noneMatch(u -> u.getUploadStatus() == UploadStatus.STARTED)) {
+				return;
+			}
+			Thread.sleep(AWAIT_INTERVAL_MILLIS);
+		}
+		fail("Uploads did not finish in time");
+	}
+
+	/** Open a chunked upload, returning the location of its status. */
+	private String openUpload() throws Exception {
+		return perform(post(ISSUE_UPLOAD_PATH + "/uploads", VALID_CASE_MGT_SYS, VALID_CASE_TYPE, VALUE_ISSUE_TYPE).with(csrf()))
+			.andExpect(status().isCreated())
+			.andExpect(jsonPath("$.uploadStatus").value("OPEN"))
+			.andExpect(jsonPath("$.stagedChunks").isEmpty())
+			.andReturn().getResponse().getHeader(HttpHeaders.LOCATION);
+	}
+
+	private static MockHttpServletRequestBuilder putChunk(String statusLocation, int chunkNumber, String contentType) {
+		return put(statusLocation + "/chunks/" + chunkNumber)
+			.contentType(contentType)
+			.with(csrf());
+	}
+
 	private static MockHttpServletRequestBuilder doSearch(String cmsTag, String ctTag, String queryString) {
 		return get(API_PATH + "search", cmsTag, ctTag).param("query", queryString);
 	}
@@ -247,6 +650,10 @@ public class HitlistApiControllerTest extends ControllerTestBase {
 		return get(API_PATH + "active", cmsTag, ctTag);
 	}
 
+	private static MockHttpServletRequestBuilder exportCases(String listName) {
+		return get(API_PATH + listName + "/export", VALID_CASE_MGT_SYS, VALID_CASE_TYPE);
+	}
+
 	private static MockHttpServletRequestBuilder getSnoozed(String cmsTag, String ctTag) {
 		return get(API_PATH + "snoozed", cmsTag, ctTag);
 	}
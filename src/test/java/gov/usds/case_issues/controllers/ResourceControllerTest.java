@@ -24,6 +24,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.rest.webmvc.support.RepositoryEntityLinks;
 import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.security.test.context.support.WithAnonymousUser;
 import org.springframework.security.test.context.support.WithMockUser;
@@ -34,6 +35,7 @@ import gov.usds.case_issues.db.model.CaseManagementSystem;
 import gov.usds.case_issues.db.model.CaseSnooze;
 import gov.usds.case_issues.db.model.CaseType;
 import gov.usds.case_issues.db.model.TroubleCase;
+import gov.usds.case_issues.db.repositories.CaseTypeRepository;
 
 @WithMockUser(authorities = "UPDATE_STRUCTURE")
 public class ResourceControllerTest extends ControllerTestBase {
@@ -45,6 +47,10 @@ public class ResourceControllerTest extends ControllerTestBase {
 
 	@Autowired
 	private RepositoryEntityLinks links;
+	@Autowired
+	private CaseTypeRepository _caseTypeRepo;
+	@Autowired
+	private JdbcTemplate _jdbc;
 	@Value("${spring.data.rest.basePath}")
 	private String basePath;
 
@@ -126,6 +132,18 @@ public class ResourceControllerTest extends ControllerTestBase {
 		;
 	}
 
+	@Test
+	public void createCaseType_cachedReferenceData_cacheCleared() throws Exception {
+		truncateDb();
+		createFixtureEntities();
+		assertEquals("Request For Any and Every Type of Benefit",
+			_caseTypeRepo.findByExternalId(FIXTURE_FORM_TAG).get().getName());
+		// change the cached type behind Hibernate's back, then make a change through the REST resources
+		_jdbc.update("UPDATE case_type SET name = ? WHERE external_id = ?", "Renamed Form", FIXTURE_FORM_TAG);
+		doCreate(CaseType.class, taggedResourceBody("FORM_2", "Another Form", "A newer form"));
+		assertEquals("Renamed Form", _caseTypeRepo.findByExternalId(FIXTURE_FORM_TAG).get().getName());
+	}
+
 	// not doing every possible entity, but doing all the unsafe operations on at least one resource
 	@Test
 	public void unsafeOperations_noCsrf_forbidden() throws Exception {
@@ -6,6 +6,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 import org.junit.Before;
 import org.junit.Test;
+import org.springframework.http.HttpHeaders;
 import org.springframework.security.test.context.support.WithMockUser;
 
 @WithMockUser
@@ -49,6 +50,19 @@ public class SystemNavigationControllerTest extends ControllerTestBase {
 
 	}
 
+	@Test
+	public void getNavigationInformation_currentEntityTag_notModified() throws Exception {
+		_dataService.ensureCaseManagementSystemInitialized("YO", "Your case manager");
+		String etag = perform(get("/api/navigation"))
+			.andExpect(status().isOk())
+			.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		perform(get("/api/navigation").header(HttpHeaders.IF_NONE_MATCH, etag))
+			.andExpect(status().isNotModified());
+		_dataService.ensureCaseTypeInitialized("W2", "Income Reporting", "That form you get every January");
+		perform(get("/api/navigation").header(HttpHeaders.IF_NONE_MATCH, etag))
+			.andExpect(status().isOk());
+	}
+
 	@Test
 	public void getNavigationInformation_badOrigin_forbidden() throws Exception {
 		perform(get("/api/navigation").header("Origin", ORIGIN_NOT_OK))
@@ -0,0 +1,62 @@
+package gov.usds.case_issues.db.repositories;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+@SuppressWarnings("checkstyle:MagicNumber")
+public class InListChunksTest {
+
+	@Test
+	public void query_valuesSpanSeveralChunks_oneQueryPerChunk() {
+		List<List<Integer>> chunks = new ArrayList<>();
+		List<Integer> results = InListChunks.query(Arrays.asList(1, 2, 3, 4, 5, 6, 7), 3, chunk -> {
+			chunks.add(new ArrayList<>(chunk));
+			return chunk;
+		});
+		assertEquals(Arrays.asList(1, 2, 3, 4, 5, 6, 7), results);
+		assertEquals(Arrays.asList(Arrays.asList(1, 2, 3), Arrays.asList(4, 5, 6), Arrays.asList(7)), chunks);
+	}
+
+	@Test
+	public void query_exactMultipleOfChunkSize_noEmptyChunk() {
+		List<Integer> chunkSizes = new ArrayList<>();
+		InListChunks.query(Arrays.asList(1, 2, 3, 4), 2, chunk -> {
+			chunkSizes.add(chunk.size());
+			return chunk;
+		});
+		assertEquals(Arrays.asList(2, 2), chunkSizes);
+	}
+
+	@Test
+	public void query_noValues_noQueries() {
+		List<Object> results = InListChunks.query(Collections.emptyList(), chunk -> {
+			throw new AssertionError("Query should not run");
+		});
+		assertEquals(Collections.emptyList(), results);
+	}
+
+	@Test
+	public void query_defaultChunkSize_smallChunks() {
+		List<Integer> values = new ArrayList<>();
+		for (int i = 0; i < InListChunks.DEFAULT_CHUNK_SIZE * 2 + 1; i++) {
+			values.add(i);
+		}
+		List<Integer> chunkSizes = new ArrayList<>();
+		InListChunks.query(values, chunk -> {
+			chunkSizes.add(chunk.size());
+			return chunk;
+		});
+		assertEquals(Arrays.asList(InListChunks.DEFAULT_CHUNK_SIZE, InListChunks.DEFAULT_CHUNK_SIZE, 1), chunkSizes);
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void query_zeroChunkSize_exception() {
+		InListChunks.query(Arrays.asList(1), 0, chunk -> chunk);
+	}
+}
@@ -1,18 +1,24 @@
 package gov.usds.case_issues.db.repositories;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+import javax.persistence.EntityManager;
 import javax.validation.ConstraintViolationException;
 
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.id.enhanced.PooledLoOptimizer;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 import org.junit.Before;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -21,6 +27,7 @@ import org.springframework.transaction.annotation.Transactional;
 import gov.usds.case_issues.db.model.CaseManagementSystem;
 import gov.usds.case_issues.db.model.CaseType;
 import gov.usds.case_issues.db.model.TroubleCase;
+import gov.usds.case_issues.db.model.WriteOnceEntity;
 import gov.usds.case_issues.test_util.CaseIssueApiTestBase;
 
 @Transactional(readOnly=false)
@@ -32,6 +39,8 @@ public class TroubleCaseRepositoryTest extends CaseIssueApiTestBase {
 
 	@Autowired
 	private TroubleCaseRepository _repo;
+	@Autowired
+	private EntityManager _entityManager;
 
 	@Before
 	public void resetDb() {
@@ -77,4 +86,48 @@ public class TroubleCaseRepositoryTest extends CaseIssueApiTestBase {
 		}
 		_repo.getAllByCaseManagementSystemAndReceiptNumberIn(m1, receipts);
 	}
+
+	@Test
+	@SuppressWarnings("checkstyle:MagicNumber")
+	public void getFirst5ByCaseManagementSystemAndCaseTypeAndReceiptNumberContains_manyMatches_firstFiveFound() {
+		CaseManagementSystem m1 = _dataService.ensureCaseManagementSystemInitialized("M1", "System 1", null);
+		CaseType t1 = _dataService.ensureCaseTypeInitialized("T1", "Ahnold", "Terminated");
+		ZonedDateTime now = ZonedDateTime.now();
+		for (int i = 0; i < 7; i++) {
+			_dataService.initCase(m1, "FXYZ" + i, t1, now);
+		}
+		_dataService.initCase(m1, "F123", t1, now);
+		List<TroubleCase> found = _repo.getFirst5ByCaseManagementSystemAndCaseTypeAndReceiptNumberContains(m1, t1, "XYZ");
+		assertEquals(5, found.size());
+		found.forEach(c -> assertTrue(c.getReceiptNumber().contains("XYZ")));
+	}
+
+	@Test
+	public void idGenerator_defaultConfiguration_sequenceValuesStartBlocks() {
+		SequenceStyleGenerator generator = (SequenceStyleGenerator) _entityManager.getEntityManagerFactory()
+			.unwrap(SessionFactoryImplementor.class).getMetamodel().entityPersister(TroubleCase.class).getIdentifierGenerator();
+		assertTrue(generator.getOptimizer() instanceof PooledLoOptimizer);
+		assertEquals(WriteOnceEntity.ID_ALLOCATION_SIZE, generator.getOptimizer().getIncrementSize());
+	}
+
+	@Test
+	@SuppressWarnings("checkstyle:MagicNumber")
+	public void saveAll_manyCases_insertsBatched() {
+		CaseManagementSystem m1 = _dataService.ensureCaseManagementSystemInitialized("M1", "System 1", null);
+		CaseType t1 = _dataService.ensureCaseTypeInitialized("T1", "Ahnold", "Terminated");
+		int caseCount = WriteOnceEntity.ID_ALLOCATION_SIZE - 1;
+		List<TroubleCase> cases = new ArrayList<>();
+		for (int i = 0; i < caseCount; i++) {
+			cases.add(new TroubleCase(m1, String.format("B%04d", i), t1, ZonedDateTime.now(), Collections.emptyMap()));
+		}
+		_entityManager.flush();
+		long statements = measureStatistics(() -> {
+			_repo.saveAll(cases);
+			_entityManager.flush();
+		}, stats -> {
+			assertEquals(caseCount, stats.getEntityInsertCount());
+			return stats.getPrepareStatementCount();
+		});
+		assertTrue("one insert statement, and at most two sequence calls, but found " + statements, statements <= 3);
+	}
 }
@@ -0,0 +1,126 @@
+package gov.usds.case_issues.services;
+
+import static org.junit.Assert.assertEquals;
+
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.stat.Statistics;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import gov.usds.case_issues.db.model.CaseManagementSystem;
+import gov.usds.case_issues.db.model.CaseSnooze;
+import gov.usds.case_issues.db.model.CaseType;
+import gov.usds.case_issues.db.model.TroubleCase;
+import gov.usds.case_issues.model.ApiModelNotFoundException;
+import gov.usds.case_issues.model.CaseDetails;
+import gov.usds.case_issues.test_util.CaseIssueApiTestBase;
+
+@SuppressWarnings("checkstyle:MagicNumber")
+public class CaseDetailsServiceTest extends CaseIssueApiTestBase {
+
+	private static final String SYS_TAG = "DETAILED";
+
+	@Autowired
+	private CaseDetailsService _service;
+	@Autowired
+	private EntityManagerFactory _entityManagerFactory;
+
+	private CaseManagementSystem _system;
+	private CaseType _type;
+
+	@Before
+	public void reset() {
+		truncateDb();
+		_system = _dataService.ensureCaseManagementSystemInitialized(SYS_TAG, "Very detailed");
+		_type = _dataService.ensureCaseTypeInitialized("BULK", "Bulky");
+	}
+
+	@Test
+	public void findCaseDetails_manyCases_fixedNumberOfStatements() {
+		List<String> fewReceipts = initCases("FEW", 2);
+		List<String> manyReceipts = initCases("MANY", 12);
+		long fewStatements = countStatements(() -> assertEquals(2, _service.findCaseDetails(SYS_TAG, fewReceipts).size()));
+		long manyStatements = countStatements(() -> assertEquals(12, _service.findCaseDetails(SYS_TAG, manyReceipts).size()));
+		assertEquals(fewStatements, manyStatements);
+	}
+
+	@Test
+	public void findCaseDetails_severalCases_detailsMatchSingleLookup() {
+		List<String> receipts = initCases("SAME", 3);
+		List<CaseDetails> bulk = _service.findCaseDetails(SYS_TAG, receipts);
+		for (int i = 0; i < receipts.size(); i++) {
+			CaseDetails single = _service.findCaseDetails(SYS_TAG, receipts.get(i));
+			assertEquals(single.getReceiptNumber(), bulk.get(i).getReceiptNumber());
+			assertEquals(single.getIssues().size(), bulk.get(i).getIssues().size());
+			assertEquals(single.getSnoozes().size(), bulk.get(i).getSnoozes().size());
+			assertEquals(
+				single.getNotes().stream().map(n -> n.getContent()).collect(Collectors.toList()),
+				bulk.get(i).getNotes().stream().map(n -> n.getContent()).collect(Collectors.toList()));
+		}
+	}
+
+	@Test
+	public void findCaseByTags_newCase_resolvedFromNaturalIdCache() {
+		String receipt = initCases("CACHED", 1).get(0);
+		assertEquals("lookups after insert", 0, countNaturalIdQueries(() -> {
+			assertEquals(receipt, _service.findCaseByTags(SYS_TAG, receipt).getReceiptNumber());
+			assertEquals(receipt, _service.findCaseByTags(SYS_TAG, receipt).getReceiptNumber());
+		}));
+		_entityManagerFactory.getCache().evictAll();
+		assertEquals("lookups with a cold cache", 1, countNaturalIdQueries(() -> {
+			assertEquals(receipt, _service.findCaseByTags(SYS_TAG, receipt).getReceiptNumber());
+			assertEquals(receipt, _service.findCaseByTags(SYS_TAG, receipt).getReceiptNumber());
+		}));
+	}
+
+	@Test(expected=ApiModelNotFoundException.class)
+	public void findCaseByTags_unknownReceipt_exception() {
+		_service.findCaseByTags(SYS_TAG, "NOPE");
+	}
+
+	@Test(expected=ApiModelNotFoundException.class)
+	public void findCaseDetails_invalidSystem_exception() {
+		_service.findCaseDetails("NOPE", Arrays.asList("A"));
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void findCaseDetails_nullList_exception() {
+		_service.findCaseDetails(SYS_TAG, (List<String>) null);
+	}
+
+	/** Create cases with between zero and two issues and notes each, and at most one snooze. */
+	private List<String> initCases(String prefix, int count) {
+		ZonedDateTime start = ZonedDateTime.now().minusDays(30);
+		List<String> receipts = Arrays.asList(new String[count]);
+		for (int i = 0; i < count; i++) {
+			receipts.set(i, prefix + i);
+			TroubleCase troubleCase = _dataService.initCase(_system, receipts.get(i), _type, start);
+			for (int j = 0; j < i % 3; j++) {
+				_dataService.initIssue(troubleCase, "ISSUE" + j, start.plusDays(j), null);
+			}
+			if (i % 2 == 1) {
+				CaseSnooze snooze = _dataService.snoozeCase(troubleCase);
+				for (int j = 0; j < i % 3; j++) {
+					_dataService.attachComment(snooze, "Note " + j + " on " + receipts.get(i));
+				}
+			}
+		}
+		return receipts;
+	}
+
+	private long countStatements(Runnable operation) {
+		return measureStatistics(operation, Statistics::getPrepareStatementCount);
+	}
+
+	private long countNaturalIdQueries(Runnable operation) {
+		return measureStatistics(operation, Statistics::getNaturalIdQueryExecutionCount);
+	}
+
+}
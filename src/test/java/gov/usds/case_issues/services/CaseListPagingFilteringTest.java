@@ -1,9 +1,14 @@
 package gov.usds.case_issues.services;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 
+import java.nio.charset.StandardCharsets;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.Base64;
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -17,6 +22,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import gov.usds.case_issues.db.model.CaseManagementSystem;
 import gov.usds.case_issues.db.model.CaseType;
 import gov.usds.case_issues.db.model.TroubleCase;
+import gov.usds.case_issues.model.CasePage;
 import gov.usds.case_issues.model.CaseSummary;
 import gov.usds.case_issues.test_util.CaseIssueApiTestBase;
 
@@ -29,6 +35,9 @@ public class CaseListPagingFilteringTest extends CaseIssueApiTestBase {
 	private static final ZonedDateTime START_DATE = ZonedDateTime.of(2000, 5, 21, 12, 0, 0, 0, ZoneId.of("GMT"));
 
 	private static final int PAGE_SIZE = 3;
+	private static final List<String> NO_FILTERS = Collections.emptyList();
+	private static final String DEFAULT_SORT = null;
+	private static final String NEWEST_FIRST = "created_desc";
 
 	private static final Logger LOG = LoggerFactory.getLogger(CaseListPagingFilteringTest.class);
 
@@ -142,16 +151,15 @@ public class CaseListPagingFilteringTest extends CaseIssueApiTestBase {
 		assertCaseOrder(foundCases, FixtureCase.ACTIVE04, FixtureCase.ACTIVE02, FixtureCase.ACTIVE03);
 	}
 
-	/** This test validates and documents a behavior of active-case sorting that we probably do not want to maintain
-	 * in the long run */
+	/** {@link FixtureCase#ACTIVE02}, {@link FixtureCase#ACTIVE03} and {@link FixtureCase#DESNOOZED03} share a creation date */
 	@Test
-	public void getActiveCases_interStitialPage_weirdBehaviorIsStable() {
+	public void getActiveCases_interStitialPage_tiedCasesNotRepeated() {
 		List<CaseSummary> foundCases = _service.getActiveCases(SYSTEM, CASE_TYPE, FixtureCase.ACTIVE02.name(), PAGE_SIZE);
 		assertEquals(PAGE_SIZE, foundCases.size());
 		assertCaseOrder(foundCases, FixtureCase.ACTIVE03, FixtureCase.DESNOOZED03, FixtureCase.ACTIVE05);
 		foundCases = _service.getActiveCases(SYSTEM, CASE_TYPE, FixtureCase.ACTIVE03.name(), PAGE_SIZE);
 		assertEquals(PAGE_SIZE, foundCases.size());
-		assertCaseOrder(foundCases, FixtureCase.ACTIVE02, FixtureCase.DESNOOZED03, FixtureCase.ACTIVE05);
+		assertCaseOrder(foundCases, FixtureCase.DESNOOZED03, FixtureCase.ACTIVE05, FixtureCase.DESNOOZED04);
 	}
 
 	@Test
@@ -190,6 +198,85 @@ public class CaseListPagingFilteringTest extends CaseIssueApiTestBase {
 		assertCaseOrder(foundCases, FixtureCase.SNOOZED04, FixtureCase.SNOOZED03);
 	}
 
+	@Test
+	public void getActiveCasePage_followCursor_correctResult() {
+		CasePage firstPage = _service.getActiveCasePage(SYSTEM, CASE_TYPE, null, null, NO_FILTERS, DEFAULT_SORT, PAGE_SIZE);
+		assertCaseOrder(firstPage.getCases(), FixtureCase.ACTIVE01, FixtureCase.DESNOOZED02, FixtureCase.DESNOOZED01);
+		assertNotNull(firstPage.getNextCursor());
+		CasePage secondPage = _service.getActiveCasePage(SYSTEM, CASE_TYPE, null, firstPage.getNextCursor(), NO_FILTERS, DEFAULT_SORT, PAGE_SIZE);
+		assertCaseOrder(secondPage.getCases(), FixtureCase.ACTIVE04, FixtureCase.ACTIVE02, FixtureCase.ACTIVE03);
+		/* ACTIVE03 and DESNOOZED03 share a creation date, on either side of the page boundary */
+		CasePage thirdPage = _service.getActiveCasePage(SYSTEM, CASE_TYPE, null, secondPage.getNextCursor(), NO_FILTERS, DEFAULT_SORT, PAGE_SIZE);
+		assertCaseOrder(thirdPage.getCases(), FixtureCase.DESNOOZED03, FixtureCase.ACTIVE05, FixtureCase.DESNOOZED04);
+		CasePage lastPage = _service.getActiveCasePage(SYSTEM, CASE_TYPE, null, thirdPage.getNextCursor(), NO_FILTERS, DEFAULT_SORT, PAGE_SIZE);
+		assertEquals(0, lastPage.getCases().size());
+	}
+
+	@Test
+	public void getSnoozedCasePage_followCursor_correctResult() {
+		CasePage firstPage = _service.getSnoozedCasePage(SYSTEM, CASE_TYPE, null, null, NO_FILTERS, DEFAULT_SORT, PAGE_SIZE);
+		assertCaseOrder(firstPage.getCases(), FixtureCase.SNOOZED05, FixtureCase.SNOOZED02, FixtureCase.SNOOZED01);
+		CasePage secondPage = _service.getSnoozedCasePage(SYSTEM, CASE_TYPE, null, firstPage.getNextCursor(), NO_FILTERS, DEFAULT_SORT, PAGE_SIZE);
+		assertCaseOrder(secondPage.getCases(), FixtureCase.SNOOZED04, FixtureCase.SNOOZED03);
+		CasePage lastPage = _service.getSnoozedCasePage(SYSTEM, CASE_TYPE, null, secondPage.getNextCursor(), NO_FILTERS, DEFAULT_SORT, PAGE_SIZE);
+		assertEquals(0, lastPage.getCases().size());
+		assertNull(lastPage.getNextCursor());
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void getSnoozedCasePage_activeListCursor_exception() {
+		String activeCursor = _service.getActiveCasePage(SYSTEM, CASE_TYPE, null, null, NO_FILTERS, DEFAULT_SORT, PAGE_SIZE).getNextCursor();
+		_service.getSnoozedCasePage(SYSTEM, CASE_TYPE, null, activeCursor, NO_FILTERS, DEFAULT_SORT, PAGE_SIZE);
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void getActiveCasePage_tamperedCursor_exception() {
+		String cursor = _service.getActiveCasePage(SYSTEM, CASE_TYPE, null, null, NO_FILTERS, DEFAULT_SORT, PAGE_SIZE).getNextCursor();
+		String payload = new String(Base64.getUrlDecoder().decode(cursor.substring(0, cursor.indexOf('.'))), StandardCharsets.UTF_8);
+		String forged = Base64.getUrlEncoder().withoutPadding().encodeToString(payload.replaceAll("\\|\\d+\\|$", "|1|").getBytes(StandardCharsets.UTF_8))
+			+ cursor.substring(cursor.indexOf('.'));
+		_service.getActiveCasePage(SYSTEM, CASE_TYPE, null, forged, NO_FILTERS, DEFAULT_SORT, PAGE_SIZE);
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void getActiveCasePage_garbageCursor_exception() {
+		_service.getActiveCasePage(SYSTEM, CASE_TYPE, null, "not a cursor", NO_FILTERS, DEFAULT_SORT, PAGE_SIZE);
+	}
+
+	@Test
+	public void getActiveCasePage_newestFirst_allPagesInOrder() {
+		CasePage page = _service.getActiveCasePage(SYSTEM, CASE_TYPE, null, null, NO_FILTERS, NEWEST_FIRST, PAGE_SIZE);
+		assertCaseOrder(page.getCases(), FixtureCase.DESNOOZED04, FixtureCase.ACTIVE05, FixtureCase.DESNOOZED03);
+		page = _service.getActiveCasePage(SYSTEM, CASE_TYPE, null, page.getNextCursor(), NO_FILTERS, NEWEST_FIRST, PAGE_SIZE);
+		assertCaseOrder(page.getCases(), FixtureCase.ACTIVE03, FixtureCase.ACTIVE02, FixtureCase.ACTIVE04);
+		page = _service.getActiveCasePage(SYSTEM, CASE_TYPE, null, page.getNextCursor(), NO_FILTERS, NEWEST_FIRST, PAGE_SIZE);
+		assertCaseOrder(page.getCases(), FixtureCase.DESNOOZED01, FixtureCase.DESNOOZED02, FixtureCase.ACTIVE01);
+		page = _service.getActiveCasePage(SYSTEM, CASE_TYPE, null, page.getNextCursor(), NO_FILTERS, NEWEST_FIRST, PAGE_SIZE);
+		assertEquals(0, page.getCases().size());
+	}
+
+	@Test
+	public void getActiveCasePage_newestFirstFromReceipt_correctResult() {
+		List<CaseSummary> foundCases = _service.getActiveCasePage(SYSTEM, CASE_TYPE, FixtureCase.ACTIVE03.name(), null,
+				NO_FILTERS, NEWEST_FIRST, PAGE_SIZE).getCases();
+		assertCaseOrder(foundCases, FixtureCase.ACTIVE02, FixtureCase.ACTIVE04, FixtureCase.DESNOOZED01);
+	}
+
+	@Test
+	public void getSnoozedCasePage_newestFirst_correctResult() {
+		CasePage firstPage = _service.getSnoozedCasePage(SYSTEM, CASE_TYPE, null, null, NO_FILTERS, NEWEST_FIRST, PAGE_SIZE);
+		assertCaseOrder(firstPage.getCases(), FixtureCase.SNOOZED05, FixtureCase.SNOOZED04, FixtureCase.SNOOZED03);
+		CasePage secondPage = _service.getSnoozedCasePage(SYSTEM, CASE_TYPE, null, firstPage.getNextCursor(), NO_FILTERS,
+				NEWEST_FIRST, PAGE_SIZE);
+		assertCaseOrder(secondPage.getCases(), FixtureCase.SNOOZED01, FixtureCase.SNOOZED02);
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void getActiveCasePage_cursorFromOtherSort_exception() {
+		String cursor = _service.getActiveCasePage(SYSTEM, CASE_TYPE, null, null, NO_FILTERS, DEFAULT_SORT, PAGE_SIZE).getNextCursor();
+		_service.getActiveCasePage(SYSTEM, CASE_TYPE, null, cursor, NO_FILTERS, NEWEST_FIRST, PAGE_SIZE);
+	}
+
 	private static void assertCaseOrder(List<CaseSummary> foundCases, FixtureCase... expected) {
 		List<String> foundReceipts = foundCases.stream().map(CaseSummary::getReceiptNumber).collect(Collectors.toList());
 		List<String> expectedReceipts = Stream.of(expected).map(FixtureCase::name).collect(Collectors.toList());
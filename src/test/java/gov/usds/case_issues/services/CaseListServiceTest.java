@@ -5,14 +5,18 @@ import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.isA;
 import static org.hamcrest.Matchers.hasProperty;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.io.IOException;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -21,28 +25,38 @@ import java.util.stream.Collectors;
 
 import javax.validation.ConstraintViolationException;
 
+import org.hibernate.stat.Statistics;
+
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.test.context.support.WithMockUser;
 
 import gov.usds.case_issues.config.DataFormatSpec;
+import gov.usds.case_issues.config.WebConfigurationProperties;
 import gov.usds.case_issues.db.model.CaseIssue;
 import gov.usds.case_issues.db.model.CaseIssueUpload;
 import gov.usds.case_issues.db.model.CaseManagementSystem;
+import gov.usds.case_issues.db.model.CaseSnooze;
 import gov.usds.case_issues.db.model.CaseType;
 import gov.usds.case_issues.db.model.TroubleCase;
+import gov.usds.case_issues.db.model.UploadMode;
 import gov.usds.case_issues.db.model.UploadStatus;
+import gov.usds.case_issues.db.model.WriteOnceEntity;
 import gov.usds.case_issues.db.model.projections.CaseIssueSummary;
 import gov.usds.case_issues.db.repositories.CaseIssueRepository;
 import gov.usds.case_issues.db.repositories.TroubleCaseRepository;
 import gov.usds.case_issues.model.ApiModelNotFoundException;
+import gov.usds.case_issues.model.CasePage;
 import gov.usds.case_issues.model.CaseRequest;
 import gov.usds.case_issues.model.CaseSummary;
+import gov.usds.case_issues.model.NoteSummary;
 import gov.usds.case_issues.services.CaseListService.CaseGroupInfo;
+import gov.usds.case_issues.services.HitlistCursorService.ListType;
 import gov.usds.case_issues.test_util.CaseIssueApiTestBase;
 
 @SuppressWarnings("checkstyle:MagicNumber")
@@ -57,6 +71,8 @@ public class CaseListServiceTest extends CaseIssueApiTestBase {
 	private TroubleCaseRepository _caseRepo;
 	@Autowired
 	private CaseIssueRepository _issueRepo;
+	@Autowired
+	private JdbcTemplate _jdbc;
 
 	@Rule
 	public ExpectedException expected = ExpectedException.none();
@@ -117,18 +133,18 @@ public class CaseListServiceTest extends CaseIssueApiTestBase {
 
 	@Test
 	public void getCases_noQuery_noCasesReturned() {
-		List<TroubleCase> cases = _service.getCases(VALID_SYS_TAG, VALID_TYPE_TAG, "");
+		List<TroubleCase> cases = _service.getCases(VALID_SYS_TAG, VALID_TYPE_TAG, "", null);
 		assertEquals(0, cases.size());
 	}
 
 	@Test(expected=ConstraintViolationException.class)
 	public void getCases_invalidSystemTag_exception() {
-		_service.getCases("hello\nworld", VALID_TYPE_TAG, "Woof");
+		_service.getCases("hello\nworld", VALID_TYPE_TAG, "Woof", null);
 	}
 
 	@Test(expected=ConstraintViolationException.class)
 	public void getCases_invalidTypeTag_exception() {
-		_service.getCases(VALID_SYS_TAG, "hello\nworld", "Woof");
+		_service.getCases(VALID_SYS_TAG, "hello\nworld", "Woof", null);
 	}
 
 	@Test(expected=ConstraintViolationException.class)
@@ -159,12 +175,52 @@ public class CaseListServiceTest extends CaseIssueApiTestBase {
 			_now
 		);
 
-		List<TroubleCase> cases = _service.getCases(VALID_SYS_TAG, VALID_TYPE_TAG, receiptNumber);
+		List<TroubleCase> cases = _service.getCases(VALID_SYS_TAG, VALID_TYPE_TAG, receiptNumber, null);
 
 		assertEquals(1, cases.size());
 		assertEquals(receiptNumber, cases.get(0).getReceiptNumber());
 	}
 
+	@Test
+	@SuppressWarnings("checkstyle:MagicNumber")
+	public void getCases_prefixAndInfixMatches_prefixMatchesFirst() {
+		initSearchCases("XAB10", "AB130", "AB120", "YAB105", "ZZZ99");
+		assertEquals(Arrays.asList("AB120", "AB130", "XAB10", "YAB105"), searchReceipts("AB1", null));
+		assertEquals(Arrays.asList("AB120", "AB130", "XAB10", "YAB105"), searchReceipts("AB1", 4));
+		assertEquals(Arrays.asList("AB120", "AB130", "XAB10"), searchReceipts("AB1", 3));
+		assertEquals(Arrays.asList("XAB10", "YAB105"), searchReceipts("AB10", null));
+	}
+
+	@Test
+	public void getCases_shortQuery_prefixMatchesOnly() {
+		initSearchCases("XAB10", "AB30", "B40");
+		assertEquals(Arrays.asList("B40"), searchReceipts("B", null));
+		assertEquals(Arrays.asList("AB30"), searchReceipts("A", null));
+	}
+
+	@Test
+	public void getCases_manyMatches_defaultLimitApplied() {
+		initSearchCases("Q1", "Q2", "Q3", "Q4", "Q5", "Q6", "Q7");
+		assertEquals(Arrays.asList("Q1", "Q2", "Q3", "Q4", "Q5"), searchReceipts("Q", null));
+	}
+
+	@Test
+	public void getCases_likeWildcardInQuery_matchedLiterally() {
+		initSearchCases("WILD_CARD", "WILDXCARD");
+		assertEquals(Arrays.asList("WILD_CARD"), searchReceipts("WILD_", null));
+		assertEquals(Arrays.asList("WILD_CARD"), searchReceipts("D_C", null));
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void getCases_zeroLimit_exception() {
+		_service.getCases(VALID_SYS_TAG, VALID_TYPE_TAG, "A", 0);
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void getCases_excessiveLimit_exception() {
+		_service.getCases(VALID_SYS_TAG, VALID_TYPE_TAG, "A", WebConfigurationProperties.DEFAULT_SEARCH_RESULT_MAX_LIMIT + 1);
+	}
+
 	@Test(expected=ConstraintViolationException.class)
 	public void getActiveCases_invalidSystemTag_exception() {
 		_service.getActiveCases("hello\nworld", VALID_TYPE_TAG, null, 1);
@@ -326,6 +382,345 @@ public class CaseListServiceTest extends CaseIssueApiTestBase {
 		_caseRepo.findAll().forEach(c -> assertTrue(c.getOpenIssues().isEmpty()));
 	}
 
+	@Test
+	@SuppressWarnings("checkstyle:MagicNumber")
+	public void getSnoozedCases_snoozesAndNotes_statementCountIndependentOfPageSize() {
+		for (int i = 0; i < 10; i++) {
+			TroubleCase tc = _dataService.initCaseAndOpenIssue(_system, "N" + i, _type, _now.minusDays(i), "OLD");
+			CaseSnooze snooze = _dataService.snoozeCase(tc);
+			_dataService.attachComment(snooze, "First note on " + i);
+			_dataService.attachComment(snooze, "Second note on " + i);
+		}
+		long singleCaseStatements = countStatements(() -> _service.getSnoozedCases(VALID_SYS_TAG, VALID_TYPE_TAG, null, 1));
+		long fullPageStatements = countStatements(() -> {
+			List<CaseSummary> page = _service.getSnoozedCases(VALID_SYS_TAG, VALID_TYPE_TAG, null, 10);
+			assertEquals(10, page.size());
+			page.forEach(c -> {
+				String caseNumber = c.getReceiptNumber().substring(1);
+				assertEquals(
+					new HashSet<>(Arrays.asList("First note on " + caseNumber, "Second note on " + caseNumber)),
+					c.getNotes().stream().map(NoteSummary::getContent).collect(Collectors.toSet())
+				);
+				assertEquals("DONOTCARE", c.getSnoozeInformation().getSnoozeReason());
+			});
+		});
+		assertEquals("statements for a full page", singleCaseStatements, fullPageStatements);
+		long emptyPageStatements = countStatements(() -> _service.getActiveCases(VALID_SYS_TAG, VALID_TYPE_TAG, null, 10));
+		assertEquals("rewrapping an empty page skips the snooze and note queries", singleCaseStatements - 2, emptyPageStatements);
+	}
+
+	@Test
+	@SuppressWarnings("checkstyle:MagicNumber")
+	public void getSnoozedCases_noNotes_noCasesOrSnoozesLoadedAsEntities() {
+		for (int i = 0; i < 10; i++) {
+			_dataService.snoozeCase(_dataService.initCaseAndOpenIssue(_system, "N" + i, _type, _now.minusDays(i), "OLD"));
+		}
+		long emptyPageLoads = countEntityLoads(() -> _service.getActiveCases(VALID_SYS_TAG, VALID_TYPE_TAG, null, 10));
+		long fullPageLoads = countEntityLoads(() -> {
+			List<CaseSummary> page = _service.getSnoozedCases(VALID_SYS_TAG, VALID_TYPE_TAG, null, 10);
+			assertEquals(10, page.size());
+			page.forEach(c -> assertEquals("DONOTCARE", c.getSnoozeInformation().getSnoozeReason()));
+		});
+		assertEquals("entities loaded for a full page", emptyPageLoads, fullPageLoads);
+	}
+
+	@Test
+	@WithMockUser(authorities="UPDATE_ISSUES")
+	public void exportCases_severalChunks_allCasesExportedInOrder() throws IOException {
+		int caseCount = CaseListService.EXPORT_CHUNK_SIZE * 2 + 1;
+		List<CaseRequest> newIssueCases = new ArrayList<>();
+		for (int i = 0; i < caseCount; i++) {
+			newIssueCases.add(new CaseRequestImpl(String.format("E%04d", i)));
+		}
+		wrappedPutIssueList(VALID_SYS_TAG, VALID_TYPE_TAG, "EXPORTED", newIssueCases, _now);
+		_dataService.snoozeCase(fetchCase("E0000"));
+
+		List<String> exported = new ArrayList<>();
+		long activeCount = _service.exportCases(VALID_SYS_TAG, VALID_TYPE_TAG, ListType.ACTIVE, c -> exported.add(c.getReceiptNumber()));
+		assertEquals(caseCount - 1, activeCount);
+		assertEquals(caseCount - 1, exported.size());
+		assertEquals(caseCount - 1, new HashSet<>(exported).size());
+		assertFalse(exported.contains("E0000"));
+
+		exported.clear();
+		assertEquals(1, _service.exportCases(VALID_SYS_TAG, VALID_TYPE_TAG, ListType.SNOOZED, c -> exported.add(c.getReceiptNumber())));
+		assertEquals(Collections.singletonList("E0000"), exported);
+	}
+
+	@Test
+	@SuppressWarnings("checkstyle:MagicNumber")
+	@WithMockUser(authorities="UPDATE_ISSUES")
+	public void getActiveCasePage_extraDataFilters_matchingCasesReturned() {
+		Map<String, Object> pendingYoung = new HashMap<>();
+		pendingYoung.put("caseStatus", "Pending");
+		pendingYoung.put("caseAge", 5);
+		pendingYoung.put("i90SP", true);
+		Map<String, Object> pendingOld = new HashMap<>(pendingYoung);
+		pendingOld.put("caseAge", 500);
+		Map<String, Object> done = new HashMap<>(pendingYoung);
+		done.put("caseStatus", "Done");
+		done.put("i90SP", false);
+		wrappedPutIssueList(VALID_SYS_TAG, VALID_TYPE_TAG, "FILTERED", Arrays.asList(
+			new CaseRequestImpl("F1", pendingYoung),
+			new CaseRequestImpl("F2", pendingOld),
+			new CaseRequestImpl("F3", done)
+		), _now);
+
+		assertEquals(3, filteredReceipts().size());
+		assertEquals(new HashSet<>(Arrays.asList("F1", "F2")), filteredReceipts("caseStatus:Pending"));
+		assertEquals(Collections.singleton("F2"), filteredReceipts("caseStatus:Pending", "caseAge:500"));
+		assertEquals(Collections.singleton("F3"), filteredReceipts("i90SP:false"));
+		assertEquals(Collections.singleton("F3"), filteredReceipts("caseStatus:\"Done\""));
+		assertEquals(Collections.emptySet(), filteredReceipts("caseAge:\"5\""));
+		assertEquals(Collections.emptySet(), filteredReceipts("noSuchKey:Pending"));
+	}
+
+	@Test
+	@SuppressWarnings("checkstyle:MagicNumber")
+	@WithMockUser(authorities="UPDATE_ISSUES")
+	public void getActiveCasePage_caseAgeSort_allPagesInOrder() {
+		wrappedPutIssueList(VALID_SYS_TAG, VALID_TYPE_TAG, "AGED", Arrays.asList(
+			new CaseRequestImpl("AGE400", Collections.singletonMap("caseAge", 400)),
+			new CaseRequestImpl("AGE300A", Collections.singletonMap("caseAge", 300)),
+			new CaseRequestImpl("AGE300B", Collections.singletonMap("caseAge", 300)),
+			new CaseRequestImpl("AGE10", Collections.singletonMap("caseAge", 10)),
+			new CaseRequestImpl("AGEWORDS", Collections.singletonMap("caseAge", "very old")),
+			new CaseRequestImpl("AGELESS"),
+			new CaseRequestImpl("AGEFRACTION", Collections.singletonMap("caseAge", 2.5))
+		), _now);
+		assertEquals(
+			Arrays.asList("AGE400", "AGE300A", "AGE300B", "AGE10", "AGEFRACTION", "AGEWORDS", "AGELESS"),
+			sortedReceipts("case_age_desc", 2)
+		);
+	}
+
+	@Test
+	public void getActiveCasePage_tiedCreationDatesAcrossPages_eachCaseOnce() {
+		List<String> expected = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			expected.add(_dataService.initCaseAndOpenIssue(_system, "TIE" + i, _type, _now, "TIED").getReceiptNumber());
+		}
+		assertEquals(expected, pagedReceipts(ListType.ACTIVE, null, 2));
+	}
+
+	@Test
+	public void getSnoozedCasePage_tiedSnoozeEndsAcrossPages_eachCaseOnce() {
+		snoozedCase("SOONEST", _now, 2);
+		snoozedCase("TIE3", _now.minusDays(1), 5);
+		snoozedCase("TIE1", _now.minusDays(3), 5);
+		snoozedCase("TIE2", _now.minusDays(2), 5);
+		snoozedCase("TIE4", _now, 5);
+		snoozedCase("LATEST", _now.minusDays(10), 10);
+		assertEquals(Arrays.asList("SOONEST", "TIE1", "TIE2", "TIE3", "TIE4", "LATEST"), pagedReceipts(ListType.SNOOZED, null, 2));
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void getActiveCasePage_unknownSort_exception() {
+		_service.getActiveCasePage(VALID_SYS_TAG, VALID_TYPE_TAG, null, null, null, "receipt_number", 1);
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void getActiveCasePage_snoozedOnlySort_exception() {
+		_service.getActiveCasePage(VALID_SYS_TAG, VALID_TYPE_TAG, null, null, null, "snooze_end_asc", 1);
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void parseExtraDataFilters_missingKey_exception() {
+		_service.parseExtraDataFilters(Collections.singletonList(":Pending"));
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void parseExtraDataFilters_repeatedKey_exception() {
+		_service.parseExtraDataFilters(Arrays.asList("caseStatus:Pending", "caseStatus:Done"));
+	}
+
+	@Test
+	public void parseExtraDataFilters_variousValues_correctlyTyped() {
+		Map<String, Object> parsed = _service.parseExtraDataFilters(
+			Arrays.asList("a:1", "b:true", "c:\"1\"", "d:plain text", "e:with:colon", "f:"));
+		assertEquals(1, parsed.get("a"));
+		assertEquals(Boolean.TRUE, parsed.get("b"));
+		assertEquals("1", parsed.get("c"));
+		assertEquals("plain text", parsed.get("d"));
+		assertEquals("with:colon", parsed.get("e"));
+		assertEquals("", parsed.get("f"));
+	}
+
+	@Test
+	@WithMockUser(authorities="UPDATE_ISSUES")
+	public void putIssueList_overlappingIssueTypes_openIssueCountMaintained() {
+		ZonedDateTime then = _now.minusMonths(1);
+		TroubleCase a1 = _dataService.initCase(_system, "A1", _type, then);
+		_dataService.initOpenIssue(a1, "FIRST");
+		_dataService.initOpenIssue(a1, "SECOND");
+		_dataService.initCase(_system, "A2", _type, then);
+		assertEquals(2, fetchCase("A1").getOpenIssueCount());
+		assertEquals(0, fetchCase("A2").getOpenIssueCount());
+
+		wrappedPutIssueList(VALID_SYS_TAG, VALID_TYPE_TAG, "FIRST", Collections.singletonList(new CaseRequestImpl("A2")), _now);
+		assertEquals(1, fetchCase("A1").getOpenIssueCount());
+		assertEquals(1, fetchCase("A2").getOpenIssueCount());
+
+		wrappedPutIssueList(VALID_SYS_TAG, VALID_TYPE_TAG, "SECOND", Collections.emptyList(), _now);
+		wrappedPutIssueList(VALID_SYS_TAG, VALID_TYPE_TAG, "FIRST", Collections.singletonList(new CaseRequestImpl("A1")), _now);
+		assertEquals(1, fetchCase("A1").getOpenIssueCount());
+		assertEquals(0, fetchCase("A2").getOpenIssueCount());
+		assertEquals(1, _service.getActiveCases(VALID_SYS_TAG, VALID_TYPE_TAG, null, 2).size());
+	}
+
+	@Test
+	@WithMockUser(authorities="UPDATE_ISSUES")
+	public void putIssueList_severalChunks_issuesOpenedAndClosed() {
+		ZonedDateTime then = _now.minusMonths(1);
+		String issueType = "CHUNKY";
+		int uploadSize = CaseListService.UPLOAD_CHUNK_SIZE * 2 + 1;
+		String lastReceipt = "R" + (uploadSize - 1);
+		_dataService.initOpenIssue(_dataService.initCase(_system, "R0", _type, then), issueType);
+		_dataService.initOpenIssue(_dataService.initCase(_system, lastReceipt, _type, then), issueType);
+		_dataService.initOpenIssue(_dataService.initCase(_system, "GONE1", _type, then), issueType);
+		_dataService.initOpenIssue(_dataService.initCase(_system, "GONE2", _type, then), issueType);
+		List<CaseRequest> requested = new ArrayList<>();
+		for (int i = 0; i < uploadSize; i++) {
+			requested.add(new CaseRequestImpl("R" + i));
+		}
+		requested.add(new CaseRequestImpl("R0", Collections.singletonMap("repeated", true))); // in the last chunk
+
+		CaseIssueUpload uploadInfo = wrappedPutIssueList(VALID_SYS_TAG, VALID_TYPE_TAG, issueType, requested, _now);
+		assertEquals(uploadSize + 1, uploadInfo.getUploadedRecordCount());
+		assertEquals(Long.valueOf(uploadSize - 2), uploadInfo.getNewIssueCount());
+		assertEquals(Long.valueOf(2), uploadInfo.getClosedIssueCount());
+		assertEquals(UploadStatus.SUCCESSFUL, uploadInfo.getUploadStatus());
+		assertEquals(1, fetchCase("R0").getOpenIssueCount());
+		assertEquals(true, fetchCase("R0").getExtraData().get("repeated"));
+		assertEquals(1, fetchCase("R" + CaseListService.UPLOAD_CHUNK_SIZE).getOpenIssueCount());
+		assertEquals(1, fetchCase(lastReceipt).getOpenIssueCount());
+		assertEquals(0, fetchCase("GONE1").getOpenIssueCount());
+		assertEquals(0, fetchCase("GONE2").getOpenIssueCount());
+		assertEquals("staged receipt numbers cleaned up",
+			Long.valueOf(0), _jdbc.queryForObject("SELECT COUNT(*) FROM case_issue_upload_receipt", Long.class));
+	}
+
+	@Test
+	@WithMockUser(authorities="UPDATE_ISSUES")
+	public void putIssueList_deltaUpload_onlyListedCasesChanged() {
+		ZonedDateTime then = _now.minusMonths(1);
+		String issueType = "DELTA";
+		_dataService.initOpenIssue(_dataService.initCase(_system, "D1", _type, then), issueType);
+		_dataService.initOpenIssue(_dataService.initCase(_system, "D2", _type, then), issueType);
+		_dataService.initOpenIssue(_dataService.initCase(_system, "D3", _type, then, "state", "original"), issueType);
+		_dataService.initCase(_system, "D6", _type, then);
+		List<CaseRequest> requested = Arrays.asList(
+			new ClosingRequest("D2"),
+			new CaseRequestImpl("D3", Collections.singletonMap("state", "patched")),
+			new CaseRequestImpl("D4"),
+			new ClosingRequest("D5"),
+			new CaseRequestImpl("D6"),
+			new ClosingRequest("D6") // the last record for a case wins
+		);
+
+		CaseIssueUpload uploadInfo = wrappedPutIssueList(VALID_SYS_TAG, VALID_TYPE_TAG, issueType, UploadMode.DELTA, requested, _now);
+		assertEquals(UploadStatus.SUCCESSFUL, uploadInfo.getUploadStatus());
+		assertEquals(requested.size(), uploadInfo.getUploadedRecordCount());
+		assertEquals(Long.valueOf(1), uploadInfo.getNewIssueCount());
+		assertEquals(Long.valueOf(1), uploadInfo.getClosedIssueCount());
+		assertEquals("unlisted case left alone", 1, fetchCase("D1").getOpenIssueCount());
+		assertEquals(0, fetchCase("D2").getOpenIssueCount());
+		assertEquals(1, fetchCase("D3").getOpenIssueCount());
+		assertEquals("patched", fetchCase("D3").getExtraData().get("state"));
+		assertEquals(1, fetchCase("D4").getOpenIssueCount());
+		assertFalse("no case created just to close it",
+			_caseRepo.findByCaseManagementSystemAndReceiptNumber(_system, "D5").isPresent());
+		assertEquals(0, fetchCase("D6").getOpenIssueCount());
+	}
+
+	@Test
+	@WithMockUser(authorities="UPDATE_ISSUES")
+	public void putIssueList_sameContentDifferentlyWritten_unchanged() {
+		Map<String, Object> extraData = new LinkedHashMap<>();
+		extraData.put("a", 1);
+		extraData.put("b", "two");
+		Map<String, Object> reordered = new LinkedHashMap<>();
+		reordered.put("b", "two");
+		reordered.put("a", 1);
+		CaseIssueUpload first = wrappedPutIssueList(VALID_SYS_TAG, VALID_TYPE_TAG, "SAMEY",
+			Collections.singletonList(new CaseRequestImpl("U1", extraData)), _now);
+		assertEquals(UploadStatus.SUCCESSFUL, first.getUploadStatus());
+
+		CaseIssueUpload second = wrappedPutIssueList(VALID_SYS_TAG, VALID_TYPE_TAG, "SAMEY",
+			Collections.singletonList(new CaseRequestImpl("U1", reordered)), _now);
+		assertEquals(UploadStatus.UNCHANGED, second.getUploadStatus());
+		assertEquals(Long.valueOf(0), second.getNewIssueCount());
+		assertEquals("staged records cleaned up",
+			Long.valueOf(0), _jdbc.queryForObject("SELECT COUNT(*) FROM case_issue_upload_receipt", Long.class));
+
+		CaseIssueUpload delta = wrappedPutIssueList(VALID_SYS_TAG, VALID_TYPE_TAG, "SAMEY", UploadMode.DELTA,
+			Collections.singletonList(new CaseRequestImpl("U1", extraData)), _now);
+		assertEquals("the same records mean something else in a delta upload", UploadStatus.SUCCESSFUL, delta.getUploadStatus());
+	}
+
+	@Test
+	@WithMockUser(authorities="UPDATE_ISSUES")
+	public void putIssueList_sameExtraDataAgain_caseLeftAlone() {
+		CaseIssueUpload first = wrappedPutIssueList(VALID_SYS_TAG, VALID_TYPE_TAG, "HASHY", Arrays.asList(
+			new CaseRequestImpl("H1", Collections.singletonMap("a", 1)),
+			new CaseRequestImpl("H2", Collections.singletonMap("a", 2))), _now);
+		assertEquals("new cases are not updated", Long.valueOf(0), first.getUpdatedCaseCount());
+		assertEquals(Long.valueOf(0), first.getUnchangedCaseCount());
+		Object unchangedUpdatedAt = _jdbc.queryForObject("SELECT updated_at FROM trouble_case WHERE receipt_number = 'H1'", Object.class);
+
+		CaseIssueUpload second = wrappedPutIssueList(VALID_SYS_TAG, VALID_TYPE_TAG, "HASHY", Arrays.asList(
+			new CaseRequestImpl("H1", Collections.singletonMap("a", 1)),
+			new CaseRequestImpl("H2", Collections.singletonMap("a", "changed")),
+			new CaseRequestImpl("H3")), _now.plusDays(1));
+		assertEquals(Long.valueOf(1), second.getUpdatedCaseCount());
+		assertEquals(Long.valueOf(1), second.getUnchangedCaseCount());
+		assertEquals("changed", fetchCase("H2").getExtraData().get("a"));
+		assertEquals(1, fetchCase("H1").getExtraData().get("a"));
+		assertEquals("unchanged case not rewritten", unchangedUpdatedAt,
+			_jdbc.queryForObject("SELECT updated_at FROM trouble_case WHERE receipt_number = 'H1'", Object.class));
+
+		wrappedPutIssueList(VALID_SYS_TAG, VALID_TYPE_TAG, "OTHER_HASHY", Collections.singletonList(new CaseRequestImpl("H1")), _now);
+		assertEquals("open issue count kept up to date for unchanged cases", 2, fetchCase("H1").getOpenIssueCount());
+	}
+
+	@Test
+	@SuppressWarnings("checkstyle:MagicNumber")
+	@WithMockUser(authorities="UPDATE_ISSUES")
+	public void putIssueList_moreRecords_statementCountIndependentOfSize() {
+		List<CaseRequest> single = Collections.singletonList(new CaseRequestImpl("S0"));
+		List<CaseRequest> several = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			several.add(new CaseRequestImpl("S" + i, Collections.singletonMap("index", i)));
+		}
+		CaseIssueUpload setup;
+		do { // first-time setup, leaving room in the block of upload IDs so neither measured upload reserves another
+			setup = wrappedPutIssueList(VALID_SYS_TAG, VALID_TYPE_TAG, "SETWISE", Collections.emptyList(), _now);
+		} while ((setup.getInternalId() - 1) % WriteOnceEntity.ID_ALLOCATION_SIZE > WriteOnceEntity.ID_ALLOCATION_SIZE - 3);
+		long singleStatements = countStatements(() -> wrappedPutIssueList(VALID_SYS_TAG, VALID_TYPE_TAG, "SETWISE", single, _now));
+		long severalStatements = countStatements(() -> {
+			CaseIssueUpload uploadInfo = wrappedPutIssueList(VALID_SYS_TAG, VALID_TYPE_TAG, "SETWISE", several, _now);
+			assertEquals(Long.valueOf(19), uploadInfo.getNewIssueCount());
+		});
+		assertEquals("statements for a larger upload", singleStatements, severalStatements);
+		assertEquals(19, fetchCase("S19").getExtraData().get("index"));
+	}
+
+	@Test
+	@SuppressWarnings("checkstyle:MagicNumber")
+	@WithMockUser(authorities="UPDATE_ISSUES")
+	public void putIssueList_manyNewCases_idsTakenInBlocks() {
+		List<CaseRequest> records = new ArrayList<>();
+		for (int i = 0; i < 120; i++) {
+			records.add(new CaseRequestImpl(String.format("B%03d", i)));
+		}
+		wrappedPutIssueList(VALID_SYS_TAG, VALID_TYPE_TAG, "BLOCKED", records, _now);
+		// one value of the sequence for every block of rows, so the new IDs follow each other with no gaps
+		assertEquals(Long.valueOf(120), _jdbc.queryForObject(
+			"SELECT MAX(internal_id) - MIN(internal_id) + 1 FROM trouble_case WHERE receipt_number LIKE 'B%'", Long.class));
+		assertEquals(Long.valueOf(120), _jdbc.queryForObject(
+			"SELECT MAX(internal_id) - MIN(internal_id) + 1 FROM case_issue WHERE issue_type = 'BLOCKED'", Long.class));
+	}
+
 	@Test
 	@SuppressWarnings("checkstyle:MagicNumber")
 	@WithMockUser(authorities="UPDATE_ISSUES")
@@ -495,10 +890,15 @@ public class CaseListServiceTest extends CaseIssueApiTestBase {
 
 	private CaseIssueUpload wrappedPutIssueList(String systemTag, String caseTypeTag, String issueTypeTag,
 			List<CaseRequest> newIssueCases, ZonedDateTime eventDate) {
+		return wrappedPutIssueList(systemTag, caseTypeTag, issueTypeTag, UploadMode.SNAPSHOT, newIssueCases, eventDate);
+	}
+
+	private CaseIssueUpload wrappedPutIssueList(String systemTag, String caseTypeTag, String issueTypeTag, UploadMode mode,
+			List<CaseRequest> newIssueCases, ZonedDateTime eventDate) {
 		CaseGroupInfo translated = _service.translatePath(systemTag, caseTypeTag);
 		CaseIssueUpload uploadInfo = new CaseIssueUpload(translated.getCaseManagementSystem(),
-		    translated.getCaseType(), issueTypeTag, eventDate, newIssueCases.size());
-		return _service.putIssueList(uploadInfo, newIssueCases);
+		    translated.getCaseType(), issueTypeTag, eventDate, newIssueCases.size(), mode);
+		return _service.putIssueList(uploadInfo, newIssueCases.iterator());
 	}
 
 	@SuppressWarnings("checkstyle:MagicNumber")
@@ -537,4 +937,80 @@ public class CaseListServiceTest extends CaseIssueApiTestBase {
 		}
 
 	}
+
+	/** A record in a delta upload asking for an issue to be closed. */
+	private class ClosingRequest extends CaseRequestImpl {
+
+		public ClosingRequest(String receipt) {
+			super(receipt);
+		}
+
+		@Override
+		public ZonedDateTime getCaseCreation() {
+			return null;
+		}
+
+		@Override
+		public boolean isClosing() {
+			return true;
+		}
+	}
+
+	private TroubleCase fetchCase(String receiptNumber) {
+		return _caseRepo.findByCaseManagementSystemAndReceiptNumber(_system, receiptNumber).get();
+	}
+
+	private long countStatements(Runnable operation) {
+		return measureStatistics(operation, Statistics::getPrepareStatementCount);
+	}
+
+	private long countEntityLoads(Runnable operation) {
+		return measureStatistics(operation, Statistics::getEntityLoadCount);
+	}
+
+	@SuppressWarnings("checkstyle:MagicNumber")
+	private Set<String> filteredReceipts(String... filters) {
+		return _service.getActiveCasePage(VALID_SYS_TAG, VALID_TYPE_TAG, null, null, Arrays.asList(filters), null, 10)
+			.getCases().stream()
+			.map(CaseSummary::getReceiptNumber)
+			.collect(Collectors.toSet());
+	}
+
+	private List<String> sortedReceipts(String sort, int pageSize) {
+		return pagedReceipts(ListType.ACTIVE, sort, pageSize);
+	}
+
+	/** Follow the page cursors to the end of the list, failing (rather than looping forever) if a case repeats. */
+	private List<String> pagedReceipts(ListType listType, String sort, int pageSize) {
+		List<String> receipts = new ArrayList<>();
+		String cursor = null;
+		do {
+			CasePage page = listType == ListType.ACTIVE
+				? _service.getActiveCasePage(VALID_SYS_TAG, VALID_TYPE_TAG, null, cursor, null, sort, pageSize)
+				: _service.getSnoozedCasePage(VALID_SYS_TAG, VALID_TYPE_TAG, null, cursor, null, sort, pageSize);
+			for (CaseSummary c : page.getCases()) {
+				assertFalse("repeated " + c.getReceiptNumber() + " after " + receipts, receipts.contains(c.getReceiptNumber()));
+				receipts.add(c.getReceiptNumber());
+			}
+			cursor = page.getNextCursor();
+		} while (cursor != null);
+		return receipts;
+	}
+
+	private void snoozedCase(String receiptNumber, ZonedDateTime caseCreation, int snoozeDays) {
+		TroubleCase tc = _dataService.initCaseAndOpenIssue(_system, receiptNumber, _type, caseCreation, "TIED");
+		_dataService.snoozeCase(tc, "TIRED", snoozeDays, false);
+	}
+
+	private void initSearchCases(String... receiptNumbers) {
+		for (String receiptNumber : receiptNumbers) {
+			_dataService.initCase(_system, receiptNumber, _type, _now);
+		}
+	}
+
+	private List<String> searchReceipts(String query, Integer limit) {
+		return _service.getCases(VALID_SYS_TAG, VALID_TYPE_TAG, query, limit).stream()
+			.map(TroubleCase::getReceiptNumber)
+			.collect(Collectors.toList());
+	}
 }
@@ -0,0 +1,96 @@
+package gov.usds.case_issues.services;
+
+import static org.junit.Assert.assertFalse;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import gov.usds.case_issues.config.WebConfigurationProperties;
+import gov.usds.case_issues.db.model.CaseManagementSystem;
+import gov.usds.case_issues.db.model.CaseType;
+import gov.usds.case_issues.test_util.CaseIssueApiTestBase;
+
+/**
+ * Latency check for the receipt-number typeahead against a large table. Skipped unless the number of cases to
+ * load is given in the "searchBenchmarkCases" system property (passed through by gradle from the project
+ * property of the same name). Run it with the db-postgresql profile to see the effect of the search indexes.
+ */
+@SuppressWarnings("checkstyle:MagicNumber")
+public class CaseSearchBenchmarkTest extends CaseIssueApiTestBase {
+
+	private static final Logger LOG = LoggerFactory.getLogger(CaseSearchBenchmarkTest.class);
+	private static final String CASE_COUNT_PROPERTY = "searchBenchmarkCases";
+	private static final long FIRST_ID = 1_000_000_000L;
+	private static final int BATCH_SIZE = 10_000;
+	private static final int ITERATIONS = 200;
+	private static final String SYS_TAG = "BENCH";
+	private static final String TYPE_TAG = "MARK";
+
+	@Autowired
+	private CaseListService _listService;
+	@Autowired
+	private JdbcTemplate _jdbc;
+
+	private int _caseCount;
+
+	@Before
+	public void loadCases() {
+		_caseCount = Integer.getInteger(CASE_COUNT_PROPERTY, 0);
+		Assume.assumeTrue("Set " + CASE_COUNT_PROPERTY + " to run this benchmark", _caseCount > 0);
+		truncateDb();
+		CaseManagementSystem system = _dataService.ensureCaseManagementSystemInitialized(SYS_TAG, "Benchmark system");
+		CaseType type = _dataService.ensureCaseTypeInitialized(TYPE_TAG, "Benchmark type");
+		Timestamp now = Timestamp.from(Instant.now());
+		String insert = "INSERT INTO trouble_case (internal_id, created_at, updated_at, case_management_system_internal_id, "
+				+ "case_type_internal_id, receipt_number, case_creation) VALUES (?, ?, ?, ?, ?, ?, ?)";
+		long started = System.currentTimeMillis();
+		for (int batchStart = 0; batchStart < _caseCount; batchStart += BATCH_SIZE) {
+			List<Object[]> batch = new ArrayList<>();
+			for (int i = batchStart; i < Math.min(batchStart + BATCH_SIZE, _caseCount); i++) {
+				batch.add(new Object[] {FIRST_ID + i, now, now, system.getInternalId(), type.getInternalId(), receiptNumber(i), now});
+			}
+			_jdbc.batchUpdate(insert, batch);
+		}
+		LOG.info("Loaded {} cases in {}ms", _caseCount, System.currentTimeMillis() - started);
+	}
+
+	@Test
+	public void getCases_largeTable_latencyLogged() {
+		String target = receiptNumber(_caseCount / 2);
+		List<String> queries = Arrays.asList(
+			target.substring(0, target.length() - 2), // prefix with many matches
+			target, // exact match
+			target.substring(target.length() - 5), // fragment from the middle
+			"Z", // short query with no prefix matches
+			"NOPE" // fragment with no matches at all
+		);
+		for (String query : queries) {
+			long[] nanos = new long[ITERATIONS];
+			int found = 0;
+			for (int i = 0; i < ITERATIONS; i++) {
+				long start = System.nanoTime();
+				found = _listService.getCases(SYS_TAG, TYPE_TAG, query, null).size();
+				nanos[i] = System.nanoTime() - start;
+			}
+			Arrays.sort(nanos);
+			LOG.info("Search for {} in {} cases: {} results, median {}us, 95th percentile {}us, max {}us", query, _caseCount,
+				found, nanos[ITERATIONS / 2] / 1000, nanos[ITERATIONS * 95 / 100] / 1000, nanos[ITERATIONS - 1] / 1000);
+			assertFalse("Found more results than the limit", found > WebConfigurationProperties.DEFAULT_SEARCH_RESULT_LIMIT);
+		}
+	}
+
+	private static String receiptNumber(int i) {
+		return String.format("BEN%08d", i);
+	}
+}
@@ -0,0 +1,148 @@
+package gov.usds.case_issues.services;
+
+import static org.junit.Assert.assertEquals;
+
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import gov.usds.case_issues.db.model.AttachmentType;
+import gov.usds.case_issues.db.model.CaseManagementSystem;
+import gov.usds.case_issues.db.model.CaseSummaryRollup;
+import gov.usds.case_issues.db.model.CaseType;
+import gov.usds.case_issues.db.model.TroubleCase;
+import gov.usds.case_issues.db.repositories.CaseSummaryRollupRepository;
+import gov.usds.case_issues.model.AttachmentRequest;
+import gov.usds.case_issues.model.SnoozeRequest;
+import gov.usds.case_issues.test_util.CaseIssueApiTestBase;
+
+@SuppressWarnings("checkstyle:MagicNumber")
+public class CaseSummaryRollupServiceTest extends CaseIssueApiTestBase {
+
+	private static final String SYS_TAG = "ROLLED";
+	private static final String TYPE_TAG = "UP";
+
+	@Autowired
+	private CaseSummaryRollupService _rollupService;
+	@Autowired
+	private CaseSummaryReconciler _reconciler;
+	@Autowired
+	private CaseDetailsService _detailsService;
+	@Autowired
+	private CaseSummaryRollupRepository _rollupRepo;
+
+	private CaseManagementSystem _system;
+	private CaseType _type;
+
+	@Before
+	public void reset() {
+		truncateDb();
+		_system = _dataService.ensureCaseManagementSystemInitialized(SYS_TAG, "Rolled system");
+		_type = _dataService.ensureCaseTypeInitialized(TYPE_TAG, "Up type");
+		ZonedDateTime then = ZonedDateTime.now().minusDays(10);
+		TroubleCase both = _dataService.initCaseAndOpenIssue(_system, "BOTH", _type, then, "RED");
+		_dataService.initOpenIssue(both, "BLUE");
+		_dataService.initCaseAndOpenIssue(_system, "RED", _type, then, "RED");
+		_dataService.snoozeCase(_dataService.initCaseAndOpenIssue(_system, "BLUE", _type, then, "BLUE"));
+		_dataService.initCaseAndIssue(_system, "CLOSED", _type, then, "RED", then.plusDays(1));
+	}
+
+	@Test
+	public void getSummary_casesWithSeveralIssueTypes_countedOnceOverall() {
+		assertEquals(counts(2, 0, 1), _rollupService.getSummary(_system, _type));
+		Map<String, Map<String, Object>> expected = new HashMap<>();
+		expected.put("BLUE", counts(1, 0, 1));
+		expected.put("RED", counts(2, 0, 0));
+		assertEquals(expected, _rollupService.getIssueTypeSummaries(_system, _type));
+	}
+
+	@Test
+	public void getSummary_noData_emptyCounts() {
+		CaseType otherType = _dataService.ensureCaseTypeInitialized("OTHER", "Nothing here");
+		assertEquals(Collections.emptyMap(), _rollupService.getSummary(_system, otherType));
+		assertEquals(Collections.emptyMap(), _rollupService.getIssueTypeSummaries(_system, otherType));
+	}
+
+	@Test
+	public void updateSnooze_caseWithSeveralIssueTypes_allCountsMoved() {
+		_detailsService.updateSnooze(SYS_TAG, "BOTH", new SnoozeRequest("LATER", 2));
+		assertEquals(counts(1, 0, 2), _rollupService.getSummary(_system, _type));
+		assertEquals(counts(0, 0, 2), _rollupService.getIssueTypeSummaries(_system, _type).get("BLUE"));
+		assertEquals(counts(1, 0, 1), _rollupService.getIssueTypeSummaries(_system, _type).get("RED"));
+		_detailsService.endActiveSnooze(SYS_TAG, "BOTH");
+		assertEquals(counts(1, 1, 1), _rollupService.getSummary(_system, _type));
+		assertEquals(0, _reconciler.reconcile());
+	}
+
+	@Test
+	public void getListVersion_changesWithoutNewCounts_versionIncremented() {
+		long version = _rollupService.getListVersion(_system, _type);
+		_detailsService.updateSnooze(SYS_TAG, "BLUE", new SnoozeRequest("LONGER", 5));
+		assertEquals(counts(2, 0, 1), _rollupService.getSummary(_system, _type));
+		assertEquals(version + 1, _rollupService.getListVersion(_system, _type));
+		_detailsService.annotateActiveSnooze(SYS_TAG, "BLUE", new AttachmentRequest(AttachmentType.COMMENT, "Hmm"));
+		assertEquals(version + 2, _rollupService.getListVersion(_system, _type));
+		assertEquals(0, _reconciler.reconcile());
+		assertEquals(version + 2, _rollupService.getListVersion(_system, _type));
+		assertEquals(0, _rollupService.getListVersion(_system, _dataService.ensureCaseTypeInitialized("OTHER", "Nothing here")));
+	}
+
+	@Test
+	public void reconcile_storedCountsDrifted_countsCorrected() {
+		CaseSummaryRollup rollup = _rollupRepo.findByCaseManagementSystemAndCaseTypeAndIssueType(_system, _type, "RED").get();
+		rollup.setCounts(Collections.singletonMap(TroubleCase.NEVER_SNOOZED, 17));
+		_rollupRepo.save(rollup);
+		_rollupRepo.delete(_rollupRepo.findByCaseManagementSystemAndCaseTypeAndIssueType(_system, _type, "BLUE").get());
+		long version = _rollupService.getListVersion(_system, _type);
+		assertEquals(1, _reconciler.reconcile());
+		assertEquals(version + 1, _rollupService.getListVersion(_system, _type));
+		assertEquals(counts(2, 0, 0), _rollupService.getIssueTypeSummaries(_system, _type).get("RED"));
+		assertEquals(counts(1, 0, 1), _rollupService.getIssueTypeSummaries(_system, _type).get("BLUE"));
+		assertEquals(0, _reconciler.reconcile());
+	}
+
+	@Test
+	public void recompute_concurrentlyForNewCaseType_bothSucceed() throws Exception {
+		CaseType newType = _dataService.ensureCaseTypeInitialized("NEW", "Brand new type");
+		_dataService.initCaseAndOpenIssue(_system, "NEW1", newType, ZonedDateTime.now().minusDays(1), "RED");
+		_rollupRepo.deleteAll(_rollupRepo.findAllByCaseManagementSystemAndCaseTypeOrderByIssueType(_system, newType));
+		Callable<Boolean> recompute = () -> _rollupService.recompute(_system, newType);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			List<Future<Boolean>> results = executor.invokeAll(Arrays.asList(recompute, recompute));
+			for (Future<Boolean> result : results) {
+				result.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+		assertEquals(counts(1, 0, 0), _rollupService.getSummary(_system, newType));
+		assertEquals(2, _rollupRepo.findAllByCaseManagementSystemAndCaseTypeOrderByIssueType(_system, newType).size());
+		assertEquals(1, _rollupService.getListVersion(_system, newType));
+	}
+
+	private static Map<String, Object> counts(long never, long previously, long currently) {
+		Map<String, Object> counts = new HashMap<>();
+		if (never > 0) {
+			counts.put(TroubleCase.NEVER_SNOOZED, never);
+		}
+		if (previously > 0) {
+			counts.put(TroubleCase.PREVIOUSLY_SNOOZED, previously);
+		}
+		if (currently > 0) {
+			counts.put(TroubleCase.CURRENTLY_SNOOZED, currently);
+		}
+		return counts;
+	}
+}
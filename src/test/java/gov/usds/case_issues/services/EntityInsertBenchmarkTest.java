@@ -0,0 +1,136 @@
+package gov.usds.case_issues.services;
+
+import static org.junit.Assert.assertEquals;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+
+import org.hibernate.Session;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.logging.LogLevel;
+import org.springframework.boot.logging.LoggingSystem;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import gov.usds.case_issues.db.model.CaseIssue;
+import gov.usds.case_issues.db.model.CaseManagementSystem;
+import gov.usds.case_issues.db.model.CaseType;
+import gov.usds.case_issues.db.model.TroubleCase;
+import gov.usds.case_issues.db.repositories.CaseIssueRepository;
+import gov.usds.case_issues.db.repositories.TroubleCaseRepository;
+import gov.usds.case_issues.test_util.CaseIssueApiTestBase;
+
+/**
+ * Throughput check for inserting cases and issues as entities, comparing one INSERT statement per entity (as
+ * before JDBC batching was configured) against the configured batches. Skipped unless the number of cases to
+ * insert is given in the "insertBenchmarkRows" system property (passed through by gradle from the project
+ * property of the same name), e.g. run it with 10000, 100000 and 1000000.
+ */
+@SuppressWarnings("checkstyle:MagicNumber")
+public class EntityInsertBenchmarkTest extends CaseIssueApiTestBase {
+
+	private static final Logger LOG = LoggerFactory.getLogger(EntityInsertBenchmarkTest.class);
+	private static final String ROW_COUNT_PROPERTY = "insertBenchmarkRows";
+	private static final int CHUNK_SIZE = CaseListService.UPLOAD_CHUNK_SIZE;
+	private static final String ISSUE_TYPE = "BENCHED";
+	/** The test profile logs every statement, which would cost more than the statements themselves. */
+	private static final String SQL_LOGGER = "org.hibernate.SQL";
+
+	@Autowired
+	private TroubleCaseRepository _caseRepo;
+	@Autowired
+	private CaseIssueRepository _issueRepo;
+	@Autowired
+	private EntityManager _entityManager;
+	@Autowired
+	private PlatformTransactionManager _transactionManager;
+	@Autowired
+	private JdbcTemplate _jdbc;
+
+	private int _rowCount;
+	private CaseManagementSystem _system;
+	private CaseType _type;
+
+	@Before
+	public void checkEnabled() {
+		_rowCount = Integer.getInteger(ROW_COUNT_PROPERTY, 0);
+		Assume.assumeTrue("Set " + ROW_COUNT_PROPERTY + " to run this benchmark", _rowCount > 0);
+		LoggingSystem.get(getClass().getClassLoader()).setLogLevel(SQL_LOGGER, LogLevel.INFO);
+		resetData();
+	}
+
+	@After
+	public void restoreLogging() {
+		LoggingSystem.get(getClass().getClassLoader()).setLogLevel(SQL_LOGGER, LogLevel.DEBUG);
+	}
+
+	@Test
+	public void saveAll_unbatchedVersusBatched_throughputLogged() {
+		// a chunk each way first, so that neither measurement pays for warming up the JVM
+		insert(Math.min(CHUNK_SIZE, _rowCount), 1);
+		resetData();
+		insert(Math.min(CHUNK_SIZE, _rowCount), null);
+		resetData();
+		measure("one statement per row", 1);
+		resetData();
+		measure("configured batches", null);
+	}
+
+	private void resetData() {
+		truncateDb();
+		_system = _dataService.ensureCaseManagementSystemInitialized("BENCH", "Benchmark system");
+		_type = _dataService.ensureCaseTypeInitialized("MARK", "Benchmark type");
+	}
+
+	/**
+	 * Insert the cases and their issues, and log the throughput.
+	 * @param batchSize the JDBC batch size to use, or null for the configured size.
+	 */
+	private void measure(String label, Integer batchSize) {
+		long started = System.nanoTime();
+		insert(_rowCount, batchSize);
+		long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+		assertEquals(Long.valueOf(_rowCount), _jdbc.queryForObject("SELECT COUNT(*) FROM case_issue", Long.class));
+		LOG.info("Inserted {} cases and issues with {} in {}ms ({} rows/s)",
+			_rowCount, label, elapsedMillis, _rowCount * 2 * 1000L / Math.max(elapsedMillis, 1));
+	}
+
+	/**
+	 * Insert cases and their issues, a chunk per transaction.
+	 * @param batchSize the JDBC batch size to use, or null for the configured size.
+	 */
+	private void insert(int rowCount, Integer batchSize) {
+		TransactionTemplate transaction = new TransactionTemplate(_transactionManager);
+		ZonedDateTime now = ZonedDateTime.now();
+		for (int chunkStart = 0; chunkStart < rowCount; chunkStart += CHUNK_SIZE) {
+			final int first = chunkStart;
+			transaction.execute(status -> {
+				_entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+				List<TroubleCase> cases = new ArrayList<>();
+				List<CaseIssue> issues = new ArrayList<>();
+				for (int i = first; i < Math.min(first + CHUNK_SIZE, rowCount); i++) {
+					TroubleCase newCase = new TroubleCase(_system, String.format("BEN%08d", i), _type, now,
+						Collections.singletonMap("caseAge", i % 1000));
+					cases.add(newCase);
+					issues.add(new CaseIssue(newCase, ISSUE_TYPE, now));
+				}
+				_caseRepo.saveAll(cases);
+				_issueRepo.saveAll(issues);
+				_entityManager.flush();
+				_entityManager.clear();
+				return null;
+			});
+		}
+	}
+}
@@ -0,0 +1,144 @@
+package gov.usds.case_issues.services;
+
+import static org.junit.Assert.assertEquals;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import gov.usds.case_issues.db.model.CaseManagementSystem;
+import gov.usds.case_issues.db.model.CaseType;
+import gov.usds.case_issues.db.model.TroubleCase;
+import gov.usds.case_issues.db.model.projections.HitlistCase;
+import gov.usds.case_issues.db.repositories.BulkCaseRepository;
+import gov.usds.case_issues.db.repositories.HitlistSort;
+import gov.usds.case_issues.db.repositories.TroubleCaseRepository;
+import gov.usds.case_issues.test_util.CaseIssueApiTestBase;
+
+/**
+ * Latency and allocation check for reading a page of the active hit list, comparing the projection the page
+ * queries now use against loading the same rows as {@link TroubleCase} entities. Skipped unless the number of
+ * cases to load is given in the "hitlistBenchmarkCases" system property (passed through by gradle from the
+ * project property of the same name).
+ */
+@SuppressWarnings("checkstyle:MagicNumber")
+public class HitlistPageBenchmarkTest extends CaseIssueApiTestBase {
+
+	private static final Logger LOG = LoggerFactory.getLogger(HitlistPageBenchmarkTest.class);
+	private static final String CASE_COUNT_PROPERTY = "hitlistBenchmarkCases";
+	private static final long FIRST_ID = 1_000_000_000L;
+	private static final int BATCH_SIZE = 10_000;
+	private static final int WARMUP = 50;
+	private static final int ITERATIONS = 200;
+	private static final int PAGE_SIZE = BulkCaseRepository.MAX_PAGE_SIZE;
+	private static final String SYS_TAG = "BENCH";
+	private static final String TYPE_TAG = "MARK";
+	private static final String ENTITY_PAGE_QUERY = "SELECT * FROM " + TroubleCase.CASE_DTO_CTE + " WHERE "
+		+ TroubleCase.NOT_SNOOZED_NOW_CONSTRAINT + HitlistSort.CREATED_ASC.getOrder() + "LIMIT :size";
+
+	@Autowired
+	private TroubleCaseRepository _caseRepo;
+	@Autowired
+	private EntityManager _entityManager;
+	@Autowired
+	private PlatformTransactionManager _transactionManager;
+	@Autowired
+	private JdbcTemplate _jdbc;
+
+	private int _caseCount;
+	private CaseManagementSystem _system;
+	private CaseType _type;
+	private TransactionTemplate _readOnlyTransaction;
+
+	@Before
+	public void loadCases() {
+		_caseCount = Integer.getInteger(CASE_COUNT_PROPERTY, 0);
+		Assume.assumeTrue("Set " + CASE_COUNT_PROPERTY + " to run this benchmark", _caseCount > 0);
+		truncateDb();
+		_system = _dataService.ensureCaseManagementSystemInitialized(SYS_TAG, "Benchmark system");
+		_type = _dataService.ensureCaseTypeInitialized(TYPE_TAG, "Benchmark type");
+		_readOnlyTransaction = new TransactionTemplate(_transactionManager);
+		_readOnlyTransaction.setReadOnly(true);
+		Instant start = Instant.now().minusSeconds(_caseCount);
+		Timestamp now = Timestamp.from(Instant.now());
+		String insert = "INSERT INTO trouble_case (internal_id, created_at, updated_at, case_management_system_internal_id, "
+				+ "case_type_internal_id, receipt_number, case_creation, extra_data, open_issue_count) "
+				+ "VALUES (?, ?, ?, ?, ?, ?, ?, ?, 1)";
+		long started = System.currentTimeMillis();
+		for (int batchStart = 0; batchStart < _caseCount; batchStart += BATCH_SIZE) {
+			List<Object[]> batch = new ArrayList<>();
+			for (int i = batchStart; i < Math.min(batchStart + BATCH_SIZE, _caseCount); i++) {
+				String extraData = String.format(
+					"{\"caseAge\":%d,\"caseStatus\":\"Pending\",\"applicationReason\":\"Renewal\",\"channelType\":\"Paper\"}",
+					i % 1000);
+				batch.add(new Object[] {FIRST_ID + i, now, now, _system.getInternalId(), _type.getInternalId(),
+					String.format("BEN%08d", i), Timestamp.from(start.plusSeconds(i)), extraData});
+			}
+			_jdbc.batchUpdate(insert, batch);
+		}
+		LOG.info("Loaded {} cases in {}ms", _caseCount, System.currentTimeMillis() - started);
+	}
+
+	@Test
+	public void getActiveCases_projectionVersusEntities_costLogged() {
+		Supplier<List<String>> projection = () -> _caseRepo.getActiveCases(_system.getInternalId(), _type.getInternalId(),
+				null, HitlistSort.CREATED_ASC, null, PAGE_SIZE).stream()
+			.map(HitlistCase::getReceiptNumber)
+			.collect(Collectors.toList());
+		@SuppressWarnings("unchecked")
+		Supplier<List<String>> entities = () -> ((List<TroubleCase>) _entityManager
+				.createNativeQuery(ENTITY_PAGE_QUERY, TroubleCase.class)
+				.setParameter("caseManagementSystemId", _system.getInternalId())
+				.setParameter("caseTypeId", _type.getInternalId())
+				.setParameter("size", PAGE_SIZE)
+				.getResultList()).stream()
+			.map(TroubleCase::getReceiptNumber)
+			.collect(Collectors.toList());
+		assertEquals("both paths read the same page", run(entities), run(projection));
+		measure("entities", entities);
+		measure("projection", projection);
+	}
+
+	private List<String> run(Supplier<List<String>> page) {
+		return _readOnlyTransaction.execute(status -> page.get());
+	}
+
+	private void measure(String label, Supplier<List<String>> page) {
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long threadId = Thread.currentThread().getId();
+		for (int i = 0; i < WARMUP; i++) {
+			run(page);
+		}
+		long[] nanos = new long[ITERATIONS];
+		long[] bytes = new long[ITERATIONS];
+		for (int i = 0; i < ITERATIONS; i++) {
+			long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+			long start = System.nanoTime();
+			run(page);
+			nanos[i] = System.nanoTime() - start;
+			bytes[i] = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+		}
+		Arrays.sort(nanos);
+		Arrays.sort(bytes);
+		LOG.info("Page of {} from {} cases via {}: median {}us, 95th percentile {}us; median {}KB allocated, max {}KB",
+			PAGE_SIZE, _caseCount, label, nanos[ITERATIONS / 2] / 1000, nanos[ITERATIONS * 95 / 100] / 1000,
+			bytes[ITERATIONS / 2] / 1024, bytes[ITERATIONS - 1] / 1024);
+	}
+}
@@ -0,0 +1,182 @@
+package gov.usds.case_issues.services;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.test.context.support.WithMockUser;
+
+import gov.usds.case_issues.db.model.CaseIssueUpload;
+import gov.usds.case_issues.db.model.CaseManagementSystem;
+import gov.usds.case_issues.db.model.CaseSummaryRollup;
+import gov.usds.case_issues.db.model.CaseType;
+import gov.usds.case_issues.db.model.TroubleCase;
+import gov.usds.case_issues.db.repositories.CaseSummaryRollupRepository;
+import gov.usds.case_issues.model.CaseRequest;
+import gov.usds.case_issues.model.SnoozeRequest;
+import gov.usds.case_issues.test_util.CaseIssueApiTestBase;
+import io.micrometer.core.instrument.MeterRegistry;
+
+@SuppressWarnings("checkstyle:MagicNumber")
+public class HitlistSummaryCacheTest extends CaseIssueApiTestBase {
+
+	private static final String SYS_TAG = "CACHED";
+	private static final String TYPE_TAG = "SUMMARIZED";
+	private static final String ISSUE_TYPE = "COUNTED";
+
+	@Autowired
+	private CaseListService _listService;
+	@Autowired
+	private CaseDetailsService _detailsService;
+	@Autowired
+	private HitlistSummaryCache _summaryCache;
+	@Autowired
+	private CaseSummaryRollupRepository _rollupRepo;
+	@Autowired
+	private MeterRegistry _meterRegistry;
+
+	private CaseManagementSystem _system;
+	private CaseType _type;
+
+	@Before
+	public void reset() {
+		truncateDb();
+		_system = _dataService.ensureCaseManagementSystemInitialized(SYS_TAG, "Cached system");
+		_type = _dataService.ensureCaseTypeInitialized(TYPE_TAG, "Summarized type");
+		ZonedDateTime then = ZonedDateTime.now().minusDays(10);
+		_dataService.initCaseAndOpenIssue(_system, "CASE1", _type, then, ISSUE_TYPE);
+		_dataService.initCaseAndOpenIssue(_system, "CASE2", _type, then, ISSUE_TYPE);
+		TroubleCase snoozed = _dataService.initCaseAndOpenIssue(_system, "CASE3", _type, then, ISSUE_TYPE);
+		_dataService.snoozeCase(snoozed);
+	}
+
+	@Test
+	public void getSummaryInfo_calledTwice_secondCallIsCacheHit() {
+		double hits = cacheGets("hit");
+		double misses = cacheGets("miss");
+		Map<String, Object> first = _listService.getSummaryInfo(SYS_TAG, TYPE_TAG);
+		Map<String, Object> second = _listService.getSummaryInfo(SYS_TAG, TYPE_TAG);
+		assertEquals(first, second);
+		assertEquals(misses + 1, cacheGets("miss"), 0);
+		assertEquals(hits + 1, cacheGets("hit"), 0);
+	}
+
+	@Test
+	public void updateSnooze_summaryCached_newVersionLoaded() {
+		_listService.getSummaryInfo(SYS_TAG, TYPE_TAG);
+		double misses = cacheGets("miss");
+		_detailsService.updateSnooze(SYS_TAG, "CASE1", new SnoozeRequest("NAPTIME", 3));
+		assertCounts(1, 0, 2);
+		assertEquals(misses + 1, cacheGets("miss"), 0);
+		_detailsService.updateSnooze(SYS_TAG, "CASE1", new SnoozeRequest("LONGER_NAP", 5));
+		assertCounts(1, 0, 2);
+	}
+
+	@Test
+	public void endActiveSnooze_summaryCached_newVersionLoaded() {
+		_listService.getSummaryInfo(SYS_TAG, TYPE_TAG);
+		double misses = cacheGets("miss");
+		_detailsService.endActiveSnooze(SYS_TAG, "CASE3");
+		assertCounts(2, 1, 0);
+		assertEquals(misses + 1, cacheGets("miss"), 0);
+	}
+
+	@Test
+	@WithMockUser(authorities="UPDATE_ISSUES")
+	public void putIssueList_summaryCached_newVersionLoaded() {
+		_listService.getSummaryInfo(SYS_TAG, TYPE_TAG);
+		CaseIssueUpload upload = new CaseIssueUpload(_system, _type, ISSUE_TYPE, ZonedDateTime.now(), 1);
+		_listService.putIssueList(upload, Arrays.asList(new SimpleRequest("CASE4")).iterator());
+		Map<String, Object> summary = _listService.getSummaryInfo(SYS_TAG, TYPE_TAG);
+		assertEquals(1L, ((Number) summary.get(TroubleCase.NEVER_SNOOZED)).longValue());
+		assertNull(summary.get(TroubleCase.CURRENTLY_SNOOZED));
+		assertNotNull(summary.get("lastUpdated"));
+	}
+
+	@Test
+	public void getSummaryInfo_countsChangedByAnotherInstance_newCountsServed() {
+		assertCounts(2, 0, 1);
+		CaseSummaryRollup rollup = findAllTypesRollup();
+		rollup.setCounts(Collections.singletonMap(TroubleCase.NEVER_SNOOZED, 7));
+		rollup.incrementListVersion();
+		_rollupRepo.save(rollup);
+		assertCounts(7, 0, 0);
+	}
+
+	@Test
+	public void clearAll_summaryCached_summaryRecomputed() {
+		assertCounts(2, 0, 1);
+		CaseSummaryRollup rollup = findAllTypesRollup();
+		rollup.setCounts(Collections.singletonMap(TroubleCase.NEVER_SNOOZED, 7));
+		_rollupRepo.save(rollup);
+		assertCounts(2, 0, 1);
+		_summaryCache.clearAll();
+		assertCounts(7, 0, 0);
+	}
+
+	private CaseSummaryRollup findAllTypesRollup() {
+		return _rollupRepo.findByCaseManagementSystemAndCaseTypeAndIssueType(_system, _type, CaseSummaryRollup.ALL_ISSUE_TYPES).get();
+	}
+
+	/** Check the cached summary, and that it matches a freshly computed one. */
+	private void assertCounts(long never, long previously, long currently) {
+		Map<String, Object> expected = new HashMap<>();
+		putIfPositive(expected, TroubleCase.NEVER_SNOOZED, never);
+		putIfPositive(expected, TroubleCase.PREVIOUSLY_SNOOZED, previously);
+		putIfPositive(expected, TroubleCase.CURRENTLY_SNOOZED, currently);
+		assertEquals(expected, asLongs(_listService.getSummaryInfo(SYS_TAG, TYPE_TAG)));
+	}
+
+	private static void putIfPositive(Map<String, Object> counts, String state, long count) {
+		if (count > 0) {
+			counts.put(state, count);
+		}
+	}
+
+	private static Map<String, Object> asLongs(Map<String, Object> summary) {
+		Map<String, Object> converted = new HashMap<>();
+		summary.forEach((k, v) -> converted.put(k, ((Number) v).longValue()));
+		return converted;
+	}
+
+	private double cacheGets(String result) {
+		return _meterRegistry.get("cache.gets")
+			.tag("cache", HitlistSummaryCache.CACHE_NAME)
+			.tag("result", result)
+			.functionCounter()
+			.count();
+	}
+
+	private static class SimpleRequest implements CaseRequest {
+
+		private String _receiptNumber;
+
+		SimpleRequest(String receiptNumber) {
+			_receiptNumber = receiptNumber;
+		}
+
+		@Override
+		public String getReceiptNumber() {
+			return _receiptNumber;
+		}
+
+		@Override
+		public ZonedDateTime getCaseCreation() {
+			return ZonedDateTime.now();
+		}
+
+		@Override
+		public Map<String, Object> getExtraData() {
+			return Collections.emptyMap();
+		}
+	}
+}
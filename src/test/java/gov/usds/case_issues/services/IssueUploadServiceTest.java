@@ -1,12 +1,16 @@
 package gov.usds.case_issues.services;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
 
 import java.time.ZonedDateTime;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.List;
+import java.util.Iterator;
+import java.util.Map;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -18,9 +22,12 @@ import org.springframework.test.context.ActiveProfiles;
 import gov.usds.case_issues.db.model.CaseIssueUpload;
 import gov.usds.case_issues.db.model.CaseManagementSystem;
 import gov.usds.case_issues.db.model.CaseType;
+import gov.usds.case_issues.db.model.UploadMode;
 import gov.usds.case_issues.db.model.UploadStatus;
 import gov.usds.case_issues.db.repositories.CaseIssueRepository;
+import gov.usds.case_issues.db.repositories.TroubleCaseRepository;
 import gov.usds.case_issues.model.CaseRequest;
+import gov.usds.case_issues.model.InvalidUploadException;
 import gov.usds.case_issues.services.CaseListService.CaseGroupInfo;
 import gov.usds.case_issues.test_util.CaseIssueApiTestBase;
 import gov.usds.case_issues.test_util.MockConfig;
@@ -35,8 +42,12 @@ public class IssueUploadServiceTest extends CaseIssueApiTestBase {
 	private UploadStatusService _statusService;
 	@Autowired
 	private CaseIssueRepository _wrappedIssueRepo;
+	@Autowired
+	private TroubleCaseRepository _caseRepo;
 	
 	private static final Long ZERO = Long.valueOf(0);
+	private static final int AWAIT_ATTEMPTS = 100;
+	private static final long AWAIT_INTERVAL_MILLIS = 100;
 
 	private ZonedDateTime _now;
 	private CaseManagementSystem _system;
@@ -51,26 +62,148 @@ public class IssueUploadServiceTest extends CaseIssueApiTestBase {
 	}
 
 	@Test
-	public void putIssueList_emptyList_expectedResult() {
-		CaseIssueUpload uploaded = _uploadService.putIssueList(new CaseGroupInfo(_system, _type), "BOOP", Collections.emptyList(), _now);
+	public void submitIssueList_emptyList_expectedResult() throws InterruptedException {
+		CaseIssueUpload submitted = _uploadService.submitIssueList(new CaseGroupInfo(_system, _type), "BOOP", UploadMode.SNAPSHOT,
+			Collections.emptyIterator(), _now);
+		CaseIssueUpload uploaded = awaitUpload(submitted.getInternalId());
 		assertEquals(UploadStatus.SUCCESSFUL, uploaded.getUploadStatus());
 		assertEquals(ZERO, uploaded.getNewIssueCount());
-		assertEquals(ZERO, uploaded.getNewIssueCount());
+		assertEquals(ZERO, uploaded.getClosedIssueCount());
 		assertEquals(0, uploaded.getUploadedRecordCount());
-		assertEquals(_now, uploaded.getEffectiveDate());
+		assertEquals(_now.toInstant(), uploaded.getEffectiveDate().toInstant());
 	}
 
 	@Test
-	public void putIssueList_exception_expectedResult() {
-		Mockito.when(_wrappedIssueRepo.findActiveIssues(_system, _type, "BOOP"))
-			.thenThrow(new IllegalArgumentException("check out this unchecked exception"));
-		List<CaseRequest> requested = Collections.emptyList();
-		CaseIssueUpload uploaded = _uploadService.putIssueList(new CaseGroupInfo(_system, _type), "BOOP", requested, _now);
-		assertEquals(UploadStatus.FAILED, uploaded.getUploadStatus());
-		CaseIssueUpload refetched = _statusService.readUploadInformation(uploaded.getInternalId());
-		assertNotNull(refetched);
+	public void submitIssueList_exception_uploadFailed() throws InterruptedException {
+		Mockito.doThrow(new IllegalArgumentException("check out this unchecked exception"))
+			.when(_wrappedIssueRepo).closeUnstagedIssues(
+				Mockito.argThat(u -> _system.getInternalId().equals(u.getCaseManagementSystem().getInternalId())));
+		Iterator<CaseRequest> requested = Collections.emptyIterator();
+		CaseIssueUpload submitted = _uploadService.submitIssueList(new CaseGroupInfo(_system, _type), "BOOP", UploadMode.SNAPSHOT,
+			requested, _now);
+		CaseIssueUpload refetched = awaitUpload(submitted.getInternalId());
 		assertEquals(UploadStatus.FAILED, refetched.getUploadStatus());
 		assertNull(refetched.getClosedIssueCount());
 		assertNull(refetched.getNewIssueCount());
 	}
+
+	@Test
+	public void submitIssueList_invalidRecordAfterFirstChunk_uploadDiscarded() {
+		Iterator<CaseRequest> requested = new Iterator<CaseRequest>() {
+			private int _count = 0;
+
+			@Override
+			public boolean hasNext() {
+				return true;
+			}
+
+			@Override
+			public CaseRequest next() {
+				if (_count++ > CaseListService.UPLOAD_CHUNK_SIZE) {
+					throw new InvalidUploadException("That is not a case");
+				}
+				return new CaseRequest() {
+					private final String _receipt = "R" + _count;
+
+					@Override
+					public String getReceiptNumber() {
+						return _receipt;
+					}
+					@Override
+					public ZonedDateTime getCaseCreation() {
+						return _now;
+					}
+					@Override
+					public Map<String, Object> getExtraData() {
+						return Collections.emptyMap();
+					}
+				};
+			}
+		};
+		try {
+			_uploadService.submitIssueList(new CaseGroupInfo(_system, _type), "BOOP", UploadMode.SNAPSHOT, requested, _now);
+			fail("Invalid upload should have been rejected");
+		} catch (InvalidUploadException e) {
+			assertEquals("That is not a case", e.getMessage());
+		}
+		assertEquals("No upload records should exist", 0, _statusService.getUploadHistory(_system, _type).size());
+		assertFalse("No cases should have been kept", _caseRepo.findAll().iterator().hasNext());
+	}
+
+	@Test
+	public void submitIssueList_validRecords_appliedInBackground() throws InterruptedException {
+		Iterator<CaseRequest> requested = Arrays.asList(caseRequest("S1"), caseRequest("S2")).iterator();
+		CaseIssueUpload submitted = _uploadService.submitIssueList(new CaseGroupInfo(_system, _type), "BOOP", UploadMode.SNAPSHOT, requested, _now);
+		assertEquals(UploadStatus.STARTED, submitted.getUploadStatus());
+		CaseIssueUpload finished = awaitUpload(submitted.getInternalId());
+		assertEquals(UploadStatus.SUCCESSFUL, finished.getUploadStatus());
+		assertEquals(2, finished.getUploadedRecordCount());
+		assertEquals(Long.valueOf(2), finished.getNewIssueCount());
+		assertEquals(2, _caseRepo.count());
+	}
+
+	@Test
+	public void submitIssueList_sameRecordsAgain_unchanged() throws InterruptedException {
+		CaseGroupInfo pathInfo = new CaseGroupInfo(_system, _type);
+		CaseIssueUpload first = awaitUpload(_uploadService.submitIssueList(pathInfo, "BOOP", UploadMode.SNAPSHOT,
+			Arrays.asList(caseRequest("S1"), caseRequest("S2")).iterator(), _now).getInternalId());
+		assertEquals(UploadStatus.SUCCESSFUL, first.getUploadStatus());
+		assertNotNull(first.getContentDigest());
+
+		CaseIssueUpload second = awaitUpload(_uploadService.submitIssueList(pathInfo, "BOOP", UploadMode.SNAPSHOT,
+			Arrays.asList(caseRequest("S1"), caseRequest("S2")).iterator(), _now.plusDays(1)).getInternalId());
+		assertEquals(UploadStatus.UNCHANGED, second.getUploadStatus());
+		assertEquals(first.getContentDigest(), second.getContentDigest());
+		assertEquals(2, second.getUploadedRecordCount());
+		assertEquals(Long.valueOf(0), second.getNewIssueCount());
+		assertEquals(Long.valueOf(0), second.getClosedIssueCount());
+		assertEquals("the unchanged upload is now the latest",
+			second.getInternalId(), _statusService.getLastUpload(_system, _type, "BOOP").getInternalId());
+
+		CaseIssueUpload third = awaitUpload(_uploadService.submitIssueList(pathInfo, "BOOP", UploadMode.SNAPSHOT,
+			Arrays.asList(caseRequest("S1")).iterator(), _now.plusDays(2)).getInternalId());
+		assertEquals(UploadStatus.SUCCESSFUL, third.getUploadStatus());
+		assertEquals(Long.valueOf(1), third.getClosedIssueCount());
+	}
+
+	@Test
+	public void submitIssueList_invalidReceiptNumber_uploadDiscarded() {
+		Iterator<CaseRequest> requested = Arrays.asList(caseRequest("S1"), caseRequest("S 2")).iterator();
+		try {
+			_uploadService.submitIssueList(new CaseGroupInfo(_system, _type), "BOOP", UploadMode.SNAPSHOT, requested, _now);
+			fail("Invalid upload should have been rejected");
+		} catch (InvalidUploadException e) {
+			assertEquals("Invalid receipt number in record 2", e.getMessage());
+		}
+		assertEquals("No upload records should exist", 0, _statusService.getUploadHistory(_system, _type).size());
+	}
+
+	private CaseIssueUpload awaitUpload(Long uploadId) throws InterruptedException {
+		for (int i = 0; i < AWAIT_ATTEMPTS; i++) {
+			CaseIssueUpload upload = _statusService.readUploadInformation(uploadId);
+			if (upload.getUploadStatus() != UploadStatus.STARTED) {
+				return upload;
+			}
+			Thread.sleep(AWAIT_INTERVAL_MILLIS);
+		}
+		fail("Upload did not finish in time");
+		return null;
+	}
+
+	private CaseRequest caseRequest(String receipt) {
+		return new CaseRequest() {
+			@Override
+			public String getReceiptNumber() {
+				return receipt;
+			}
+			@Override
+			public ZonedDateTime getCaseCreation() {
+				return _now;
+			}
+			@Override
+			public Map<String, Object> getExtraData() {
+				return Collections.singletonMap("receipt", receipt);
+			}
+		};
+	}
 }
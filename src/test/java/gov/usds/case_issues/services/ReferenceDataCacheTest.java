@@ -0,0 +1,90 @@
+package gov.usds.case_issues.services;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import gov.usds.case_issues.db.model.CaseManagementSystem;
+import gov.usds.case_issues.db.repositories.AttachmentSubtypeRepository;
+import gov.usds.case_issues.db.repositories.CaseManagementSystemRepository;
+import gov.usds.case_issues.db.repositories.CaseTypeRepository;
+import gov.usds.case_issues.test_util.CaseIssueApiTestBase;
+
+public class ReferenceDataCacheTest extends CaseIssueApiTestBase {
+
+	private static final String SYS_TAG = "REFERENCE";
+	private static final String TYPE_TAG = "LOOKED-UP";
+
+	@Autowired
+	private ReferenceDataCache _referenceCache;
+	@Autowired
+	private CaseManagementSystemRepository _systemRepo;
+	@Autowired
+	private CaseTypeRepository _typeRepo;
+	@Autowired
+	private AttachmentSubtypeRepository _subtypeRepo;
+	@Autowired
+	private EntityManagerFactory _entityManagerFactory;
+	@Autowired
+	private JdbcTemplate _jdbc;
+
+	private Statistics _stats;
+	private boolean _statsWereEnabled;
+
+	@Before
+	public void reset() {
+		truncateDb();
+		_dataService.ensureCaseManagementSystemInitialized(SYS_TAG, "Reference system");
+		_dataService.ensureCaseTypeInitialized(TYPE_TAG, "Reference type");
+		_stats = _entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		_statsWereEnabled = _stats.isStatisticsEnabled();
+		_stats.setStatisticsEnabled(true);
+		_stats.clear();
+	}
+
+	@After
+	public void restoreStatistics() {
+		_stats.setStatisticsEnabled(_statsWereEnabled);
+	}
+
+	@Test
+	public void findByExternalId_repeated_noFurtherQueries() {
+		assertEquals("Reference system", _systemRepo.findByExternalId(SYS_TAG).get().getName());
+		assertEquals("Reference type", _typeRepo.findByExternalId(TYPE_TAG).get().getName());
+		long statements = _stats.getPrepareStatementCount();
+		assertEquals("Reference system", _systemRepo.findByExternalId(SYS_TAG).get().getName());
+		assertEquals("Reference type", _typeRepo.findByExternalId(TYPE_TAG).get().getName());
+		assertEquals("statements for cached lookups", statements, _stats.getPrepareStatementCount());
+		assertTrue(_referenceCache.getHitRatio() > 0);
+	}
+
+	@Test
+	public void findByExternalId_unknownTag_empty() {
+		assertTrue(!_systemRepo.findByExternalId("NOPE").isPresent());
+		assertTrue(!_subtypeRepo.findByExternalId("NOPE").isPresent());
+	}
+
+	@Test
+	public void getHitRatio_statisticsDisabled_notANumber() {
+		_stats.setStatisticsEnabled(false);
+		assertTrue(Double.isNaN(_referenceCache.getHitRatio()));
+	}
+
+	@Test
+	public void referenceDataChanged_changedBehindHibernatesBack_lookupReloaded() {
+		CaseManagementSystem cached = _systemRepo.findByExternalId(SYS_TAG).get();
+		_jdbc.update("UPDATE case_management_system SET name = ? WHERE external_id = ?", "Renamed system", SYS_TAG);
+		assertEquals("stale until evicted", "Reference system", _systemRepo.findByExternalId(SYS_TAG).get().getName());
+		_referenceCache.referenceDataChanged(cached);
+		assertEquals("Renamed system", _systemRepo.findByExternalId(SYS_TAG).get().getName());
+	}
+}
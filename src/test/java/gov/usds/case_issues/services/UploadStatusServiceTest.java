@@ -7,6 +7,7 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.time.ZonedDateTime;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,9 +18,12 @@ import org.springframework.beans.factory.annotation.Autowired;
 import gov.usds.case_issues.db.model.CaseIssueUpload;
 import gov.usds.case_issues.db.model.CaseManagementSystem;
 import gov.usds.case_issues.db.model.CaseType;
+import gov.usds.case_issues.db.model.UploadMode;
 import gov.usds.case_issues.db.model.UploadStatus;
 import gov.usds.case_issues.db.repositories.CaseIssueRepository;
 import gov.usds.case_issues.db.repositories.CaseIssueUploadRepository;
+import gov.usds.case_issues.model.UploadProgress;
+import gov.usds.case_issues.services.CaseListService.CaseGroupInfo;
 import gov.usds.case_issues.test_util.CaseIssueApiTestBase;
 import gov.usds.case_issues.test_util.TransactionTestingService;
 import gov.usds.case_issues.test_util.TransactionTestingService.ExpectedException;
@@ -93,6 +97,71 @@ public class UploadStatusServiceTest extends CaseIssueApiTestBase {
 		assertTrue(0 < uploadInfo.getInternalId());
 	}
 
+	@Test
+	public void getUploadProgress_startedElsewhere_noProgress() {
+		CaseIssueUpload uploadInfo = initUpload();
+		UploadProgress progress = _service.getUploadProgress(new CaseGroupInfo(_sys, _caseType), uploadInfo.getInternalId());
+		assertEquals(UploadStatus.STARTED, progress.getUploadStatus());
+		assertEquals(0, progress.getParsedRecordCount());
+		assertEquals(0, progress.getStagedRecordCount());
+		assertEquals(0, progress.getAppliedRecordCount());
+	}
+
+	@Test
+	public void getUploadProgress_stagedNotApplied_nothingApplied() {
+		CaseIssueUpload uploadInfo = initUpload();
+		_service.trackProgress(uploadInfo);
+		try {
+			_service.recordParsed(uploadInfo, 42);
+			_service.recordStaged(uploadInfo, 40);
+			UploadProgress progress = _service.getUploadProgress(new CaseGroupInfo(_sys, _caseType), uploadInfo.getInternalId());
+			assertEquals(42, progress.getParsedRecordCount());
+			assertEquals(40, progress.getStagedRecordCount());
+			assertEquals(0, progress.getAppliedRecordCount());
+		} finally {
+			_service.untrackProgress(uploadInfo);
+		}
+	}
+
+	@Test
+	public void getUploadProgress_finished_allRecordsApplied() {
+		CaseIssueUpload uploadInfo = _service.completeUpload(initUpload());
+		UploadProgress progress = _service.getUploadProgress(new CaseGroupInfo(_sys, _caseType), uploadInfo.getInternalId());
+		assertEquals(42, progress.getParsedRecordCount());
+		assertEquals(42, progress.getStagedRecordCount());
+		assertEquals(42, progress.getAppliedRecordCount());
+	}
+
+	@Test
+	public void failAbandonedUploads_startedBeforeCutoff_failed() {
+		CaseIssueUpload abandoned = initUpload();
+		CaseIssueUpload running = initUpload();
+		_service.trackProgress(running);
+		try {
+			assertEquals(1, _service.failAbandonedUploads(new Date(System.currentTimeMillis() + 60_000)));
+		} finally {
+			_service.untrackProgress(running);
+		}
+		assertEquals(UploadStatus.FAILED, _repo.findById(abandoned.getInternalId()).get().getUploadStatus());
+		assertEquals(UploadStatus.STARTED, _repo.findById(running.getInternalId()).get().getUploadStatus());
+	}
+
+	@Test
+	public void failAbandonedUploads_openedBeforeCutoff_failed() {
+		CaseIssueUpload abandoned = _service.openUpload(_sys, _caseType, "DOO", UploadMode.SNAPSHOT, ZonedDateTime.now());
+		assertEquals(1, _service.failAbandonedUploads(new Date(System.currentTimeMillis() + 60_000)));
+		assertEquals(UploadStatus.FAILED, _repo.findById(abandoned.getInternalId()).get().getUploadStatus());
+	}
+
+	@Test
+	public void failAbandonedUploads_startedAfterCutoff_leftAlone() {
+		CaseIssueUpload recent = initUpload();
+		CaseIssueUpload recentlyOpened = _service.openUpload(_sys, _caseType, "DOO", UploadMode.SNAPSHOT, ZonedDateTime.now());
+		assertEquals(0, _service.failAbandonedUploads(new Date(System.currentTimeMillis() - 60_000)));
+		assertEquals(UploadStatus.STARTED, _repo.findById(recent.getInternalId()).get().getUploadStatus());
+		assertEquals(UploadStatus.OPEN, _repo.findById(recentlyOpened.getInternalId()).get().getUploadStatus());
+	}
+
 	@Test(expected=IllegalArgumentException.class)
 	public void readUploadInformation_invalidId_exception() {
 		_service.readUploadInformation(10003L);
@@ -135,7 +204,7 @@ public class UploadStatusServiceTest extends CaseIssueApiTestBase {
 	}
 
 	private CaseIssueUpload initUpload() {
-		return _service.commenceUpload(_sys, _caseType, "DOO", ZonedDateTime.now(), 42);
+		return _service.commenceUpload(_sys, _caseType, "DOO", UploadMode.SNAPSHOT, ZonedDateTime.now(), 42);
 	}
 
 	
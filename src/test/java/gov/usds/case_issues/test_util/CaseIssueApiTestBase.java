@@ -1,8 +1,15 @@
 package gov.usds.case_issues.test_util;
 
+import java.util.function.ToLongFunction;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit4.SpringRunner;
 
@@ -15,8 +22,32 @@ public abstract class CaseIssueApiTestBase {
 	private DbTruncator _truncator;
 	@Autowired
 	protected FixtureDataInitializationService _dataService;
+	@Autowired
+	private CacheManager _cacheManager;
+	@Autowired
+	private EntityManagerFactory _entityManagerFactory;
 
+	/** Empty the database, along with any caches of its contents. */
 	protected void truncateDb() {
 		_truncator.truncateAll();
+		_cacheManager.getCacheNames().forEach(name -> _cacheManager.getCache(name).clear());
+		_entityManagerFactory.getCache().evictAll();
+	}
+
+	/**
+	 * Run an operation with Hibernate statistics cleared and enabled, and measure something from the statistics it
+	 * left behind. The statistics are switched back off (if they were off) afterwards.
+	 */
+	protected long measureStatistics(Runnable operation, ToLongFunction<Statistics> measure) {
+		Statistics stats = _entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		boolean wasEnabled = stats.isStatisticsEnabled();
+		stats.setStatisticsEnabled(true);
+		stats.clear();
+		try {
+			operation.run();
+			return measure.applyAsLong(stats);
+		} finally {
+			stats.setStatisticsEnabled(wasEnabled);
+		}
 	}
 }
@@ -12,16 +12,22 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import gov.usds.case_issues.db.model.AttachmentType;
+import gov.usds.case_issues.db.model.CaseAttachment;
+import gov.usds.case_issues.db.model.CaseAttachmentAssociation;
 import gov.usds.case_issues.db.model.CaseIssue;
 import gov.usds.case_issues.db.model.CaseManagementSystem;
 import gov.usds.case_issues.db.model.CaseSnooze;
 import gov.usds.case_issues.db.model.CaseType;
 import gov.usds.case_issues.db.model.TroubleCase;
+import gov.usds.case_issues.db.repositories.AttachmentAssociationRepository;
+import gov.usds.case_issues.db.repositories.CaseAttachmentRepository;
 import gov.usds.case_issues.db.repositories.CaseIssueRepository;
 import gov.usds.case_issues.db.repositories.CaseManagementSystemRepository;
 import gov.usds.case_issues.db.repositories.CaseSnoozeRepository;
 import gov.usds.case_issues.db.repositories.CaseTypeRepository;
 import gov.usds.case_issues.db.repositories.TroubleCaseRepository;
+import gov.usds.case_issues.services.CaseSummaryRollupService;
 
 @Service
 @Transactional(readOnly=false)
@@ -41,6 +47,12 @@ public class FixtureDataInitializationService {
 	private CaseIssueRepository _issueRepo;
 	@Autowired
 	private CaseSnoozeRepository _snoozeRepo;
+	@Autowired
+	private CaseAttachmentRepository _attachmentRepo;
+	@Autowired
+	private AttachmentAssociationRepository _associationRepo;
+	@Autowired
+	private CaseSummaryRollupService _rollupService;
 
 	public CaseManagementSystem ensureCaseManagementSystemInitialized(String tag, String name) {
 		return ensureCaseManagementSystemInitialized(tag, name, null);
@@ -107,22 +119,41 @@ public class FixtureDataInitializationService {
 
 	/** Create an issue for this case with the given open and close dates */
 	public CaseIssue initIssue(TroubleCase troubleCase, String issueType, ZonedDateTime issueStart, ZonedDateTime issueEnd) {
-		CaseIssue issue = new CaseIssue(troubleCase, issueType, issueStart);
+		CaseIssue issue = new CaseIssue(refetch(troubleCase), issueType, issueStart);
 		if (issueEnd != null) {
 			issue.setIssueClosed(issueEnd);
 		}
-		return _issueRepo.save(issue);
+		CaseIssue saved = _issueRepo.save(issue);
+		return recomputeSummary(saved.getIssueCase(), saved);
 	}
 
 	public CaseSnooze snoozeCase(TroubleCase troubleCase) {
-		return _snoozeRepo.save(new CaseSnooze(troubleCase, "DONOTCARE", DEFAULT_SNOOZE));
+		CaseSnooze snooze = _snoozeRepo.save(new CaseSnooze(refetch(troubleCase), "DONOTCARE", DEFAULT_SNOOZE));
+		return recomputeSummary(troubleCase, snooze);
 	}
 
 	public CaseSnooze snoozeCase(TroubleCase tc, String snoozeReason, int requestedDays, boolean cancel) {
-		CaseSnooze snzed = new CaseSnooze(tc, snoozeReason, requestedDays);
+		CaseSnooze snzed = new CaseSnooze(refetch(tc), snoozeReason, requestedDays);
 		if (cancel) {
 			snzed.endSnoozeNow();
 		}
-		return _snoozeRepo.save(snzed);
+		return recomputeSummary(tc, _snoozeRepo.save(snzed));
+	}
+
+	/** Attach a new comment to this snooze */
+	public CaseAttachmentAssociation attachComment(CaseSnooze snooze, String content) {
+		CaseAttachment comment = _attachmentRepo.save(new CaseAttachment(AttachmentType.COMMENT, null, content));
+		return _associationRepo.save(new CaseAttachmentAssociation(snooze, comment));
+	}
+
+	/** Fixtures bypass the services that keep the precomputed summary counts up to date, so bring them up to date here. */
+	private <T> T recomputeSummary(TroubleCase changedCase, T created) {
+		_rollupService.recompute(changedCase.getCaseManagementSystem(), changedCase.getCaseType());
+		return created;
+	}
+
+	/** Get a managed copy of a case that was created in another transaction, so that changes to it are persisted. */
+	private TroubleCase refetch(TroubleCase troubleCase) {
+		return _caseRepo.findById(troubleCase.getInternalId()).get();
 	}
 }
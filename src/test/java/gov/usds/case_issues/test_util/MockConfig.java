@@ -41,7 +41,11 @@ public class MockConfig {
 	@Primary
 	@Profile(MOCK_PROPERTIES_PROFILE)
 	public WebConfigurationProperties getMockProperties() {
-		return Mockito.mock(WebConfigurationProperties.class);
+		WebConfigurationProperties mockProperties = Mockito.mock(WebConfigurationProperties.class);
+		// the upload workers are started with the application, so these cannot wait for a test to set them
+		Mockito.when(mockProperties.getUploadWorkers()).thenReturn(WebConfigurationProperties.DEFAULT_UPLOAD_WORKERS);
+		Mockito.when(mockProperties.getUploadQueueCapacity()).thenReturn(WebConfigurationProperties.DEFAULT_UPLOAD_QUEUE_CAPACITY);
+		return mockProperties;
 	}
 
 	@Bean
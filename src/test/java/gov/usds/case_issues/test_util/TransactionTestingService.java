@@ -12,6 +12,7 @@ import org.springframework.transaction.annotation.Transactional;
 import gov.usds.case_issues.db.model.CaseManagementSystem;
 import gov.usds.case_issues.db.model.CaseType;
 import gov.usds.case_issues.db.model.TroubleCase;
+import gov.usds.case_issues.db.model.UploadMode;
 import gov.usds.case_issues.db.repositories.CaseManagementSystemRepository;
 import gov.usds.case_issues.services.UploadStatusService;
 
@@ -40,7 +41,7 @@ public class TransactionTestingService {
 
 	public void fakeUploadFailure(CaseManagementSystem sys, CaseType caseType, String issueType) {
 		LOG.info("Commencing fake upload");
-		_statusService.commenceUpload(sys, caseType, issueType, ZonedDateTime.now(), ARBITRARY_UPLOAD_COUNT);
+		_statusService.commenceUpload(sys, caseType, issueType, UploadMode.SNAPSHOT, ZonedDateTime.now(), ARBITRARY_UPLOAD_COUNT);
 		LOG.info("Creating fake upload records");
 		TroubleCase tc = _dataService.initCase(sys, "ABC123", caseType, ZonedDateTime.now());
 		_dataService.initIssue(tc, issueType, ZonedDateTime.now(), null);